@@ -1,9 +1,18 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.AbstractCollection;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.NavigableSet;
 import java.util.NoSuchElementException;
 import java.util.Random;
+import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 /**
  * <p>
@@ -17,13 +26,76 @@ import java.util.Random;
  * d'efficacité.
  * </p>
  * 
+ * <p>
+ * L'arbre implémente {@link NavigableSet} : les vues renvoyées par
+ * {@link #subSet}, {@link #headSet} et {@link #tailSet} ne copient rien et
+ * commencent leur parcours par une descente vers la borne basse. Contrairement
+ * à TreeSet, les doublons sont conservés.
+ * </p>
+ * 
+ * <p>
+ * L'arbre n'est pas équilibré par défaut. En mode
+ * {@link Equilibrage#EVASEMENT} (arbre évasé, ou "splay tree"), chaque
+ * recherche, ajout ou suppression par clé remonte le noeud atteint à la racine
+ * par évasement descendant : les clés souvent demandées restent près de la
+ * racine, et le coût amorti est en O(log n) même pour des insertions dans
+ * l'ordre croissant.
+ * </p>
+ * 
+ * <p>
+ * En mode {@link Equilibrage#BOUC_EMISSAIRE} ("scapegoat tree"), l'arbre
+ * garde sa forme d'ABR simple, liens pere compris, sans couleur ni hauteur
+ * dans les noeuds : une insertion trop profonde fait reconstruire
+ * parfaitement équilibré le sous-arbre d'un ancêtre déséquilibré, et les
+ * suppressions reconstruisent tout l'arbre quand il a trop rétréci. Le coût
+ * amorti d'une insertion ou d'une suppression est en O(log n), et une
+ * recherche est toujours en O(log n).
+ * </p>
+ * 
  * @param <E>
  *            le type des clés stockées dans l'arbre
  */
-public class ABR<E> extends AbstractCollection<E> {
+public class ABR<E> extends AbstractCollection<E> implements NavigableSet<E>, Metriques.Source {
     private Noeud racine;
     private int taille;
+    // Modifications structurelles, pour invalider les curseurs
+    private int nbModifications;
     private Comparator<? super E> cmp;
+    private Equilibrage equilibrage = Equilibrage.AUCUN;
+    // Mode bouc émissaire : un sous-arbre est trop déséquilibré si l'un de
+    // ses enfants a plus de alpha fois sa taille ; maxTaille est la plus
+    // grande taille atteinte depuis la dernière reconstruction complète
+    private double alpha = ALPHA_DEFAUT;
+    private double logInverseAlpha = Math.log(1 / ALPHA_DEFAUT);
+    private int maxTaille;
+    // Compteurs d'instrumentation, null sauf avec -Darbres.metriques=true
+    private final Metriques.Compteurs compteurs = Metriques.ACTIVES ? new Metriques.Compteurs() : null;
+
+    /**
+     * Stratégie de rééquilibrage de l'arbre.
+     */
+    public enum Equilibrage {
+        /** Arbre binaire de recherche simple, sans rééquilibrage */
+        AUCUN,
+        /** Arbre évasé : chaque accès par clé remonte le noeud à la racine */
+        EVASEMENT,
+        /**
+         * Arbre bouc émissaire : reconstruction d'un sous-arbre quand une
+         * insertion dépasse la profondeur log(n) / log(1 / alpha)
+         */
+        BOUC_EMISSAIRE
+    }
+
+    /** Valeur de alpha des arbres bouc émissaire créés sans la préciser */
+    public static final double ALPHA_DEFAUT = 0.7;
+
+    // Noeud d'en-tête réutilisé par evaser() pour assembler les arbres gauche
+    // et droit, et résultat de la dernière comparaison faite par evaser()
+    private Noeud entete;
+    private int derniereComparaison;
+
+    @SuppressWarnings("unchecked")
+    private static final Comparator<Object> ORDRE_NATUREL = (e1, e2) -> ((Comparable<Object>) e1).compareTo(e2);
 
     private class Noeud {
         E cle;
@@ -72,6 +144,41 @@ public class ABR<E> extends AbstractCollection<E> {
             }
             return y;
         }
+
+        /**
+         * Renvoie le noeud contenant la clé maximale du sous-arbre enraciné
+         * dans ce noeud
+         * 
+         * @return le noeud contenant la clé maximale du sous-arbre enraciné
+         *         dans ce noeud
+         */
+        Noeud maximum() {
+            Noeud x = this;
+            while (x.droit != null) {
+                x = x.droit;
+            }
+            return x;
+        }
+
+        /**
+         * Renvoie le prédécesseur de ce noeud
+         * 
+         * @return le noeud contenant la clé qui précède la clé de ce noeud
+         *         dans l'ordre des clés, null si c'est le noeud contenant la
+         *         plus petite clé
+         */
+        Noeud precedent() {
+            if (gauche != null) {
+                return gauche.maximum();
+            }
+            Noeud x = this;
+            Noeud y = pere;
+            while (y != null && x == y.gauche) {
+                x = y;
+                y = y.pere;
+            }
+            return y;
+        }
     }
 
     // Consructeurs
@@ -82,7 +189,7 @@ public class ABR<E> extends AbstractCollection<E> {
     public ABR() {
         racine = null;
         taille = 0;
-        cmp = (e1, e2) -> ((Comparable<E>) e1).compareTo(e2);
+        cmp = ORDRE_NATUREL;
     }
 
     /**
@@ -90,28 +197,175 @@ public class ABR<E> extends AbstractCollection<E> {
      * le comparateur
      * 
      * @param cmp
-     *            le comparateur utilisé pour définir l'ordre des éléments
+     *            le comparateur utilisé pour définir l'ordre des éléments,
+     *            null pour l'ordre naturel
      */
     public ABR(Comparator<? super E> cmp) {
         this();
-        this.cmp = cmp;
+        if (cmp != null)
+            this.cmp = cmp;
+    }
+
+    /**
+     * Crée un arbre vide utilisant la stratégie de rééquilibrage donnée.
+     * 
+     * @param equilibrage
+     *            la stratégie de rééquilibrage
+     * @param cmp
+     *            le comparateur utilisé pour définir l'ordre des éléments,
+     *            null pour l'ordre naturel
+     */
+    public ABR(Equilibrage equilibrage, Comparator<? super E> cmp) {
+        this(cmp);
+        this.equilibrage = equilibrage;
+    }
+
+    /**
+     * Crée un arbre évasé vide, ordonné selon l'ordre naturel.
+     * 
+     * @return le nouvel arbre
+     */
+    public static <E> ABR<E> evase() {
+        return new ABR<>(Equilibrage.EVASEMENT, null);
+    }
+
+    /**
+     * Crée un arbre bouc émissaire vide, ordonné selon l'ordre naturel, avec
+     * alpha = {@link #ALPHA_DEFAUT}.
+     * 
+     * @return le nouvel arbre
+     */
+    public static <E> ABR<E> boucEmissaire() {
+        return boucEmissaire(ALPHA_DEFAUT, null);
+    }
+
+    /**
+     * Crée un arbre bouc émissaire vide. Plus alpha est proche de 1/2, plus
+     * l'arbre reste bas et plus les reconstructions sont fréquentes ; plus il
+     * est proche de 1, plus l'arbre peut se creuser avant d'être reconstruit.
+     * 
+     * @param alpha
+     *            le facteur d'équilibre, strictement entre 1/2 et 1
+     * @param cmp
+     *            le comparateur utilisé pour définir l'ordre des éléments,
+     *            null pour l'ordre naturel
+     * @return le nouvel arbre
+     * @throws IllegalArgumentException
+     *             si alpha n'est pas dans ]1/2, 1[
+     */
+    public static <E> ABR<E> boucEmissaire(double alpha, Comparator<? super E> cmp) {
+        if (!(alpha > 0.5 && alpha < 1))
+            throw new IllegalArgumentException("alpha doit être dans ]1/2, 1[ : " + alpha);
+        ABR<E> arbre = new ABR<>(Equilibrage.BOUC_EMISSAIRE, cmp);
+        arbre.alpha = alpha;
+        arbre.logInverseAlpha = Math.log(1 / alpha);
+        return arbre;
+    }
+
+    /**
+     * @return la stratégie de rééquilibrage de l'arbre
+     */
+    public Equilibrage getEquilibrage() {
+        return equilibrage;
     }
 
     /**
      * Constructeur par recopie. Crée un arbre qui contient les mêmes éléments
-     * que c. L'ordre des éléments est l'ordre naturel.
+     * que c. L'ordre des éléments est l'ordre naturel. Les éléments sont triés
+     * (en O(n log n), O(n) si c est déjà triée) puis l'arbre est construit
+     * parfaitement équilibré en O(n), au lieu de n insertions successives.
      * 
      * @param c
      *            la collection à copier
      */
     public ABR(Collection<? extends E> c) {
         this();
-        addAll(c);
+        Object[] t = c.toArray();
+        Arrays.sort(t);
+        chargerEnBloc(t);
+    }
+
+    /**
+     * Construit en O(n) un arbre parfaitement équilibré à partir d'une
+     * collection dont l'itération est déjà triée selon cmp (doublons acceptés).
+     * 
+     * @param trie
+     *            la collection triée à charger
+     * @param cmp
+     *            le comparateur utilisé pour définir l'ordre des éléments
+     * @return le nouvel arbre
+     * @throws IllegalArgumentException
+     *             si la collection n'est pas triée
+     */
+    public static <E> ABR<E> depuisTrie(Collection<? extends E> trie, Comparator<? super E> cmp) {
+        ABR<E> arbre = new ABR<>(cmp);
+        arbre.chargerTrie(trie.toArray());
+        return arbre;
+    }
+
+    /**
+     * Comme {@link #depuisTrie(Collection, Comparator)}, avec l'ordre naturel.
+     * 
+     * @param trie
+     *            la collection triée à charger
+     * @return le nouvel arbre
+     */
+    public static <E> ABR<E> depuisTrie(Collection<? extends E> trie) {
+        ABR<E> arbre = new ABR<>();
+        arbre.chargerTrie(trie.toArray());
+        return arbre;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void chargerTrie(Object[] t) {
+        for (int i = 1; i < t.length; i++) {
+            if (cmp.compare((E) t[i - 1], (E) t[i]) > 0)
+                throw new IllegalArgumentException("la collection n'est pas triée (indice " + i + ")");
+        }
+        chargerEnBloc(t);
+    }
+
+    /**
+     * Remplace le contenu de l'arbre par les éléments du tableau trié t.
+     */
+    private void chargerEnBloc(Object[] t) {
+        racine = construireEquilibre(t, 0, t.length - 1);
+        if (racine != null)
+            racine.pere = null;
+        taille = t.length;
+        maxTaille = taille;
+        nbModifications++;
+    }
+
+    /**
+     * Construit le sous-arbre équilibré contenant t[debut..fin] ; la récursion
+     * est de profondeur log n.
+     */
+    @SuppressWarnings("unchecked")
+    private Noeud construireEquilibre(Object[] t, int debut, int fin) {
+        if (debut > fin)
+            return null;
+        int milieu = (debut + fin) >>> 1;
+        Noeud x = new Noeud((E) t[milieu]);
+        if (Metriques.ACTIVES)
+            compteurs.noeudsCrees++;
+        x.gauche = construireEquilibre(t, debut, milieu - 1);
+        x.droit = construireEquilibre(t, milieu + 1, fin);
+        if (x.gauche != null)
+            x.gauche.pere = x;
+        if (x.droit != null)
+            x.droit.pere = x;
+        return x;
     }
 
     @Override
     public Iterator<E> iterator() {
-        return new ABRIterator();
+        return new ABRIterator(racine != null ? racine.minimum() : null, false, null);
+    }
+
+    @Override
+    public Iterator<E> descendingIterator() {
+        return new ABRIterator(racine != null ? racine.maximum() : null, true, null);
     }
 
     @Override
@@ -119,6 +373,48 @@ public class ABR<E> extends AbstractCollection<E> {
         return taille;
     }
 
+    /**
+     * Instantané des métriques de l'arbre. Les compteurs (opérations par clé,
+     * comparaisons, rotations de l'évasement, noeuds créés) sont nuls si la
+     * JVM n'a pas été lancée avec -Darbres.metriques=true ; la hauteur et
+     * l'histogramme des profondeurs sont calculés par un parcours complet qui
+     * suit les liens pere, sans récursion, car un ABR non équilibré peut avoir
+     * la profondeur de sa taille.
+     * 
+     * @return l'instantané, sans hauteur noire (-1)
+     */
+    @Override
+    public Metriques metriques() {
+        int[] histogramme = new int[8];
+        Noeud x = racine;
+        Noeud precedent = null;
+        int profondeur = 0;
+        while (x != null) {
+            Noeud suivant;
+            if (precedent == x.pere) {
+                histogramme = Metriques.compterProfondeur(histogramme, profondeur);
+                suivant = x.gauche != null ? x.gauche : x.droit != null ? x.droit : x.pere;
+            } else if (precedent == x.gauche && x.droit != null) {
+                suivant = x.droit;
+            } else {
+                suivant = x.pere;
+            }
+            profondeur += suivant == x.pere ? -1 : 1;
+            precedent = x;
+            x = suivant;
+        }
+        return new Metriques(compteurs, taille, -1, Metriques.ajuster(histogramme));
+    }
+
+    /**
+     * Remet les compteurs à zéro.
+     */
+    @Override
+    public void reinitialiserMetriques() {
+        if (Metriques.ACTIVES)
+            compteurs.reinitialiser();
+    }
+
     // Quelques méthodes utiles
 
     /**
@@ -132,36 +428,328 @@ public class ABR<E> extends AbstractCollection<E> {
     @SuppressWarnings("unchecked")
     Noeud rechercher(Object o) {
         E k = (E) o;
+        if (Metriques.ACTIVES)
+            compteurs.operations.increment();
+        if (equilibrage == Equilibrage.EVASEMENT) {
+            if (racine == null)
+                return null;
+            racine = evaser(racine, k, false);
+            return derniereComparaison == 0 ? racine : null;
+        }
         Noeud x = racine;
-        while (x != null && !x.cle.equals(k)) {
-            x = cmp.compare(k, x.cle) < 0 ? x.gauche : x.droit;
+        while (x != null) {
+            if (Metriques.ACTIVES)
+                compteurs.comparaisons.increment();
+            int c = cmp.compare(k, x.cle); // Une seule comparaison par niveau
+            if (c == 0)
+                return x;
+            x = c < 0 ? x.gauche : x.droit;
         }
-        return x;
+        return null;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return rechercher(o) != null;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        Noeud z = rechercher(o);
+        if (z == null)
+            return false;
+        if (equilibrage == Equilibrage.EVASEMENT)
+            supprimerRacine();
+        else
+            supprimer(z);
+        return true;
     }
 
     @Override
     public boolean add(E e) {
         Noeud z = new Noeud(e);
+        if (Metriques.ACTIVES) {
+            compteurs.operations.increment();
+            compteurs.noeudsCrees++;
+        }
+        if (equilibrage == Equilibrage.EVASEMENT) {
+            ajouterALaRacine(z);
+            return true;
+        }
         Noeud y = null;
         Noeud x = racine;
+        boolean aGauche = false; // Côté de y où z sera accroché
+        int profondeur = 0; // Profondeur de z une fois accroché
         while (x != null) {
             y = x;
-            x = cmp.compare(z.cle, x.cle) < 0 ? x.gauche : x.droit;
+            if (Metriques.ACTIVES)
+                compteurs.comparaisons.increment();
+            aGauche = cmp.compare(z.cle, x.cle) < 0;
+            x = aGauche ? x.gauche : x.droit;
+            profondeur++;
         }
         z.pere = y;
         if (y == null) {
             racine = z;
+        } else if (aGauche) {
+            y.gauche = z;
         } else {
-            if (cmp.compare(z.cle, y.cle) < 0)
-                y.gauche = z;
-            else
-                y.droit = z;
+            y.droit = z;
         }
         z.gauche = z.droit = null;
         taille++;
+        nbModifications++;
+        if (equilibrage == Equilibrage.BOUC_EMISSAIRE) {
+            maxTaille = Math.max(maxTaille, taille);
+            if (profondeur > Math.log(taille) / logInverseAlpha)
+                reconstruireBoucEmissaire(z);
+        }
         return true;
     }
 
+    // Arbre bouc émissaire
+
+    /**
+     * Remonte de z, trop profond, vers la racine en calculant la taille de
+     * chaque ancêtre, jusqu'au premier (le bouc émissaire) dont un enfant a
+     * plus de alpha fois sa taille, et reconstruit son sous-arbre. Un tel
+     * ancêtre existe toujours quand z dépasse la profondeur
+     * log(n) / log(1 / alpha). Seul le sous-arbre du frère est parcouru à
+     * chaque étape : le coût est en O(taille du bouc émissaire), amorti par
+     * les insertions qui ont pu le déséquilibrer.
+     */
+    private void reconstruireBoucEmissaire(Noeud z) {
+        Noeud enfant = z;
+        int tailleEnfant = 1;
+        for (Noeud x = z.pere; x != null; x = x.pere) {
+            int tailleX = tailleEnfant + 1 + compterNoeuds(enfant == x.gauche ? x.droit : x.gauche);
+            if (tailleEnfant > alpha * tailleX) {
+                reconstruire(x, tailleX);
+                return;
+            }
+            enfant = x;
+            tailleEnfant = tailleX;
+        }
+    }
+
+    /**
+     * Nombre de noeuds du sous-arbre enraciné en t, par un parcours dans
+     * l'ordre de son minimum à son maximum.
+     */
+    private int compterNoeuds(Noeud t) {
+        if (t == null)
+            return 0;
+        Noeud fin = t.maximum();
+        int n = 1;
+        for (Noeud x = t.minimum(); x != fin; x = x.suivant())
+            n++;
+        return n;
+    }
+
+    /**
+     * Reconstruit parfaitement équilibré, en O(n), le sous-arbre de n noeuds
+     * enraciné en t, et le raccroche à la place de t. Les noeuds sont
+     * réutilisés, pas recréés : un itérateur en cours qui désigne l'un d'eux
+     * reste valable, et l'ordre des clés ne change pas.
+     */
+    private void reconstruire(Noeud t, int n) {
+        Noeud pere = t.pere;
+        boolean aGauche = pere != null && t == pere.gauche;
+        Object[] noeuds = new Object[n];
+        Noeud x = t.minimum();
+        for (int i = 0; i < n; i++) {
+            noeuds[i] = x;
+            x = x.suivant();
+        }
+        Noeud nouvelleRacine = relier(noeuds, 0, n - 1);
+        nouvelleRacine.pere = pere;
+        if (pere == null)
+            racine = nouvelleRacine;
+        else if (aGauche)
+            pere.gauche = nouvelleRacine;
+        else
+            pere.droit = nouvelleRacine;
+        if (Metriques.ACTIVES)
+            compteurs.reconstructions++;
+    }
+
+    /**
+     * Comme construireEquilibre, mais avec les noeuds existants de
+     * noeuds[debut..fin], rangés dans l'ordre.
+     */
+    @SuppressWarnings("unchecked")
+    private Noeud relier(Object[] noeuds, int debut, int fin) {
+        if (debut > fin)
+            return null;
+        int milieu = (debut + fin) >>> 1;
+        Noeud x = (Noeud) noeuds[milieu];
+        x.gauche = relier(noeuds, debut, milieu - 1);
+        x.droit = relier(noeuds, milieu + 1, fin);
+        if (x.gauche != null)
+            x.gauche.pere = x;
+        if (x.droit != null)
+            x.droit.pere = x;
+        return x;
+    }
+
+    // Arbre évasé
+
+    /**
+     * Évasement descendant (Sleator et Tarjan) du sous-arbre t pour la clé k :
+     * le dernier noeud du chemin de recherche de k devient la racine. Les
+     * noeuds laissés à gauche et à droite du chemin sont accrochés au fur et à
+     * mesure à deux arbres (sous l'en-tête), réassemblés à la fin ; les liens
+     * pere sont maintenus au passage. Le résultat de la comparaison entre k et
+     * la nouvelle racine est laissé dans derniereComparaison.
+     * 
+     * @param t
+     *            la racine du sous-arbre, non null
+     * @param k
+     *            la clé cherchée (ignorée si versMax est vrai)
+     * @param versMax
+     *            vrai pour remonter le maximum du sous-arbre
+     * @return la nouvelle racine du sous-arbre, sans père
+     */
+    private Noeud evaser(Noeud t, E k, boolean versMax) {
+        if (entete == null)
+            entete = new Noeud(null);
+        Noeud g = entete; // Noeud le plus à droite de l'arbre gauche
+        Noeud d = entete; // Noeud le plus à gauche de l'arbre droit
+        int c = versMax ? 1 : comparerEvasement(k, t.cle);
+        while (c != 0) {
+            if (c < 0) {
+                Noeud y = t.gauche;
+                if (y == null)
+                    break;
+                int cy = versMax ? 1 : comparerEvasement(k, y.cle);
+                if (cy < 0) {
+                    // Zig-zig : rotation à droite avant de descendre
+                    if (Metriques.ACTIVES)
+                        compteurs.rotations.increment();
+                    t.gauche = y.droit;
+                    if (y.droit != null)
+                        y.droit.pere = t;
+                    y.droit = t;
+                    t.pere = y;
+                    t = y;
+                    c = cy;
+                    if (t.gauche == null)
+                        break;
+                    y = t.gauche;
+                    cy = versMax ? 1 : comparerEvasement(k, y.cle);
+                }
+                // t et son sous-arbre droit passent dans l'arbre droit
+                d.gauche = t;
+                t.pere = d;
+                d = t;
+                t = y;
+                c = cy;
+            } else {
+                Noeud y = t.droit;
+                if (y == null)
+                    break;
+                int cy = versMax ? 1 : comparerEvasement(k, y.cle);
+                if (cy > 0) {
+                    // Zag-zag : rotation à gauche avant de descendre
+                    if (Metriques.ACTIVES)
+                        compteurs.rotations.increment();
+                    t.droit = y.gauche;
+                    if (y.gauche != null)
+                        y.gauche.pere = t;
+                    y.gauche = t;
+                    t.pere = y;
+                    t = y;
+                    c = cy;
+                    if (t.droit == null)
+                        break;
+                    y = t.droit;
+                    cy = versMax ? 1 : comparerEvasement(k, y.cle);
+                }
+                // t et son sous-arbre gauche passent dans l'arbre gauche
+                g.droit = t;
+                t.pere = g;
+                g = t;
+                t = y;
+                c = cy;
+            }
+        }
+        // Réassemblage : les sous-arbres de t complètent les arbres gauche et
+        // droit, qui deviennent ses enfants
+        g.droit = t.gauche;
+        if (t.gauche != null)
+            t.gauche.pere = g;
+        d.gauche = t.droit;
+        if (t.droit != null)
+            t.droit.pere = d;
+        t.gauche = entete.droit;
+        t.droit = entete.gauche;
+        if (t.gauche != null)
+            t.gauche.pere = t;
+        if (t.droit != null)
+            t.droit.pere = t;
+        t.pere = null;
+        entete.gauche = entete.droit = null;
+        derniereComparaison = c;
+        return t;
+    }
+
+    private int comparerEvasement(E k, E cle) {
+        if (Metriques.ACTIVES)
+            compteurs.comparaisons.increment();
+        return cmp.compare(k, cle);
+    }
+
+    /**
+     * Ajout en mode évasé : après évasement pour la clé de z, l'ancienne
+     * racine et l'un de ses sous-arbres passent sous z, qui devient la racine.
+     * Une clé égale est placée après celles déjà présentes.
+     */
+    private void ajouterALaRacine(Noeud z) {
+        if (racine != null) {
+            Noeud t = evaser(racine, z.cle, false);
+            if (derniereComparaison < 0) {
+                z.gauche = t.gauche;
+                z.droit = t;
+                t.gauche = null;
+            } else {
+                z.droit = t.droit;
+                z.gauche = t;
+                t.droit = null;
+            }
+            if (z.gauche != null)
+                z.gauche.pere = z;
+            if (z.droit != null)
+                z.droit.pere = z;
+        }
+        racine = z;
+        taille++;
+        nbModifications++;
+    }
+
+    /**
+     * Suppression de la racine en mode évasé : le maximum du sous-arbre gauche
+     * est remonté par évasement, il n'a alors pas d'enfant droit et reçoit le
+     * sous-arbre droit.
+     */
+    private void supprimerRacine() {
+        Noeud z = racine;
+        Noeud d = z.droit;
+        if (z.gauche == null) {
+            racine = d;
+        } else {
+            z.gauche.pere = null;
+            racine = evaser(z.gauche, null, true);
+            racine.droit = d;
+            if (d != null)
+                d.pere = racine;
+        }
+        if (racine != null)
+            racine.pere = null;
+        z.gauche = z.droit = null;
+        taille--;
+        nbModifications++;
+    }
+
     /**
      * Supprime le noeud z. Cette méthode peut être utilisée dans
      * {@link #remove(Object)} et {@link Iterator#remove()}
@@ -174,12 +762,16 @@ public class ABR<E> extends AbstractCollection<E> {
      */
     private Noeud supprimer(Noeud z) {
         Noeud x, y, retour;
-        retour = z.suivant();
 
-        if (z.gauche == null || z.droit == null)
+        // Si z a deux enfants, la clé de son successeur y est recopiée dans z
+        // et c'est y qui est détaché : le noeud suivant est alors z lui-même
+        if (z.gauche == null || z.droit == null) {
             y = z;
-        else
+            retour = z.suivant();
+        } else {
             y = z.suivant();
+            retour = z;
+        }
 
         if (y.gauche != null)
             x = y.gauche;
@@ -201,6 +793,16 @@ public class ABR<E> extends AbstractCollection<E> {
         y.pere = null;
         y.droit = null;
         y.gauche = null;
+        taille--;
+        nbModifications++;
+
+        // Mode bouc émissaire : après assez de suppressions, tout l'arbre est
+        // reconstruit (retour reste valable, les noeuds étant réutilisés)
+        if (equilibrage == Equilibrage.BOUC_EMISSAIRE && taille < alpha * maxTaille) {
+            if (racine != null)
+                reconstruire(racine, taille);
+            maxTaille = taille;
+        }
 
         return retour;
     }
@@ -208,11 +810,21 @@ public class ABR<E> extends AbstractCollection<E> {
     /**
      * Les itérateurs doivent parcourir les éléments dans l'ordre ! Ceci peut se
      * faire facilement en utilisant {@link Noeud#minimum()} et
-     * {@link Noeud#suivant()}
+     * {@link Noeud#suivant()} (ou {@link Noeud#maximum()} et
+     * {@link Noeud#precedent()} pour l'ordre décroissant). Lorsqu'une vue est
+     * fournie, le parcours s'arrête au premier noeud qui sort de ses bornes.
      */
     private class ABRIterator implements Iterator<E> {
-        private Noeud next = (racine != null) ? racine.minimum() : null;
+        private Noeud next;
         private Noeud prev = null;
+        private final boolean decroissant;
+        private final SousEnsemble vue;
+
+        ABRIterator(Noeud premier, boolean decroissant, SousEnsemble vue) {
+            this.next = premier;
+            this.decroissant = decroissant;
+            this.vue = vue;
+        }
 
         @Override
         public boolean hasNext() {
@@ -223,16 +835,653 @@ public class ABR<E> extends AbstractCollection<E> {
         public E next() {
             if (next == null) throw new NoSuchElementException();
             prev = next;
-            next = next.suivant();
+            next = avancer(next);
             return prev.cle;
         }
 
+        private Noeud avancer(Noeud x) {
+            Noeud y = decroissant ? x.precedent() : x.suivant();
+            if (y != null && vue != null && (decroissant ? vue.tropBas(y.cle) : vue.tropHaut(y.cle)))
+                return null;
+            return y;
+        }
+
         @Override
         public void remove() {
             if (prev == null) throw new IllegalStateException();
-            next = supprimer(prev);
+            Noeud retour = supprimer(prev);
+            // En ordre décroissant, le prédécesseur n'est pas touché par la
+            // suppression ; en ordre croissant, la clé suivante a pu être
+            // recopiée dans prev
+            if (!decroissant && next != null)
+                next = retour;
             prev = null;
-            taille--;
+        }
+    }
+
+    /**
+     * Renvoie un Spliterator qui se coupe en descendant dans les sous-arbres,
+     * sans copier les éléments : le premier appel à trySplit coupe à la racine,
+     * les suivants au fils droit du noeud courant ou au fils gauche de la
+     * borne. L'arbre ne stocke pas la taille des sous-arbres : la taille de
+     * chaque morceau est estimée en divisant celle du parent par deux, et seul
+     * le spliterator initial est SIZED.
+     * 
+     * @return un spliterator ORDERED et SORTED sur les éléments de l'arbre
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new ABRSpliterator(null, null, 0, -1);
+    }
+
+    /**
+     * Spliterator sur les noeuds de courant (inclus) à borne (exclue), sur le
+     * modèle de celui de TreeMap. cote vaut 0 tant qu'aucune coupe n'a eu lieu,
+     * 1 si la prochaine coupe se fait sous courant, -1 si elle se fait sous
+     * borne.
+     */
+    private class ABRSpliterator implements Spliterator<E> {
+        private Noeud courant;
+        private final Noeud borne;
+        private int cote;
+        private int estimation; // -1 tant que le spliterator n'est pas lié à l'arbre
+
+        ABRSpliterator(Noeud courant, Noeud borne, int cote, int estimation) {
+            this.courant = courant;
+            this.borne = borne;
+            this.cote = cote;
+            this.estimation = estimation;
+        }
+
+        private int getEstimation() {
+            if (estimation < 0) {
+                courant = racine != null ? racine.minimum() : null;
+                estimation = taille;
+            }
+            return estimation;
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            getEstimation();
+            Noeud e = courant;
+            Noeud s;
+            if (e == null || e == borne) {
+                s = null;
+            } else if (cote == 0) {
+                s = racine;
+            } else if (cote > 0) {
+                s = e.droit;
+            } else {
+                s = borne != null ? borne.gauche : null;
+            }
+            // Les doublons empêchent seulement la coupe : s doit suivre e
+            if (s != null && s != e && s != borne && cmp.compare(e.cle, s.cle) < 0) {
+                cote = 1;
+                estimation >>>= 1;
+                courant = s;
+                return new ABRSpliterator(e, s, -1, estimation);
+            }
+            return null;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (action == null) throw new NullPointerException();
+            getEstimation();
+            Noeud e = courant;
+            if (e == null || e == borne) {
+                return false;
+            }
+            courant = e.suivant();
+            action.accept(e.cle);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            if (action == null) throw new NullPointerException();
+            getEstimation();
+            Noeud e = courant;
+            courant = borne;
+            for (; e != null && e != borne; e = e.suivant()) {
+                action.accept(e.cle);
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return getEstimation();
+        }
+
+        @Override
+        public int characteristics() {
+            return (cote == 0 ? Spliterator.SIZED : 0) | Spliterator.ORDERED | Spliterator.SORTED;
+        }
+
+        @Override
+        public Comparator<? super E> getComparator() {
+            return comparator();
+        }
+    }
+
+    /**
+     * Renvoie un curseur non positionné ; son premier {@link Curseur#seek}
+     * part de la racine.
+     * 
+     * @return un nouveau curseur sur cet arbre
+     */
+    public Curseur curseur() {
+        return new Curseur();
+    }
+
+    /**
+     * Curseur ("finger") qui retient le dernier noeud visité. {@link #seek}
+     * part de ce noeud et ne remonte les liens pere que jusqu'au premier
+     * ancêtre dont le sous-arbre contient la clé cherchée, avant de
+     * redescendre : pour des recherches dans l'ordre croissant, le coût est
+     * proportionnel à la distance parcourue et non plus à la profondeur de la
+     * clé. Une modification de l'arbre hors du curseur l'invalide : seek
+     * repart alors de la racine et les autres méthodes lèvent
+     * ConcurrentModificationException.
+     */
+    public class Curseur {
+        private Noeud courant;
+        private int nbModificationsAttendu = nbModifications;
+
+        private Curseur() {
+        }
+
+        /**
+         * Place le curseur sur le premier élément supérieur ou égal à k.
+         * 
+         * @param k
+         *            la clé cherchée
+         * @return vrai si l'élément trouvé est égal à k ; s'il n'existe pas,
+         *         le curseur n'est plus positionné
+         */
+        public boolean seek(E k) {
+            Noeud x = courant;
+            if (x == null || nbModifications != nbModificationsAttendu) {
+                x = racine;
+                nbModificationsAttendu = nbModifications;
+            }
+            if (x == null)
+                return false;
+
+            Noeud candidat = null;
+            if (cmp.compare(k, x.cle) > 0) {
+                // Seuls les ancêtres atteints par la gauche bornent à droite
+                while (x.pere != null) {
+                    if (x == x.pere.gauche && cmp.compare(k, x.pere.cle) < 0) {
+                        candidat = x.pere;
+                        break;
+                    }
+                    x = x.pere;
+                }
+            } else {
+                // Seuls les ancêtres atteints par la droite bornent à gauche ;
+                // à égalité on remonte aussi, un doublon pouvant précéder x
+                candidat = x;
+                while (x.pere != null) {
+                    if (x == x.pere.droit && cmp.compare(k, x.pere.cle) > 0)
+                        break;
+                    x = x.pere;
+                }
+            }
+
+            while (x != null) {
+                if (cmp.compare(k, x.cle) <= 0) {
+                    candidat = x;
+                    x = x.gauche;
+                } else {
+                    x = x.droit;
+                }
+            }
+            courant = candidat;
+            return candidat != null && cmp.compare(k, candidat.cle) == 0;
+        }
+
+        /**
+         * @return vrai si le curseur est sur un élément
+         */
+        public boolean estPositionne() {
+            return courant != null;
+        }
+
+        /**
+         * @return l'élément sous le curseur
+         */
+        public E get() {
+            verifier();
+            return courant.cle;
+        }
+
+        /**
+         * Avance d'un élément.
+         * 
+         * @return faux si le curseur a dépassé le dernier élément
+         */
+        public boolean next() {
+            verifier();
+            courant = courant.suivant();
+            return courant != null;
+        }
+
+        /**
+         * Recule d'un élément.
+         * 
+         * @return faux si le curseur a dépassé le premier élément
+         */
+        public boolean prev() {
+            verifier();
+            courant = courant.precedent();
+            return courant != null;
+        }
+
+        /**
+         * Supprime l'élément sous le curseur, qui passe sur l'élément suivant.
+         */
+        public void remove() {
+            verifier();
+            courant = supprimer(courant);
+            nbModificationsAttendu = nbModifications;
+        }
+
+        private void verifier() {
+            if (nbModifications != nbModificationsAttendu)
+                throw new ConcurrentModificationException();
+            if (courant == null)
+                throw new NoSuchElementException();
+        }
+    }
+
+    // Navigation
+
+    /**
+     * Renvoie le premier noeud (dans l'ordre) dont la clé est supérieure ou
+     * égale à o (strictement supérieure si inclus est faux).
+     * 
+     * @param o
+     *            la clé de référence
+     * @param inclus
+     *            vrai si une clé égale à o convient
+     * @return le noeud trouvé, ou null s'il n'existe pas
+     */
+    @SuppressWarnings("unchecked")
+    private Noeud plafond(Object o, boolean inclus) {
+        E k = (E) o;
+        Noeud candidat = null;
+        Noeud x = racine;
+        while (x != null) {
+            int c = cmp.compare(k, x.cle);
+            if (c < 0 || (c == 0 && inclus)) {
+                candidat = x;
+                x = x.gauche;
+            } else {
+                x = x.droit;
+            }
+        }
+        return candidat;
+    }
+
+    /**
+     * Renvoie le dernier noeud (dans l'ordre) dont la clé est inférieure ou
+     * égale à o (strictement inférieure si inclus est faux).
+     * 
+     * @param o
+     *            la clé de référence
+     * @param inclus
+     *            vrai si une clé égale à o convient
+     * @return le noeud trouvé, ou null s'il n'existe pas
+     */
+    @SuppressWarnings("unchecked")
+    private Noeud plancher(Object o, boolean inclus) {
+        E k = (E) o;
+        Noeud candidat = null;
+        Noeud x = racine;
+        while (x != null) {
+            int c = cmp.compare(k, x.cle);
+            if (c > 0 || (c == 0 && inclus)) {
+                candidat = x;
+                x = x.droit;
+            } else {
+                x = x.gauche;
+            }
+        }
+        return candidat;
+    }
+
+    private E cleOuNull(Noeud x) {
+        return x == null ? null : x.cle;
+    }
+
+    private E cleOuException(Noeud x) {
+        if (x == null) throw new NoSuchElementException();
+        return x.cle;
+    }
+
+    private E extraire(Noeud x) {
+        if (x == null) return null;
+        E k = x.cle;
+        supprimer(x);
+        return k;
+    }
+
+    @Override
+    public Comparator<? super E> comparator() {
+        return cmp == ORDRE_NATUREL ? null : cmp;
+    }
+
+    @Override
+    public E first() {
+        return cleOuException(racine != null ? racine.minimum() : null);
+    }
+
+    @Override
+    public E last() {
+        return cleOuException(racine != null ? racine.maximum() : null);
+    }
+
+    @Override
+    public E lower(E e) {
+        return cleOuNull(plancher(e, false));
+    }
+
+    @Override
+    public E floor(E e) {
+        return cleOuNull(plancher(e, true));
+    }
+
+    @Override
+    public E ceiling(E e) {
+        return cleOuNull(plafond(e, true));
+    }
+
+    @Override
+    public E higher(E e) {
+        return cleOuNull(plafond(e, false));
+    }
+
+    @Override
+    public E pollFirst() {
+        return extraire(racine != null ? racine.minimum() : null);
+    }
+
+    @Override
+    public E pollLast() {
+        return extraire(racine != null ? racine.maximum() : null);
+    }
+
+    @Override
+    public NavigableSet<E> descendingSet() {
+        return new SousEnsemble(false, null, false, false, null, false, true);
+    }
+
+    @Override
+    public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+        if (cmp.compare(fromElement, toElement) > 0)
+            throw new IllegalArgumentException("fromElement > toElement");
+        return new SousEnsemble(true, fromElement, fromInclusive, true, toElement, toInclusive, false);
+    }
+
+    @Override
+    public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+        cmp.compare(toElement, toElement); // vérifie le type de la borne
+        return new SousEnsemble(false, null, false, true, toElement, inclusive, false);
+    }
+
+    @Override
+    public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+        cmp.compare(fromElement, fromElement);
+        return new SousEnsemble(true, fromElement, inclusive, false, null, false, false);
+    }
+
+    @Override
+    public SortedSet<E> subSet(E fromElement, E toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public SortedSet<E> headSet(E toElement) {
+        return headSet(toElement, false);
+    }
+
+    @Override
+    public SortedSet<E> tailSet(E fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    /**
+     * Vue bornée, et éventuellement décroissante, de l'arbre. Rien n'est
+     * copié : toutes les opérations agissent sur l'arbre lui-même. Les bornes
+     * sont toujours exprimées dans l'ordre croissant. Un parcours coûte
+     * O(h + k) où h est la hauteur de l'arbre et k le nombre de clés visitées.
+     */
+    private class SousEnsemble extends AbstractCollection<E> implements NavigableSet<E> {
+        private final boolean aBas, basInclus, aHaut, hautInclus, decroissant;
+        private final E bas, haut;
+
+        SousEnsemble(boolean aBas, E bas, boolean basInclus, boolean aHaut, E haut, boolean hautInclus,
+                boolean decroissant) {
+            this.aBas = aBas;
+            this.bas = bas;
+            this.basInclus = basInclus;
+            this.aHaut = aHaut;
+            this.haut = haut;
+            this.hautInclus = hautInclus;
+            this.decroissant = decroissant;
+        }
+
+        @SuppressWarnings("unchecked")
+        boolean tropBas(Object o) {
+            if (!aBas) return false;
+            int c = cmp.compare((E) o, bas);
+            return c < 0 || (c == 0 && !basInclus);
+        }
+
+        @SuppressWarnings("unchecked")
+        boolean tropHaut(Object o) {
+            if (!aHaut) return false;
+            int c = cmp.compare((E) o, haut);
+            return c > 0 || (c == 0 && !hautInclus);
+        }
+
+        private boolean dansBornes(Object o) {
+            return !tropBas(o) && !tropHaut(o);
+        }
+
+        /**
+         * Comme {@link #dansBornes(Object)}, mais une borne exclusive de la vue
+         * est acceptée comme borne exclusive d'une sous-vue.
+         */
+        private boolean dansBornesFermees(E e) {
+            return (!aBas || cmp.compare(e, bas) >= 0) && (!aHaut || cmp.compare(e, haut) <= 0);
+        }
+
+        private Noeud plusBas() {
+            Noeud x = aBas ? plafond(bas, basInclus) : (racine != null ? racine.minimum() : null);
+            return (x == null || tropHaut(x.cle)) ? null : x;
+        }
+
+        private Noeud plusHaut() {
+            Noeud x = aHaut ? plancher(haut, hautInclus) : (racine != null ? racine.maximum() : null);
+            return (x == null || tropBas(x.cle)) ? null : x;
+        }
+
+        private Noeud plafondVue(E e, boolean inclus) {
+            if (tropBas(e)) return plusBas();
+            Noeud x = plafond(e, inclus);
+            return (x == null || tropHaut(x.cle)) ? null : x;
+        }
+
+        private Noeud plancherVue(E e, boolean inclus) {
+            if (tropHaut(e)) return plusHaut();
+            Noeud x = plancher(e, inclus);
+            return (x == null || tropBas(x.cle)) ? null : x;
+        }
+
+        private Noeud premier() {
+            return decroissant ? plusHaut() : plusBas();
+        }
+
+        private Noeud dernier() {
+            return decroissant ? plusBas() : plusHaut();
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new ABRIterator(premier(), decroissant, this);
+        }
+
+        @Override
+        public Iterator<E> descendingIterator() {
+            return new ABRIterator(dernier(), !decroissant, this);
+        }
+
+        /**
+         * Les noeuds ne connaissent pas la taille de leur sous-arbre : le
+         * calcul parcourt la vue, en O(h + k).
+         */
+        @Override
+        public int size() {
+            int n = 0;
+            for (Iterator<E> it = iterator(); it.hasNext(); it.next())
+                n++;
+            return n;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return plusBas() == null;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return dansBornes(o) && ABR.this.contains(o);
+        }
+
+        @Override
+        public boolean add(E e) {
+            if (!dansBornes(e)) throw new IllegalArgumentException("clé hors des bornes de la vue");
+            return ABR.this.add(e);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return dansBornes(o) && ABR.this.remove(o);
+        }
+
+        @Override
+        public Comparator<? super E> comparator() {
+            Comparator<? super E> c = ABR.this.comparator();
+            return decroissant ? Collections.reverseOrder(c) : c;
+        }
+
+        @Override
+        public E first() {
+            return cleOuException(premier());
+        }
+
+        @Override
+        public E last() {
+            return cleOuException(dernier());
+        }
+
+        @Override
+        public E lower(E e) {
+            return cleOuNull(decroissant ? plafondVue(e, false) : plancherVue(e, false));
+        }
+
+        @Override
+        public E floor(E e) {
+            return cleOuNull(decroissant ? plafondVue(e, true) : plancherVue(e, true));
+        }
+
+        @Override
+        public E ceiling(E e) {
+            return cleOuNull(decroissant ? plancherVue(e, true) : plafondVue(e, true));
+        }
+
+        @Override
+        public E higher(E e) {
+            return cleOuNull(decroissant ? plancherVue(e, false) : plafondVue(e, false));
+        }
+
+        @Override
+        public E pollFirst() {
+            return extraire(premier());
+        }
+
+        @Override
+        public E pollLast() {
+            return extraire(dernier());
+        }
+
+        @Override
+        public NavigableSet<E> descendingSet() {
+            return new SousEnsemble(aBas, bas, basInclus, aHaut, haut, hautInclus, !decroissant);
+        }
+
+        /**
+         * Crée une sous-vue de cette vue. Les bornes absentes sont reprises de
+         * cette vue ; les bornes fournies doivent être dans la vue.
+         */
+        private NavigableSet<E> sousVue(boolean aB, E b, boolean bInclus, boolean aH, E h, boolean hInclus) {
+            if (aB && !(bInclus ? dansBornes(b) : dansBornesFermees(b)))
+                throw new IllegalArgumentException("borne hors de la vue");
+            if (aH && !(hInclus ? dansBornes(h) : dansBornesFermees(h)))
+                throw new IllegalArgumentException("borne hors de la vue");
+            if (!aB) {
+                aB = aBas;
+                b = bas;
+                bInclus = basInclus;
+            }
+            if (!aH) {
+                aH = aHaut;
+                h = haut;
+                hInclus = hautInclus;
+            }
+            return new SousEnsemble(aB, b, bInclus, aH, h, hInclus, decroissant);
+        }
+
+        @Override
+        public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+            if (decroissant) {
+                if (cmp.compare(fromElement, toElement) < 0)
+                    throw new IllegalArgumentException("fromElement > toElement");
+                return sousVue(true, toElement, toInclusive, true, fromElement, fromInclusive);
+            }
+            if (cmp.compare(fromElement, toElement) > 0)
+                throw new IllegalArgumentException("fromElement > toElement");
+            return sousVue(true, fromElement, fromInclusive, true, toElement, toInclusive);
+        }
+
+        @Override
+        public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+            return decroissant ? sousVue(true, toElement, inclusive, false, null, false)
+                    : sousVue(false, null, false, true, toElement, inclusive);
+        }
+
+        @Override
+        public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+            return decroissant ? sousVue(false, null, false, true, fromElement, inclusive)
+                    : sousVue(true, fromElement, inclusive, false, null, false);
+        }
+
+        @Override
+        public SortedSet<E> subSet(E fromElement, E toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public SortedSet<E> headSet(E toElement) {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public SortedSet<E> tailSet(E fromElement) {
+            return tailSet(fromElement, true);
         }
     }
 
@@ -240,39 +1489,82 @@ public class ABR<E> extends AbstractCollection<E> {
 
     @Override
     public String toString() {
-        StringBuffer buf = new StringBuffer();
-        toString(racine, buf, " ", maxStrLen(racine));
+        StringBuilder buf = new StringBuilder();
+        try {
+            afficher(buf);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Impossible avec un StringBuilder
+        }
         return buf.toString();
     }
 
-    private void toString(Noeud x, StringBuffer buf, String path, int len) {
+    /**
+     * Écrit l'arbre dans sortie, une ligne par noeud, le sous-arbre droit en
+     * haut. Le parcours (droit, noeud, gauche) suit les liens pere au lieu
+     * d'être récursif : la pile reste bornée même pour un arbre dégénéré, et
+     * rien n'est accumulé en mémoire si sortie est un flux.
+     * 
+     * @param sortie
+     *            la destination de l'affichage
+     * @throws IOException
+     *             si l'écriture dans sortie échoue
+     */
+    public void afficher(Appendable sortie) throws IOException {
+        Noeud x = racine;
         if (x == null)
             return;
-        toString(x.droit, buf, path + "D", len);
-        for (int i = 0; i < path.length(); i++) {
-            for (int j = 0; j < len + 6; j++)
-                buf.append(' ');
-            char c = ' ';
-            if (i == path.length() - 1)
-                c = '+';
-            else if (path.charAt(i) != path.charAt(i + 1))
-                c = '|';
-            buf.append(c);
-        }
-        buf.append("-- " + x.cle.toString());
-        if (x.gauche != null || x.droit != null) {
-            buf.append(" --");
-            for (int j = x.cle.toString().length(); j < len; j++)
-                buf.append('-');
-            buf.append('|');
-        }
-        buf.append("\n");
-        toString(x.gauche, buf, path + "G", len);
-    }
-
-    private int maxStrLen(Noeud x) {
-        return x == null ? 0 : Math.max(x.cle.toString().length(),
-                Math.max(maxStrLen(x.gauche), maxStrLen(x.droit)));
+        int len = maxStrLen();
+        StringBuilder path = new StringBuilder(" ");
+        while (x.droit != null) {
+            x = x.droit;
+            path.append('D');
+        }
+        while (x != null) {
+            for (int i = 0; i < path.length(); i++) {
+                for (int j = 0; j < len + 6; j++)
+                    sortie.append(' ');
+                char c = ' ';
+                if (i == path.length() - 1)
+                    c = '+';
+                else if (path.charAt(i) != path.charAt(i + 1))
+                    c = '|';
+                sortie.append(c);
+            }
+            String cle = String.valueOf(x.cle);
+            sortie.append("-- ").append(cle);
+            if (x.gauche != null || x.droit != null) {
+                sortie.append(" --");
+                for (int j = cle.length(); j < len; j++)
+                    sortie.append('-');
+                sortie.append('|');
+            }
+            sortie.append("\n");
+            if (x.gauche != null) {
+                // Le suivant est le plus à droite du sous-arbre gauche
+                x = x.gauche;
+                path.append('G');
+                while (x.droit != null) {
+                    x = x.droit;
+                    path.append('D');
+                }
+            } else {
+                // Sinon, c'est le premier ancêtre atteint par la droite
+                while (x.pere != null && x == x.pere.gauche) {
+                    x = x.pere;
+                    path.setLength(path.length() - 1);
+                }
+                x = x.pere;
+                if (x != null)
+                    path.setLength(path.length() - 1);
+            }
+        }
+    }
+
+    private int maxStrLen() {
+        int max = 0;
+        for (Noeud x = racine != null ? racine.minimum() : null; x != null; x = x.suivant())
+            max = Math.max(max, String.valueOf(x.cle).length());
+        return max;
     }
 
     public static void main(String[] args) {
@@ -1,6 +1,12 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
 
-public class ARN<E> extends AbstractCollection<E> {
+public class ARN<E> extends AbstractCollection<E> implements NavigableSet<E>, Metriques.Source {
 
     // Classe interne représentant un nœud
     public static class Noeud<E> {
@@ -8,7 +14,8 @@ public class ARN<E> extends AbstractCollection<E> {
         Noeud<E> gauche;
         Noeud<E> droite;
         Noeud<E> parent;
-        int hauteur;
+        int taille = 1; // Nombre d'éléments (occurrences comprises) du sous-arbre enraciné ici
+        int nombre = 1; // Occurrences de donnee : 1 hors mode multiensemble
         boolean couleur;
 
         public Noeud(E donnee) {
@@ -18,26 +25,154 @@ public class ARN<E> extends AbstractCollection<E> {
         public E getDonnee() {
             return donnee;
         }
+
+        // Reprend le contenu d'un autre nœud, quand la suppression remplace un
+        // élément par son successeur ; les nœuds qui portent d'autres données
+        // (valeur d'une table...) les recopient aussi
+        void copierDepuis(Noeud<E> autre) {
+            donnee = autre.donnee;
+            nombre = autre.nombre;
+        }
     }
 
     protected Noeud<E> racine;
+    // Ordre des éléments : ORDRE_NATUREL si aucun comparateur n'est fourni
+    private final Comparator<? super E> cmp;
+    // En mode multiensemble, chaque clé distincte n'a qu'un nœud, qui compte
+    // ses occurrences ; sinon, chaque doublon a son propre nœud
+    private final boolean multiensemble;
+    // Compteur de modifications structurelles, pour des itérateurs "fail-fast"
+    protected transient int nbModifications;
+    // Compteurs d'instrumentation, null sauf avec -Darbres.metriques=true
+    final Metriques.Compteurs compteurs = Metriques.ACTIVES ? new Metriques.Compteurs() : null;
     static final boolean ROUGE = false;
     static final boolean NOIR = true;
 
+    @SuppressWarnings("unchecked")
+    private static final Comparator<Object> ORDRE_NATUREL = (a, b) -> ((Comparable<Object>) a).compareTo(b);
+
+    // Crée un arbre vide, ordonné selon l'ordre naturel des éléments
+    public ARN() {
+        this((Comparator<? super E>) null);
+    }
+
+    // Crée un arbre vide ordonné par cmp (null pour l'ordre naturel)
+    public ARN(Comparator<? super E> cmp) {
+        this(cmp, false);
+    }
+
+    private ARN(Comparator<? super E> cmp, boolean multiensemble) {
+        this.cmp = cmp != null ? cmp : ORDRE_NATUREL;
+        this.multiensemble = multiensemble;
+    }
+
+    // Crée un multiensemble vide, ordonné selon l'ordre naturel : add d'une
+    // clé présente incrémente son compteur, remove le décrémente, et la
+    // hauteur comme le nombre de nœuds ne dépendent que du nombre de clés
+    // distinctes. size(), select, rank et l'itération comptent chaque
+    // occurrence.
+    public static <E> ARN<E> multiensemble() {
+        return multiensemble(null);
+    }
+
+    // Multiensemble vide ordonné par cmp (null pour l'ordre naturel)
+    public static <E> ARN<E> multiensemble(Comparator<? super E> cmp) {
+        return new ARN<>(cmp, true);
+    }
+
+    public boolean estMultiensemble() {
+        return multiensemble;
+    }
+
+    // Crée un arbre contenant les éléments de c : tri en O(n log n) (O(n) si c
+    // est déjà trié), puis construction équilibrée en O(n)
+    public ARN(Collection<? extends E> c) {
+        this();
+        chargerEnBloc(c.toArray(), false);
+    }
+
+    // Construit en O(n) un arbre parfaitement équilibré à partir d'une
+    // collection dont l'itération est déjà triée (doublons acceptés)
+    public static <E> ARN<E> depuisTrie(Collection<? extends E> trie) {
+        return depuisTrie(trie, null);
+    }
+
+    // Comme depuisTrie(trie), pour une collection triée selon cmp
+    public static <E> ARN<E> depuisTrie(Collection<? extends E> trie, Comparator<? super E> cmp) {
+        ARN<E> arbre = new ARN<>(cmp);
+        arbre.chargerEnBloc(trie.toArray(), true);
+        return arbre;
+    }
+
+    // Remplace le contenu de l'arbre par les éléments du tableau
+    @SuppressWarnings("unchecked")
+    private void chargerEnBloc(Object[] elements, boolean dejaTrie) {
+        if (dejaTrie) {
+            for (int i = 1; i < elements.length; i++) {
+                if (comparer(elements[i - 1], (E) elements[i]) > 0) {
+                    throw new IllegalArgumentException("La collection n'est pas triée (indice " + i + ")");
+                }
+            }
+        } else {
+            Arrays.sort(elements, (Comparator<Object>) cmp);
+        }
+        racine = construireEquilibre(elements, 0, elements.length - 1, 0, niveauRouge(elements.length));
+        if (racine != null) {
+            racine.parent = null;
+        }
+        nbModifications++;
+    }
+
+    // Profondeur des feuilles du dernier niveau, incomplet, qui seront rouges :
+    // tous les chemins comptent alors le même nombre de nœuds noirs
+    private static int niveauRouge(int n) {
+        int niveau = 0;
+        for (int m = n - 1; m >= 0; m = m / 2 - 1) {
+            niveau++;
+        }
+        return niveau;
+    }
+
+    // Construit le sous-arbre des éléments[debut..fin] autour du milieu ; la
+    // récursion est de profondeur log n
+    @SuppressWarnings("unchecked")
+    private Noeud<E> construireEquilibre(Object[] elements, int debut, int fin, int profondeur, int niveauRouge) {
+        if (debut > fin) {
+            return null;
+        }
+        int milieu = (debut + fin) >>> 1;
+        Noeud<E> noeud = creerNoeud((E) elements[milieu]);
+        if (Metriques.ACTIVES) compteurs.noeudsCrees++;
+        noeud.gauche = construireEquilibre(elements, debut, milieu - 1, profondeur + 1, niveauRouge);
+        noeud.droite = construireEquilibre(elements, milieu + 1, fin, profondeur + 1, niveauRouge);
+        if (noeud.gauche != null) {
+            noeud.gauche.parent = noeud;
+        }
+        if (noeud.droite != null) {
+            noeud.droite.parent = noeud;
+        }
+        noeud.couleur = profondeur == niveauRouge ? ROUGE : NOIR;
+        mettreAJour(noeud);
+        return noeud;
+    }
+
     public Noeud<E> getRacine() {
         return racine;
     }
 
-    // Recherche d'un nœud par sa clé
+    // Recherche d'un nœud par sa clé, avec une seule comparaison par niveau
     public Noeud<E> rechercherNoeud(E cle) {
+        if (Metriques.ACTIVES) compteurs.operations.increment();
         Noeud<E> noeud = racine;
         while (noeud != null) {
-            if (cle.equals(noeud.donnee)) {
-                return noeud;
-            } else if (((Comparable<E>)cle).compareTo(noeud.donnee) < 0) {
+            if (Metriques.ACTIVES) compteurs.comparaisons.increment();
+            int comparaison = cmp.compare(cle, noeud.donnee);
+            if (comparaison < 0) {
                 noeud = noeud.gauche;
-            } else {
+            } else if (comparaison > 0) {
                 noeud = noeud.droite;
+            } else {
+                return noeud;
             }
         }
         return null;
@@ -48,96 +183,116 @@ public class ARN<E> extends AbstractCollection<E> {
     public boolean add(E cle) {
         Noeud<E> noeud = racine;
         Noeud<E> parent = null;
+        boolean aGauche = false; // Côté du parent où accrocher le nouveau nœud
+        if (Metriques.ACTIVES) compteurs.operations.increment();
 
-        // Recherche de l'emplacement pour insérer le nouveau nœud
+        // Recherche de l'emplacement pour insérer le nouveau nœud ; on retient
+        // le sens de la dernière comparaison au lieu de la refaire ensuite
         while (noeud != null) {
             parent = noeud;
-            int comparaison = ((Comparable<E>) cle).compareTo(noeud.donnee);
-            if (comparaison < 0) {
-                noeud = noeud.gauche; // Aller à gauche si la clé est plus petite
-            } else if (comparaison > 0) {
-                noeud = noeud.droite; // Aller à droite si la clé est plus grande
-            } else {
-                // Si doublon, insérer dans un sous-arbre gauche distinct
-                noeud = noeud.gauche;
+            if (Metriques.ACTIVES) compteurs.comparaisons.increment();
+            int comparaison = cmp.compare(cle, noeud.donnee);
+            if (comparaison == 0 && multiensemble) {
+                // Clé déjà présente : une occurrence de plus, sans nouveau nœud
+                noeud.nombre++;
+                mettreAJourChemin(noeud);
+                nbModifications++;
+                return true;
             }
+            // Si doublon, on descend aussi à gauche
+            aGauche = comparaison <= 0;
+            noeud = aGauche ? noeud.gauche : noeud.droite;
         }
 
-        // Création du nouveau nœud
-        Noeud<E> nouveauNoeud = new Noeud<>(cle);
+        insererSous(parent, aGauche, cle);
+        return true; // L'ajout a été effectué avec succès
+    }
+
+    // Fabrique des nœuds : une sous-classe qui augmente les nœuds (valeur,
+    // agrégat...) la redéfinit, et mettreAJour pour entretenir l'agrégat
+    protected Noeud<E> creerNoeud(E cle) {
+        return new Noeud<>(cle);
+    }
+
+    // Accroche un nouveau nœud de cle sous parent (à la racine si parent est
+    // null), du côté donné, puis rééquilibre ; la position doit venir d'une
+    // descente qui vient d'avoir lieu. Renvoie le nouveau nœud.
+    Noeud<E> insererSous(Noeud<E> parent, boolean aGauche, E cle) {
+        Noeud<E> nouveauNoeud = creerNoeud(cle);
+        if (Metriques.ACTIVES) compteurs.noeudsCrees++;
         nouveauNoeud.couleur = ROUGE;
         nouveauNoeud.parent = parent;
 
         // Insertion du nouveau nœud
         if (parent == null) {
             racine = nouveauNoeud; // L'arbre était vide, on initialise la racine
+        } else if (aGauche) {
+            parent.gauche = nouveauNoeud;
         } else {
-            int comparaison = ((Comparable<E>) cle).compareTo(parent.donnee);
-            if (comparaison < 0) {
-                parent.gauche = nouveauNoeud; // Insertion à gauche si clé plus petite
-            } else if (comparaison > 0) {
-                parent.droite = nouveauNoeud; // Insertion à droite si clé plus grande
-            } else {
-                // Si doublon, insérer dans un sous-arbre gauche
-                Noeud<E> temp = parent.gauche;
-                parent.gauche = nouveauNoeud;
-                nouveauNoeud.gauche = temp;
-                if (temp != null) {
-                    temp.parent = nouveauNoeud;
-                }
-            }
+            parent.droite = nouveauNoeud;
         }
 
+        // Mise à jour des tailles sur le chemin de la racine au nouveau nœud
+        mettreAJourChemin(nouveauNoeud);
+
         // Ajustement des propriétés de l'arbre rouge-noir après insertion
         corrigerProprietesApresInsertion(nouveauNoeud);
 
         // La racine doit toujours être noire
+        if (Metriques.ACTIVES && racine.couleur == ROUGE) compteurs.recolorations++;
         racine.couleur = NOIR;
-        return true; // L'ajout a été effectué avec succès
+        nbModifications++;
+        return nouveauNoeud;
     }
 
-    // Correction des propriétés de l'arbre rouge-noir après insertion
+    // Correction des propriétés de l'arbre rouge-noir après insertion. Le
+    // cas "oncle rouge" fait remonter le problème de deux niveaux : on boucle
+    // au lieu de se rappeler, la pile reste donc constante.
     private void corrigerProprietesApresInsertion(Noeud<E> noeud) {
-        Noeud<E> parent = noeud.parent;
-
-        if (parent == null) {
-            return;
-        }
+        while (true) {
+            if (Metriques.ACTIVES) compteurs.iterationsCorrection++;
+            Noeud<E> parent = noeud.parent;
 
-        if (parent.couleur == NOIR) {
-            return;
-        }
+            if (parent == null || parent.couleur == NOIR) {
+                return;
+            }
 
-        Noeud<E> grandParent = parent.parent;
+            Noeud<E> grandParent = parent.parent;
 
-        if (grandParent == null) {
-            parent.couleur = NOIR;
-            return;
-        }
+            if (grandParent == null) {
+                parent.couleur = NOIR;
+                if (Metriques.ACTIVES) compteurs.recolorations++;
+                return;
+            }
 
-        Noeud<E> oncle = getOncle(parent);
+            Noeud<E> oncle = getOncle(parent);
 
-        if (oncle != null && oncle.couleur == ROUGE) {
-            parent.couleur = NOIR;
-            grandParent.couleur = ROUGE;
-            oncle.couleur = NOIR;
-            corrigerProprietesApresInsertion(grandParent);
-        } else if (parent == grandParent.gauche) {
-            if (noeud == parent.droite) {
-                rotationGauche(parent);
-                parent = noeud;
+            if (oncle != null && oncle.couleur == ROUGE) {
+                parent.couleur = NOIR;
+                grandParent.couleur = ROUGE;
+                oncle.couleur = NOIR;
+                if (Metriques.ACTIVES) compteurs.recolorations += 3;
+                noeud = grandParent;
+                continue;
             }
-            rotationDroite(grandParent);
-            parent.couleur = NOIR;
-            grandParent.couleur = ROUGE;
-        } else {
-            if (noeud == parent.gauche) {
-                rotationDroite(parent);
-                parent = noeud;
+
+            if (parent == grandParent.gauche) {
+                if (noeud == parent.droite) {
+                    rotationGauche(parent);
+                    parent = noeud;
+                }
+                rotationDroite(grandParent);
+            } else {
+                if (noeud == parent.gauche) {
+                    rotationDroite(parent);
+                    parent = noeud;
+                }
+                rotationGauche(grandParent);
             }
-            rotationGauche(grandParent);
             parent.couleur = NOIR;
             grandParent.couleur = ROUGE;
+            if (Metriques.ACTIVES) compteurs.recolorations += 2;
+            return;
         }
     }
 
@@ -155,13 +310,17 @@ public class ARN<E> extends AbstractCollection<E> {
     // Méthode pour supprimer un élément de l'arbre
     @Override
     public boolean remove(Object cle) {
+        if (Metriques.ACTIVES) compteurs.operations.increment();
         Noeud<E> noeud = racine;
 
-        while (noeud != null && !noeud.donnee.equals(cle)) {
-            if (((Comparable<E>)cle).compareTo(noeud.donnee) < 0) {
+        while (noeud != null) {
+            int comparaison = comparer(cle, noeud.donnee);
+            if (comparaison < 0) {
                 noeud = noeud.gauche;
-            } else {
+            } else if (comparaison > 0) {
                 noeud = noeud.droite;
+            } else {
+                break;
             }
         }
 
@@ -169,38 +328,63 @@ public class ARN<E> extends AbstractCollection<E> {
             return false; // L'élément n'existe pas
         }
 
-        Noeud<E> noeudDeplace;
-        boolean couleurNoeudSupprime;
+        retirerOccurrence(noeud);
+        return true;
+    }
 
-        if (noeud.gauche == null || noeud.droite == null) {
-            noeudDeplace = supprimerNoeudAvecZeroOuUnEnfant(noeud);
-            couleurNoeudSupprime = noeud.couleur;
-        } else {
-            Noeud<E> successeurEnOrdre = trouverMinimum(noeud.droite);
-            noeud.donnee = successeurEnOrdre.donnee;
-            noeudDeplace = supprimerNoeudAvecZeroOuUnEnfant(successeurEnOrdre);
-            couleurNoeudSupprime = successeurEnOrdre.couleur;
+    // Nombre d'occurrences de cle, en O(log n) dans les deux modes
+    @SuppressWarnings("unchecked")
+    public int count(Object cle) {
+        if (multiensemble) {
+            Noeud<E> noeud = rechercherNoeud((E) cle);
+            return noeud == null ? 0 : noeud.nombre;
         }
+        return compterInferieurs(cle, true) - compterInferieurs(cle, false);
+    }
 
-        if (couleurNoeudSupprime == NOIR) {
-            corrigerProprietesApresSuppression(noeudDeplace);
+    // Retire une occurrence de l'élément de noeud et renvoie, comme
+    // supprimerNoeud, le nœud qui porte désormais l'élément suivant : noeud
+    // lui-même s'il lui reste des occurrences
+    Noeud<E> retirerOccurrence(Noeud<E> noeud) {
+        if (noeud.nombre > 1) {
+            noeud.nombre--;
+            mettreAJourChemin(noeud);
+            nbModifications++;
+            return noeud;
         }
-
-        return true;
+        return supprimerNoeud(noeud);
     }
 
-    private Noeud<E> supprimerNoeudAvecZeroOuUnEnfant(Noeud<E> noeud) {
-        if (noeud.gauche != null) {
-            remplacerEnfantDuParent(noeud.parent, noeud, noeud.gauche);
-            return noeud.gauche;
-        } else if (noeud.droite != null) {
-            remplacerEnfantDuParent(noeud.parent, noeud, noeud.droite);
-            return noeud.droite;
+    // Supprime un nœud de l'arbre et renvoie le nœud qui porte désormais
+    // l'élément suivant dans l'ordre (utile pour Iterator.remove()). Aucun
+    // nœud n'est alloué : le "double noir" est suivi par le couple (enfant,
+    // parent), l'enfant pouvant être null.
+    Noeud<E> supprimerNoeud(Noeud<E> noeud) {
+        Noeud<E> suivant;
+        Noeud<E> retire; // Nœud réellement détaché, qui a au plus un enfant
+
+        if (noeud.gauche == null || noeud.droite == null) {
+            suivant = successeur(noeud);
+            retire = noeud;
         } else {
-            Noeud<E> nouvelEnfant = noeud.couleur == NOIR ? new NoeudNul<>() : null;
-            remplacerEnfantDuParent(noeud.parent, noeud, nouvelEnfant);
-            return nouvelEnfant;
+            // Le successeur est recopié dans noeud, qui devient donc le suivant
+            retire = trouverMinimum(noeud.droite);
+            suivant = noeud;
+            noeud.copierDepuis(retire);
+        }
+
+        Noeud<E> enfant = retire.gauche != null ? retire.gauche : retire.droite;
+        Noeud<E> parent = retire.parent;
+        remplacerEnfantDuParent(parent, retire, enfant);
+        mettreAJourChemin(parent);
+
+        if (retire.couleur == NOIR) {
+            corrigerProprietesApresSuppression(enfant, parent);
         }
+
+        retire.gauche = retire.droite = retire.parent = null;
+        nbModifications++;
+        return suivant;
     }
 
     private Noeud<E> trouverMinimum(Noeud<E> noeud) {
@@ -210,76 +394,91 @@ public class ARN<E> extends AbstractCollection<E> {
         return noeud;
     }
 
-    private void corrigerProprietesApresSuppression(Noeud<E> noeud) {
-        if (noeud == racine) {
-            return;
+    // Successeur dans l'ordre infixe, en remontant les liens parent si besoin
+    Noeud<E> successeur(Noeud<E> noeud) {
+        if (noeud.droite != null) {
+            return trouverMinimum(noeud.droite);
         }
-
-        Noeud<E> frere = getFrere(noeud);
-
-        if (frere.couleur == ROUGE) {
-            gererFrereRouge(noeud, frere);
-            frere = getFrere(noeud);
+        Noeud<E> parent = noeud.parent;
+        while (parent != null && noeud == parent.droite) {
+            noeud = parent;
+            parent = parent.parent;
         }
+        return parent;
+    }
 
-        if (estNoir(frere.gauche) && estNoir(frere.droite)) {
-            frere.couleur = ROUGE;
+    // noeud a pris la place d'un nœud noir et porte un noir de trop. Il peut
+    // être null (feuille), d'où le parent passé explicitement ; le frère, lui,
+    // existe toujours puisque son côté compte au moins un nœud noir.
+    // Le cas "frère noir aux enfants noirs" fait remonter le noir de trop
+    // d'un niveau : la boucle remplace la récursion.
+    private void corrigerProprietesApresSuppression(Noeud<E> noeud, Noeud<E> parent) {
+        while (parent != null && estNoir(noeud)) {
+            if (Metriques.ACTIVES) compteurs.iterationsCorrection++;
+            boolean aGauche = noeud == parent.gauche;
+            Noeud<E> frere = aGauche ? parent.droite : parent.gauche;
+
+            if (frere.couleur == ROUGE) {
+                gererFrereRouge(parent, aGauche, frere);
+                frere = aGauche ? parent.droite : parent.gauche;
+            }
 
-            if (noeud.parent.couleur == ROUGE) {
-                noeud.parent.couleur = NOIR;
+            if (estNoir(frere.gauche) && estNoir(frere.droite)) {
+                frere.couleur = ROUGE;
+                if (Metriques.ACTIVES) compteurs.recolorations++;
+                noeud = parent;
+                parent = parent.parent;
             } else {
-                corrigerProprietesApresSuppression(noeud.parent);
+                gererFrereNoirAvecAuMoinsUnEnfantRouge(parent, aGauche, frere);
+                return;
             }
-        } else {
-            gererFrereNoirAvecAuMoinsUnEnfantRouge(noeud, frere);
+        }
+        // Un nœud rouge absorbe le noir de trop ; à la racine, il disparaît
+        if (noeud != null) {
+            if (Metriques.ACTIVES && noeud.couleur == ROUGE) compteurs.recolorations++;
+            noeud.couleur = NOIR;
         }
     }
 
-    private void gererFrereRouge(Noeud<E> noeud, Noeud<E> frere) {
+    private void gererFrereRouge(Noeud<E> parent, boolean aGauche, Noeud<E> frere) {
         frere.couleur = NOIR;
-        noeud.parent.couleur = ROUGE;
+        parent.couleur = ROUGE;
+        if (Metriques.ACTIVES) compteurs.recolorations += 2;
 
-        if (noeud == noeud.parent.gauche) {
-            rotationGauche(noeud.parent);
+        if (aGauche) {
+            rotationGauche(parent);
         } else {
-            rotationDroite(noeud.parent);
+            rotationDroite(parent);
         }
     }
 
-    private void gererFrereNoirAvecAuMoinsUnEnfantRouge(Noeud<E> noeud, Noeud<E> frere) {
-        boolean noeudEstEnfantGauche = noeud == noeud.parent.gauche;
-
-        if (noeudEstEnfantGauche && estNoir(frere.droite)) {
+    private void gererFrereNoirAvecAuMoinsUnEnfantRouge(Noeud<E> parent, boolean aGauche, Noeud<E> frere) {
+        if (aGauche && estNoir(frere.droite)) {
             frere.gauche.couleur = NOIR;
             frere.couleur = ROUGE;
+            if (Metriques.ACTIVES) compteurs.recolorations += 2;
             rotationDroite(frere);
-            frere = noeud.parent.droite;
-        } else if (!noeudEstEnfantGauche && estNoir(frere.gauche)) {
+            frere = parent.droite;
+        } else if (!aGauche && estNoir(frere.gauche)) {
             frere.droite.couleur = NOIR;
             frere.couleur = ROUGE;
+            if (Metriques.ACTIVES) compteurs.recolorations += 2;
             rotationGauche(frere);
-            frere = noeud.parent.gauche;
+            frere = parent.gauche;
         }
 
-        frere.couleur = noeud.parent.couleur;
-        noeud.parent.couleur = NOIR;
-        if (noeudEstEnfantGauche) {
+        // Seuls les changements effectifs sont comptés : le frère (noir)
+        // prend la couleur du parent et le parent devient noir, ce qui ne
+        // change rien si le parent est déjà noir ; le neveu éloigné est rouge
+        if (Metriques.ACTIVES) compteurs.recolorations += parent.couleur == ROUGE ? 3 : 1;
+        frere.couleur = parent.couleur;
+        parent.couleur = NOIR;
+        if (aGauche) {
             frere.droite.couleur = NOIR;
-            rotationGauche(noeud.parent);
+            rotationGauche(parent);
         } else {
             frere.gauche.couleur = NOIR;
-            rotationDroite(noeud.parent);
-        }
-    }
-
-    private Noeud<E> getFrere(Noeud<E> noeud) {
-        Noeud<E> parent = noeud.parent;
-        if (noeud == parent.gauche) {
-            return parent.droite;
-        } else if (noeud == parent.droite) {
-            return parent.gauche;
-        } else {
-            throw new IllegalStateException("Le parent n'est pas un enfant de son grand-parent");
+            rotationDroite(parent);
         }
     }
 
@@ -289,6 +488,7 @@ public class ARN<E> extends AbstractCollection<E> {
 
     // Rotation à droite
     private void rotationDroite(Noeud<E> noeud) {
+        if (Metriques.ACTIVES) compteurs.rotations.increment();
         Noeud<E> parent = noeud.parent;
         Noeud<E> enfantGauche = noeud.gauche;
 
@@ -301,10 +501,14 @@ public class ARN<E> extends AbstractCollection<E> {
         noeud.parent = enfantGauche;
 
         remplacerEnfantDuParent(parent, noeud, enfantGauche);
+
+        mettreAJour(noeud);
+        mettreAJour(enfantGauche);
     }
 
     // Rotation à gauche
     private void rotationGauche(Noeud<E> noeud) {
+        if (Metriques.ACTIVES) compteurs.rotations.increment();
         Noeud<E> parent = noeud.parent;
         Noeud<E> enfantDroit = noeud.droite;
 
@@ -317,6 +521,9 @@ public class ARN<E> extends AbstractCollection<E> {
         noeud.parent = enfantDroit;
 
         remplacerEnfantDuParent(parent, noeud, enfantDroit);
+
+        mettreAJour(noeud);
+        mettreAJour(enfantDroit);
     }
 
     // Remplacer le parent de l'enfant
@@ -338,129 +545,1376 @@ public class ARN<E> extends AbstractCollection<E> {
     @Override
     public void clear() {
         racine = null;
+        nbModifications++;
     }
 
-    // Méthode pour obtenir le nombre d'éléments dans l'arbre
-    @Override
-    public int size() {
-        return getTaille(racine);
+    // Recalcule la taille du sous-arbre à partir de celles des enfants
+    protected void mettreAJour(Noeud<E> noeud) {
+        noeud.taille = noeud.nombre + getTaille(noeud.gauche) + getTaille(noeud.droite);
     }
 
-    private int getTaille(Noeud<E> noeud) {
-        if (noeud == null) {
-            return 0;
+    // Recalcule les tailles de noeud jusqu'à la racine
+    private void mettreAJourChemin(Noeud<E> noeud) {
+        while (noeud != null) {
+            mettreAJour(noeud);
+            noeud = noeud.parent;
         }
+    }
 
-        return 1 + getTaille(noeud.gauche) + getTaille(noeud.droite);
+    // Méthode pour obtenir le nombre d'éléments dans l'arbre, en O(1)
+    @Override
+    public int size() {
+        return getTaille(racine);
     }
 
-    // Méthode pour itérer sur les éléments de l'arbre
     @Override
-    public Iterator<E> iterator() {
-        List<E> elements = new ArrayList<>();
-        parcoursInfixe(racine, elements);
-        return elements.iterator();
+    public boolean isEmpty() {
+        return racine == null;
     }
 
-    private void parcoursInfixe(Noeud<E> noeud, List<E> elements) {
-        if (noeud != null) {
-            parcoursInfixe(noeud.gauche, elements);
-            elements.add(noeud.donnee);
-            parcoursInfixe(noeud.droite, elements);
+    static int getTaille(Noeud<?> noeud) {
+        return noeud == null ? 0 : noeud.taille;
+    }
+
+    // Instantané des compteurs (nuls sans -Darbres.metriques=true) et de la
+    // forme de l'arbre ; l'histogramme des profondeurs coûte un parcours
+    // complet, qui suit les liens parent comme afficher
+    @Override
+    public Metriques metriques() {
+        int[] histogramme = new int[8];
+        Noeud<E> noeud = racine;
+        Noeud<E> precedent = null;
+        int profondeur = 0;
+        while (noeud != null) {
+            Noeud<E> suivant;
+            if (precedent == noeud.parent) {
+                // Première visite : on compte le nœud puis on descend
+                histogramme = Metriques.compterProfondeur(histogramme, profondeur);
+                suivant = noeud.gauche != null ? noeud.gauche : noeud.droite != null ? noeud.droite : noeud.parent;
+            } else if (precedent == noeud.gauche && noeud.droite != null) {
+                suivant = noeud.droite;
+            } else {
+                suivant = noeud.parent;
+            }
+            profondeur += suivant == noeud.parent ? -1 : 1;
+            precedent = noeud;
+            noeud = suivant;
+        }
+        int hauteurNoire = 0;
+        for (Noeud<E> n = racine; n != null; n = n.gauche) {
+            if (n.couleur == NOIR) {
+                hauteurNoire++;
+            }
         }
+        return new Metriques(compteurs, size(), hauteurNoire, Metriques.ajuster(histogramme));
     }
 
-    // Recherche d'un élément dans l'arbre
     @Override
-    public boolean contains(Object cle) {
-        return rechercherNoeud((E) cle) != null;
+    public void reinitialiserMetriques() {
+        if (Metriques.ACTIVES) compteurs.reinitialiser();
     }
-    
-    public class NoeudNul<E> extends Noeud<E> {
-        public NoeudNul() {
-            super(null);  // Le "null" ici représente l'absence de données
-            this.couleur = NOIR; // Un nœud "Nil" est toujours noir
+
+    // Renvoie le k-ième plus petit élément (k commence à 0), en O(log n)
+    public E select(int k) {
+        if (k < 0 || k >= size()) {
+            throw new IndexOutOfBoundsException("Rang " + k + " hors de [0, " + size() + "[");
         }
+        return noeudDeRang(k).donnee;
+    }
 
-        @Override
-        public E getDonnee() {
-            throw new UnsupportedOperationException("Un NoeudNul n'a pas de données");
+    // Nœud portant l'élément de rang k, 0 <= k < size()
+    private Noeud<E> noeudDeRang(int k) {
+        Noeud<E> noeud = racine;
+        while (true) {
+            int tailleGauche = getTaille(noeud.gauche);
+            if (k < tailleGauche) {
+                noeud = noeud.gauche;
+            } else if (k >= tailleGauche + noeud.nombre) {
+                k -= tailleGauche + noeud.nombre;
+                noeud = noeud.droite;
+            } else {
+                return noeud;
+            }
         }
+    }
 
-        public Noeud<E> getGauche() {
-            return this;  // Un NoeudNul est son propre enfant gauche
+    // Rang de la première occurrence de noeud, en remontant les liens parent
+    private int rangDe(Noeud<E> noeud) {
+        int rang = getTaille(noeud.gauche);
+        for (Noeud<E> parent = noeud.parent; parent != null; noeud = parent, parent = parent.parent) {
+            if (noeud == parent.droite) {
+                rang += getTaille(parent.gauche) + parent.nombre;
+            }
         }
+        return rang;
+    }
+
+    // Renvoie le nombre d'éléments strictement inférieurs à cle, en O(log n)
+    public int rank(E cle) {
+        return compterInferieurs(cle, false);
+    }
 
-        public Noeud<E> getDroite() {
-            return this;  // Un NoeudNul est son propre enfant droit
+    // ------------------------------------------------------------------
+    // Opérations ensemblistes en bloc, construites sur "join" (Blelloch,
+    // Ferizovic et Sun, "Just Join for Parallel Ordered Sets", 2016). Le join
+    // de deux arbres séparés par une clé descend seulement le long du bord de
+    // l'arbre le plus haut noir jusqu'à la hauteur noire de l'autre : il coûte
+    // O(|hauteur noire gauche - hauteur noire droite| + 1). Union, intersection
+    // et différence en découlent avec un travail en O(m log(n/m + 1)) pour
+    // m <= n, et leurs deux appels récursifs, indépendants, sont lancés en
+    // parallèle sur le ForkJoinPool commun au-delà de SEUIL_PARALLELE nœuds.
+    //
+    // Les nœuds sont réutilisés, pas copiés : l'arbre passé en argument est
+    // vidé. Les arbres sont traités comme des ensembles ; avec des doublons,
+    // une seule occurrence de chaque clé commune est appariée. En mode
+    // multiensemble, un nœud garde tout son compteur : l'union conserve les
+    // occurrences de this pour une clé commune. Les deux arbres doivent être
+    // dans le même mode.
+    // ------------------------------------------------------------------
+
+    // En dessous de ce nombre de nœuds, la récursion reste séquentielle
+    private static final int SEUIL_PARALLELE = 1 << 13;
+
+    // Sous-arbre détaché (parent null), à racine noire, avec sa hauteur noire
+    // (nombre de nœuds noirs d'un chemin de la racine à une feuille). La
+    // hauteur est transmise au fil de la récursion au lieu d'être recalculée,
+    // ce qui garde le join en temps constant amorti.
+    private static final class SousArbre<E> {
+        final Noeud<E> racine;
+        final int hauteurNoire;
+
+        SousArbre(Noeud<E> racine, int hauteurNoire) {
+            this.racine = racine;
+            this.hauteurNoire = hauteurNoire;
         }
 
-        public Noeud<E> getParent() {
-            return null;  // Un NoeudNul n'a pas de parent
+        boolean estVide() {
+            return racine == null;
         }
     }
-    // Méthode pour afficher l'arbre en chaîne de caractères
-    @Override
-    public String toString() {
-        StringBuilder sb = new StringBuilder();
-        toString(racine, sb, "", 4);
-        return sb.toString();
+
+    // Résultat d'une coupe : les éléments avant la clé, le nœud de la clé
+    // (ou null) et les éléments après
+    private static final class Coupe<E> {
+        final SousArbre<E> gauche;
+        final Noeud<E> milieu;
+        final SousArbre<E> droite;
+
+        Coupe(SousArbre<E> gauche, Noeud<E> milieu, SousArbre<E> droite) {
+            this.gauche = gauche;
+            this.milieu = milieu;
+            this.droite = droite;
+        }
     }
 
-    private void toString(Noeud<E> x, StringBuilder sb, String chemin, int len) {
-        if (x == null || x instanceof NoeudNul) return;
+    // this reçoit les éléments de autre absents de this ; autre est vidé
+    public void union(ARN<E> autre) {
+        if (autre == this) {
+            return;
+        }
+        verifierMemeMode(autre);
+        SousArbre<E> resultat = executer(() -> union(extraireArbre(), autre.extraireArbre()));
+        installer(resultat);
+    }
 
-        toString(x.droite, sb, chemin + "D", len);
+    // this ne garde que ses éléments présents dans autre ; autre est vidé
+    public void intersection(ARN<E> autre) {
+        if (autre == this) {
+            return;
+        }
+        verifierMemeMode(autre);
+        SousArbre<E> resultat = executer(() -> intersection(extraireArbre(), autre.extraireArbre()));
+        installer(resultat);
+    }
 
-        for (int i = 0; i < chemin.length(); i++) {
-            for (int j = 0; j < len; j++) sb.append(' ');
-            char c = ' ';
-            if (i == chemin.length() - 1)
-                c = '+';
-            else if (chemin.charAt(i) != chemin.charAt(i + 1))
-                c = '|';
-            sb.append(c);
+    // this perd ses éléments présents dans autre ; autre est vidé
+    public void difference(ARN<E> autre) {
+        if (autre == this) {
+            clear();
+            return;
         }
+        verifierMemeMode(autre);
+        SousArbre<E> resultat = executer(() -> difference(extraireArbre(), autre.extraireArbre()));
+        installer(resultat);
+    }
 
-        sb.append("-- ").append(x.donnee).append(x.couleur == ROUGE ? "R" : "N").append("\n");
+    // Coupe l'arbre en O(log n) : this garde les éléments < cle, l'arbre
+    // renvoyé reçoit ceux >= cle (doublons compris)
+    public ARN<E> split(E cle) {
+        Coupe<E> coupe = couperAvant(extraireArbre(), cle);
+        ARN<E> droite = creerArbreVide();
+        droite.installer(coupe.droite);
+        installer(coupe.gauche);
+        return droite;
+    }
 
-        toString(x.gauche, sb, chemin + "G", len);
+    // Concatène gauche, cle et droite en O(log n), à condition que les
+    // éléments de gauche soient <= cle <= ceux de droite (strictement en mode
+    // multiensemble, où une clé n'a qu'un nœud). Les deux arbres sont vidés ;
+    // l'arbre renvoyé est gauche, qui reçoit le tout.
+    public static <E> ARN<E> join(ARN<E> gauche, E cle, ARN<E> droite) {
+        if (gauche == droite) {
+            throw new IllegalArgumentException("Impossible de joindre un arbre avec lui-même");
+        }
+        gauche.verifierMemeMode(droite);
+        int seuil = gauche.multiensemble ? 0 : 1;
+        if ((!gauche.isEmpty() && gauche.comparer(gauche.last(), cle) >= seuil)
+                || (!droite.isEmpty() && gauche.comparer(cle, droite.first()) >= seuil)) {
+            throw new IllegalArgumentException("Les éléments de gauche doivent précéder " + cle
+                    + ", qui doit précéder ceux de droite");
+        }
+        Noeud<E> pivot = gauche.creerNoeud(cle);
+        if (Metriques.ACTIVES) gauche.compteurs.noeudsCrees++;
+        gauche.installer(gauche.joindre(gauche.extraireArbre(), pivot, droite.extraireArbre()));
+        return gauche;
     }
 
-    public static void main(String... args) {
-        ARN<Integer> arbre = new ARN<>();
-    
-        // Ajout des éléments à l'arbre
-        int[] elementsToAdd = {1, 7, 8, 10, 15, 7, 12, 19, 31, 38};
-        for (int element : elementsToAdd) {
-            arbre.add(element);
-            System.out.println("Après ajout de " + element + " :");
-            System.out.println(arbre);
+    // Arbre vide de même nature que this, qui reçoit la partie droite de
+    // split : une sous-classe aux nœuds augmentés le redéfinit
+    protected ARN<E> creerArbreVide() {
+        return new ARN<>(cmp, multiensemble);
+    }
+
+    // Les opérations ensemblistes échangent des nœuds entre les deux arbres :
+    // ils doivent donc avoir le même mode et les mêmes nœuds (même classe)
+    void verifierMemeMode(ARN<E> autre) {
+        if (multiensemble != autre.multiensemble) {
+            throw new IllegalArgumentException("Un multiensemble ne se combine qu'avec un autre multiensemble");
         }
-    
-        // Tests de recherche
-        System.out.println("------------------------------------------------------------------------------------");
-        System.out.println("Tests de recherche :");
-    
-        int[] elementsToSearch = {1, 7, 8, 10, 15, 19, 31, 38};
-        for (int element : elementsToSearch) {
-            if (arbre.contains(element)) {
-                System.out.println("L'élément " + element + " est présent dans l'arbre.");
-            } else {
-                System.out.println("L'élément " + element + " n'est pas présent dans l'arbre.");
+        if (getClass() != autre.getClass()) {
+            throw new IllegalArgumentException("Impossible de combiner " + getClass().getSimpleName()
+                    + " avec " + autre.getClass().getSimpleName());
+        }
+    }
+
+    // Lance le calcul dans le ForkJoinPool commun, pour que les sous-tâches
+    // forkées y soient volées
+    private static <E> SousArbre<E> executer(Callable<SousArbre<E>> calcul) {
+        return ForkJoinPool.commonPool().invoke(ForkJoinTask.adapt(calcul));
+    }
+
+    // Détache l'arbre entier et laisse this vide
+    private SousArbre<E> extraireArbre() {
+        Noeud<E> noeud = racine;
+        int hauteurNoire = 0;
+        for (Noeud<E> n = noeud; n != null; n = n.gauche) {
+            if (n.couleur == NOIR) {
+                hauteurNoire++;
             }
         }
-    
-        // Suppression d'éléments
-        int[] elementsToRemove = {8, 10, 7, 31};
-        for (int element : elementsToRemove) {
-            arbre.remove(element);
-            System.out.println("Après suppression de " + element + " :");
-            System.out.println(arbre);
+        racine = null;
+        nbModifications++;
+        return sousArbre(noeud, hauteurNoire);
+    }
+
+    private void installer(SousArbre<E> arbre) {
+        racine = arbre.racine;
+        nbModifications++;
+    }
+
+    // Détache noeud de son parent et noircit sa racine ; hauteurNoire est sa
+    // hauteur noire avant noircissement
+    private static <E> SousArbre<E> sousArbre(Noeud<E> noeud, int hauteurNoire) {
+        if (noeud == null) {
+            return new SousArbre<>(null, 0);
         }
-    
-        // Tests de recherche après suppression
-        System.out.println("--------------------------------------------------------------------------------------");
+        noeud.parent = null;
+        if (noeud.couleur == ROUGE) {
+            noeud.couleur = NOIR;
+            hauteurNoire++;
+        }
+        return new SousArbre<>(noeud, hauteurNoire);
+    }
+
+    // Sous-arbres gauche et droit de la racine (noire) de arbre
+    private static <E> SousArbre<E> gaucheDe(SousArbre<E> arbre) {
+        return sousArbre(arbre.racine.gauche, arbre.hauteurNoire - 1);
+    }
+
+    private static <E> SousArbre<E> droiteDe(SousArbre<E> arbre) {
+        return sousArbre(arbre.racine.droite, arbre.hauteurNoire - 1);
+    }
+
+    // Renvoie l'arbre des éléments de gauche, de pivot puis de droite
+    private SousArbre<E> joindre(SousArbre<E> gauche, Noeud<E> pivot, SousArbre<E> droite) {
+        int hg = gauche.hauteurNoire;
+        int hd = droite.hauteurNoire;
+        if (hg == hd) {
+            lier(pivot, gauche.racine, droite.racine);
+            pivot.couleur = NOIR;
+            return new SousArbre<>(pivot, hg + 1);
+        }
+        Noeud<E> resultat = hg > hd
+                ? joindreDroite(gauche.racine, hg, pivot, droite.racine, hd)
+                : joindreGauche(gauche.racine, hg, pivot, droite.racine, hd);
+        resultat.parent = null;
+        int hauteurNoire = Math.max(hg, hd);
+        if (resultat.couleur == ROUGE) {
+            resultat.couleur = NOIR;
+            hauteurNoire++;
+        }
+        return new SousArbre<>(resultat, hauteurNoire);
+    }
+
+    // Descend le bord droit de gauche jusqu'au premier nœud noir de hauteur
+    // noire hd et y accroche pivot (rouge) avec droite ; un rouge-rouge créé
+    // est réparé par une rotation au niveau noir du dessus
+    private Noeud<E> joindreDroite(Noeud<E> gauche, int hg, Noeud<E> pivot, Noeud<E> droite, int hd) {
+        if (hg == hd && estNoir(gauche)) {
+            lier(pivot, gauche, droite);
+            pivot.couleur = ROUGE;
+            return pivot;
+        }
+        Noeud<E> enfant = joindreDroite(gauche.droite, gauche.couleur == NOIR ? hg - 1 : hg, pivot, droite, hd);
+        gauche.droite = enfant;
+        enfant.parent = gauche;
+        if (gauche.couleur == NOIR && enfant.couleur == ROUGE && !estNoir(enfant.droite)) {
+            enfant.droite.couleur = NOIR;
+            return tournerGauche(gauche);
+        }
+        mettreAJour(gauche);
+        return gauche;
+    }
+
+    // Symétrique de joindreDroite, quand droite est plus haut noir que gauche
+    private Noeud<E> joindreGauche(Noeud<E> gauche, int hg, Noeud<E> pivot, Noeud<E> droite, int hd) {
+        if (hg == hd && estNoir(droite)) {
+            lier(pivot, gauche, droite);
+            pivot.couleur = ROUGE;
+            return pivot;
+        }
+        Noeud<E> enfant = joindreGauche(gauche, hg, pivot, droite.gauche, droite.couleur == NOIR ? hd - 1 : hd);
+        droite.gauche = enfant;
+        enfant.parent = droite;
+        if (droite.couleur == NOIR && enfant.couleur == ROUGE && !estNoir(enfant.gauche)) {
+            enfant.gauche.couleur = NOIR;
+            return tournerDroite(droite);
+        }
+        mettreAJour(droite);
+        return droite;
+    }
+
+    private void lier(Noeud<E> noeud, Noeud<E> gauche, Noeud<E> droite) {
+        noeud.gauche = gauche;
+        noeud.droite = droite;
+        noeud.parent = null;
+        if (gauche != null) {
+            gauche.parent = noeud;
+        }
+        if (droite != null) {
+            droite.parent = noeud;
+        }
+        mettreAJour(noeud);
+    }
+
+    // Rotations sur un sous-arbre détaché : contrairement à rotationGauche et
+    // rotationDroite, elles ne touchent ni au parent ni à la racine de l'arbre
+    // et renvoient la nouvelle racine du sous-arbre
+    private Noeud<E> tournerGauche(Noeud<E> noeud) {
+        if (Metriques.ACTIVES) compteurs.rotations.increment();
+        Noeud<E> enfantDroit = noeud.droite;
+        noeud.droite = enfantDroit.gauche;
+        if (enfantDroit.gauche != null) {
+            enfantDroit.gauche.parent = noeud;
+        }
+        enfantDroit.gauche = noeud;
+        noeud.parent = enfantDroit;
+        enfantDroit.parent = null;
+        mettreAJour(noeud);
+        mettreAJour(enfantDroit);
+        return enfantDroit;
+    }
 
+    private Noeud<E> tournerDroite(Noeud<E> noeud) {
+        if (Metriques.ACTIVES) compteurs.rotations.increment();
+        Noeud<E> enfantGauche = noeud.gauche;
+        noeud.gauche = enfantGauche.droite;
+        if (enfantGauche.droite != null) {
+            enfantGauche.droite.parent = noeud;
+        }
+        enfantGauche.droite = noeud;
+        noeud.parent = enfantGauche;
+        enfantGauche.parent = null;
+        mettreAJour(noeud);
+        mettreAJour(enfantGauche);
+        return enfantGauche;
+    }
+
+    // Concaténation sans pivot : le maximum de gauche sert de pivot
+    private SousArbre<E> joindre(SousArbre<E> gauche, SousArbre<E> droite) {
+        if (gauche.estVide()) {
+            return droite;
+        }
+        if (droite.estVide()) {
+            return gauche;
+        }
+        Coupe<E> coupe = extraireDernier(gauche);
+        return joindre(coupe.gauche, coupe.milieu, droite);
+    }
+
+    // Sépare le dernier nœud du reste de l'arbre
+    private Coupe<E> extraireDernier(SousArbre<E> arbre) {
+        Noeud<E> noeud = arbre.racine;
+        SousArbre<E> gauche = gaucheDe(arbre);
+        if (noeud.droite == null) {
+            return new Coupe<>(gauche, noeud, null);
+        }
+        Coupe<E> coupe = extraireDernier(droiteDe(arbre));
+        return new Coupe<>(joindre(gauche, noeud, coupe.gauche), coupe.milieu, null);
+    }
+
+    // Coupe autour de la première occurrence de cle rencontrée en descendant
+    private Coupe<E> couper(SousArbre<E> arbre, E cle) {
+        if (arbre.estVide()) {
+            return new Coupe<>(arbre, null, arbre);
+        }
+        Noeud<E> noeud = arbre.racine;
+        SousArbre<E> gauche = gaucheDe(arbre);
+        SousArbre<E> droite = droiteDe(arbre);
+        int comparaison = comparer(cle, noeud.donnee);
+        if (comparaison == 0) {
+            return new Coupe<>(gauche, noeud, droite);
+        } else if (comparaison < 0) {
+            Coupe<E> coupe = couper(gauche, cle);
+            return new Coupe<>(coupe.gauche, coupe.milieu, joindre(coupe.droite, noeud, droite));
+        } else {
+            Coupe<E> coupe = couper(droite, cle);
+            return new Coupe<>(joindre(gauche, noeud, coupe.gauche), coupe.milieu, coupe.droite);
+        }
+    }
+
+    // Coupe en éléments < cle et éléments >= cle, sans pivot
+    private Coupe<E> couperAvant(SousArbre<E> arbre, E cle) {
+        if (arbre.estVide()) {
+            return new Coupe<>(arbre, null, arbre);
+        }
+        Noeud<E> noeud = arbre.racine;
+        SousArbre<E> gauche = gaucheDe(arbre);
+        SousArbre<E> droite = droiteDe(arbre);
+        if (comparer(cle, noeud.donnee) <= 0) {
+            Coupe<E> coupe = couperAvant(gauche, cle);
+            return new Coupe<>(coupe.gauche, null, joindre(coupe.droite, noeud, droite));
+        } else {
+            Coupe<E> coupe = couperAvant(droite, cle);
+            return new Coupe<>(joindre(gauche, noeud, coupe.gauche), null, coupe.droite);
+        }
+    }
+
+    private static boolean enParallele(SousArbre<?> a, SousArbre<?> b) {
+        return getTaille(a.racine) + getTaille(b.racine) > SEUIL_PARALLELE;
+    }
+
+    private SousArbre<E> union(SousArbre<E> a, SousArbre<E> b) {
+        if (a.estVide()) {
+            return b;
+        }
+        if (b.estVide()) {
+            return a;
+        }
+        Noeud<E> noeud = a.racine;
+        boolean parallele = enParallele(a, b);
+        SousArbre<E> gaucheA = gaucheDe(a);
+        SousArbre<E> droiteA = droiteDe(a);
+        Coupe<E> coupe = couper(b, noeud.donnee); // L'occurrence de b, s'il y en a une, est abandonnée
+        SousArbre<E> gauche;
+        SousArbre<E> droite;
+        if (parallele) {
+            ForkJoinTask<SousArbre<E>> tache =
+                    ForkJoinTask.adapt(() -> union(gaucheA, coupe.gauche)).fork();
+            droite = union(droiteA, coupe.droite);
+            gauche = tache.join();
+        } else {
+            gauche = union(gaucheA, coupe.gauche);
+            droite = union(droiteA, coupe.droite);
+        }
+        return joindre(gauche, noeud, droite);
+    }
+
+    private SousArbre<E> intersection(SousArbre<E> a, SousArbre<E> b) {
+        if (a.estVide() || b.estVide()) {
+            return new SousArbre<>(null, 0);
+        }
+        Noeud<E> noeud = a.racine;
+        boolean parallele = enParallele(a, b);
+        SousArbre<E> gaucheA = gaucheDe(a);
+        SousArbre<E> droiteA = droiteDe(a);
+        Coupe<E> coupe = couper(b, noeud.donnee);
+        SousArbre<E> gauche;
+        SousArbre<E> droite;
+        if (parallele) {
+            ForkJoinTask<SousArbre<E>> tache =
+                    ForkJoinTask.adapt(() -> intersection(gaucheA, coupe.gauche)).fork();
+            droite = intersection(droiteA, coupe.droite);
+            gauche = tache.join();
+        } else {
+            gauche = intersection(gaucheA, coupe.gauche);
+            droite = intersection(droiteA, coupe.droite);
+        }
+        return coupe.milieu != null ? joindre(gauche, noeud, droite) : joindre(gauche, droite);
+    }
+
+    // Éléments de a absents de b
+    private SousArbre<E> difference(SousArbre<E> a, SousArbre<E> b) {
+        if (a.estVide() || b.estVide()) {
+            return a;
+        }
+        Noeud<E> noeud = b.racine;
+        boolean parallele = enParallele(a, b);
+        SousArbre<E> gaucheB = gaucheDe(b);
+        SousArbre<E> droiteB = droiteDe(b);
+        Coupe<E> coupe = couper(a, noeud.donnee);
+        SousArbre<E> gauche;
+        SousArbre<E> droite;
+        if (parallele) {
+            ForkJoinTask<SousArbre<E>> tache =
+                    ForkJoinTask.adapt(() -> difference(coupe.gauche, gaucheB)).fork();
+            droite = difference(coupe.droite, droiteB);
+            gauche = tache.join();
+        } else {
+            gauche = difference(coupe.gauche, gaucheB);
+            droite = difference(coupe.droite, droiteB);
+        }
+        return joindre(gauche, droite);
+    }
+
+    // Méthode pour itérer sur les éléments de l'arbre
+    @Override
+    public Iterator<E> iterator() {
+        return new ARNIterateur(premierNoeud(), false, null);
+    }
+
+    @Override
+    public Iterator<E> descendingIterator() {
+        return new ARNIterateur(dernierNoeud(), true, null);
+    }
+
+    // Spliterator natif : chaque morceau couvre un intervalle de rangs
+    // [debut, fin[. trySplit coupe au rang médian et le premier nœud d'un
+    // morceau est retrouvé par une descente guidée par les tailles des
+    // sous-arbres, en O(log n) ; les tailles sont donc exactes (SIZED et
+    // SUBSIZED) et les morceaux équilibrés. DISTINCT n'est pas annoncé, les
+    // doublons étant admis. En mode multiensemble, les rangs comptent les
+    // occurrences et un morceau peut commencer au milieu de celles d'un nœud.
+    @Override
+    public Spliterator<E> spliterator() {
+        return new ARNSpliterator(0, -1);
+    }
+
+    private final class ARNSpliterator implements Spliterator<E> {
+        private Noeud<E> courant; // Nœud de l'élément de rang debut - 1, ou null s'il faut redescendre
+        private int occurrence;   // Indice de cet élément parmi les occurrences de courant
+        private int debut;
+        private int fin; // -1 tant que le spliterator n'est pas lié à l'arbre
+        private int nbModificationsAttendu;
+
+        ARNSpliterator(int debut, int fin) {
+            this.debut = debut;
+            this.fin = fin;
+            this.nbModificationsAttendu = nbModifications;
+        }
+
+        // Liaison tardive : l'arbre peut être modifié jusqu'au premier usage
+        private int getFin() {
+            if (fin < 0) {
+                fin = size();
+                nbModificationsAttendu = nbModifications;
+            }
+            return fin;
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            int f = getFin();
+            int milieu = (debut + f) >>> 1;
+            if (milieu <= debut) {
+                return null;
+            }
+            ARNSpliterator prefixe = new ARNSpliterator(debut, milieu);
+            prefixe.nbModificationsAttendu = nbModificationsAttendu;
+            prefixe.courant = courant;
+            prefixe.occurrence = occurrence;
+            courant = null;
+            debut = milieu;
+            return prefixe;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (action == null) throw new NullPointerException();
+            if (debut >= getFin()) {
+                return false;
+            }
+            if (nbModifications != nbModificationsAttendu) throw new ConcurrentModificationException();
+            avancer();
+            debut++;
+            action.accept(courant.donnee);
+            return true;
+        }
+
+        // Passe de l'élément de rang debut - 1 à celui de rang debut
+        private void avancer() {
+            if (courant == null) {
+                courant = noeudDeRang(debut);
+                occurrence = debut - rangDe(courant);
+            } else if (++occurrence == courant.nombre) {
+                courant = successeur(courant);
+                occurrence = 0;
+            }
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            if (action == null) throw new NullPointerException();
+            int f = getFin();
+            if (debut >= f) {
+                return;
+            }
+            if (nbModifications != nbModificationsAttendu) throw new ConcurrentModificationException();
+            for (; debut < f; debut++) {
+                avancer();
+                action.accept(courant.donnee);
+            }
+            if (nbModifications != nbModificationsAttendu) throw new ConcurrentModificationException();
+        }
+
+        @Override
+        public long estimateSize() {
+            return getFin() - debut;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SORTED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+
+        @Override
+        public Comparator<? super E> getComparator() {
+            return comparator();
+        }
+    }
+
+    // Renvoie un curseur non positionné ; le premier seek part de la racine
+    public Curseur curseur() {
+        return new Curseur();
+    }
+
+    // Curseur ("finger") qui retient le dernier nœud visité. seek part de ce
+    // nœud et ne remonte les liens parent que jusqu'au premier ancêtre dont le
+    // sous-arbre contient la clé cherchée, puis redescend : le coût est en
+    // O(log d), d étant la distance en rangs entre les deux positions. Des
+    // recherches croissantes successives coûtent donc O(1) amorti. Toute
+    // modification de l'arbre hors du curseur l'invalide : seek repart alors
+    // de la racine et les autres méthodes lèvent ConcurrentModificationException.
+    // En mode multiensemble, le curseur passe d'une clé distincte à la
+    // suivante et remove n'en retire qu'une occurrence.
+    public class Curseur {
+        private Noeud<E> courant;
+        private int nbModificationsAttendu = nbModifications;
+
+        private Curseur() {
+        }
+
+        // Place le curseur sur le premier élément >= cle et renvoie vrai s'il
+        // est égal à cle ; s'il n'y en a pas, le curseur n'est plus positionné
+        public boolean seek(E cle) {
+            Noeud<E> depart = courant;
+            if (depart == null || nbModifications != nbModificationsAttendu) {
+                depart = racine;
+                nbModificationsAttendu = nbModifications;
+            }
+            if (depart == null) {
+                return false;
+            }
+
+            Noeud<E> candidat = null;
+            int comparaison = comparer(cle, depart.donnee);
+            if (comparaison > 0) {
+                // Remonter tant que cle peut dépasser le sous-arbre : seuls
+                // les ancêtres atteints par la gauche bornent à droite
+                while (depart.parent != null) {
+                    Noeud<E> parent = depart.parent;
+                    if (depart == parent.gauche && comparer(cle, parent.donnee) < 0) {
+                        candidat = parent;
+                        break;
+                    }
+                    depart = parent;
+                }
+            } else {
+                // Symétrique : les ancêtres atteints par la droite bornent à
+                // gauche, et le nœud de départ reste un candidat (à égalité,
+                // on remonte aussi, un doublon pouvant précéder le départ)
+                candidat = depart;
+                while (depart.parent != null) {
+                    Noeud<E> parent = depart.parent;
+                    if (depart == parent.droite && comparer(cle, parent.donnee) > 0) {
+                        break;
+                    }
+                    depart = parent;
+                }
+            }
+
+            // Descente classique vers le premier nœud >= cle du sous-arbre
+            Noeud<E> noeud = depart;
+            while (noeud != null) {
+                if (comparer(cle, noeud.donnee) <= 0) {
+                    candidat = noeud;
+                    noeud = noeud.gauche;
+                } else {
+                    noeud = noeud.droite;
+                }
+            }
+            courant = candidat;
+            return candidat != null && comparer(cle, candidat.donnee) == 0;
+        }
+
+        // Vrai si le curseur est sur un élément
+        public boolean estPositionne() {
+            return courant != null;
+        }
+
+        // Élément sous le curseur
+        public E get() {
+            verifier();
+            return courant.donnee;
+        }
+
+        // Avance d'un élément ; renvoie faux (curseur non positionné) à la fin
+        public boolean next() {
+            verifier();
+            courant = successeur(courant);
+            return courant != null;
+        }
+
+        // Recule d'un élément ; renvoie faux (curseur non positionné) au début
+        public boolean prev() {
+            verifier();
+            courant = predecesseur(courant);
+            return courant != null;
+        }
+
+        // Supprime l'élément sous le curseur, qui passe sur l'élément suivant
+        public void remove() {
+            verifier();
+            courant = retirerOccurrence(courant);
+            nbModificationsAttendu = nbModifications;
+        }
+
+        private void verifier() {
+            if (nbModifications != nbModificationsAttendu) throw new ConcurrentModificationException();
+            if (courant == null) throw new NoSuchElementException();
+        }
+    }
+
+    // Itérateur paresseux : parcours infixe en suivant les liens parent, sans
+    // copie de l'arbre. next() est en O(1) amorti. Si une vue est fournie, le
+    // parcours s'arrête dès qu'un nœud sort de ses bornes. Un nœud est rendu
+    // autant de fois qu'il compte d'occurrences.
+    private class ARNIterateur implements Iterator<E> {
+        private Noeud<E> suivant;
+        private int dejaRendues; // Occurrences de suivant déjà rendues
+        private Noeud<E> dernier = null;
+        private final boolean descendant;
+        private final SousEnsemble vue;
+        private int nbModificationsAttendu = nbModifications;
+
+        ARNIterateur(Noeud<E> premier, boolean descendant, SousEnsemble vue) {
+            this.suivant = premier;
+            this.descendant = descendant;
+            this.vue = vue;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return suivant != null;
+        }
+
+        @Override
+        public E next() {
+            if (suivant == null) throw new NoSuchElementException();
+            if (nbModifications != nbModificationsAttendu) throw new ConcurrentModificationException();
+            dernier = suivant;
+            if (++dejaRendues == suivant.nombre) {
+                suivant = avancer(suivant);
+                dejaRendues = 0;
+            }
+            return dernier.donnee;
+        }
+
+        private Noeud<E> avancer(Noeud<E> noeud) {
+            Noeud<E> prochain = descendant ? predecesseur(noeud) : successeur(noeud);
+            if (prochain != null && vue != null
+                    && (descendant ? vue.tropBas(prochain.donnee) : vue.tropHaut(prochain.donnee))) {
+                return null;
+            }
+            return prochain;
+        }
+
+        @Override
+        public void remove() {
+            if (dernier == null) throw new IllegalStateException();
+            if (nbModifications != nbModificationsAttendu) throw new ConcurrentModificationException();
+            if (dernier.nombre > 1) {
+                // Une occurrence en moins ; si le parcours est encore sur ce
+                // nœud, il en reste une de moins à rendre
+                retirerOccurrence(dernier);
+                if (suivant == dernier) {
+                    dejaRendues--;
+                }
+            } else {
+                // Si dernier a deux enfants, son successeur est recopié dedans :
+                // en ordre croissant, le prochain élément est donc porté par dernier
+                Noeud<E> apres = supprimerNoeud(dernier);
+                if (apres == dernier && !descendant && suivant != null) {
+                    suivant = dernier;
+                }
+            }
+            dernier = null;
+            nbModificationsAttendu = nbModifications;
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // NavigableSet : navigation par descente depuis la racine, en O(log n).
+    // Contrairement à TreeSet, les doublons sont conservés.
+    // ------------------------------------------------------------------
+
+    @SuppressWarnings("unchecked")
+    int comparer(Object a, E b) {
+        if (Metriques.ACTIVES) compteurs.comparaisons.increment();
+        return cmp.compare((E) a, b);
+    }
+
+    // Vrai si donnee est au-dessus de la borne basse de (égale comprise si
+    // deInclus), et symétriquement pour la borne haute a
+    boolean apresBas(E donnee, Object de, boolean deInclus) {
+        int comparaison = comparer(de, donnee);
+        return comparaison < 0 || (comparaison == 0 && deInclus);
+    }
+
+    boolean avantHaut(E donnee, Object a, boolean aInclus) {
+        int comparaison = comparer(a, donnee);
+        return comparaison > 0 || (comparaison == 0 && aInclus);
+    }
+
+    Noeud<E> premierNoeud() {
+        return racine == null ? null : trouverMinimum(racine);
+    }
+
+    Noeud<E> dernierNoeud() {
+        return racine == null ? null : trouverMaximum(racine);
+    }
+
+    private Noeud<E> trouverMaximum(Noeud<E> noeud) {
+        while (noeud.droite != null) {
+            noeud = noeud.droite;
+        }
+        return noeud;
+    }
+
+    // Prédécesseur dans l'ordre infixe (symétrique de successeur)
+    Noeud<E> predecesseur(Noeud<E> noeud) {
+        if (noeud.gauche != null) {
+            return trouverMaximum(noeud.gauche);
+        }
+        Noeud<E> parent = noeud.parent;
+        while (parent != null && noeud == parent.gauche) {
+            noeud = parent;
+            parent = parent.parent;
+        }
+        return parent;
+    }
+
+    // Premier nœud (le plus à gauche) dont la clé est >= cle (ou > cle)
+    Noeud<E> noeudPlafond(Object cle, boolean inclus) {
+        Noeud<E> candidat = null;
+        Noeud<E> noeud = racine;
+        while (noeud != null) {
+            int comparaison = comparer(cle, noeud.donnee);
+            if (comparaison < 0 || (comparaison == 0 && inclus)) {
+                candidat = noeud;
+                noeud = noeud.gauche;
+            } else {
+                noeud = noeud.droite;
+            }
+        }
+        return candidat;
+    }
+
+    // Dernier nœud (le plus à droite) dont la clé est <= cle (ou < cle)
+    Noeud<E> noeudPlancher(Object cle, boolean inclus) {
+        Noeud<E> candidat = null;
+        Noeud<E> noeud = racine;
+        while (noeud != null) {
+            int comparaison = comparer(cle, noeud.donnee);
+            if (comparaison > 0 || (comparaison == 0 && inclus)) {
+                candidat = noeud;
+                noeud = noeud.droite;
+            } else {
+                noeud = noeud.gauche;
+            }
+        }
+        return candidat;
+    }
+
+    // Nombre d'éléments < cle (ou <= cle si inclus), en O(log n)
+    int compterInferieurs(Object cle, boolean inclus) {
+        int rang = 0;
+        Noeud<E> noeud = racine;
+        while (noeud != null) {
+            int comparaison = comparer(cle, noeud.donnee);
+            if (comparaison < 0 || (comparaison == 0 && !inclus)) {
+                noeud = noeud.gauche;
+            } else {
+                rang += getTaille(noeud.gauche) + noeud.nombre;
+                noeud = noeud.droite;
+            }
+        }
+        return rang;
+    }
+
+    private static <E> E donneeOuNull(Noeud<E> noeud) {
+        return noeud == null ? null : noeud.donnee;
+    }
+
+    private static <E> E donneeOuException(Noeud<E> noeud) {
+        if (noeud == null) throw new NoSuchElementException();
+        return noeud.donnee;
+    }
+
+    // Retire une occurrence du nœud et renvoie sa donnée (null si le nœud est absent)
+    private E extraire(Noeud<E> noeud) {
+        if (noeud == null) return null;
+        E donnee = noeud.donnee;
+        retirerOccurrence(noeud);
+        return donnee;
+    }
+
+    @Override
+    public Comparator<? super E> comparator() {
+        return cmp == ORDRE_NATUREL ? null : cmp; // null pour l'ordre naturel
+    }
+
+    @Override
+    public E first() {
+        return donneeOuException(premierNoeud());
+    }
+
+    @Override
+    public E last() {
+        return donneeOuException(dernierNoeud());
+    }
+
+    @Override
+    public E lower(E e) {
+        return donneeOuNull(noeudPlancher(e, false));
+    }
+
+    @Override
+    public E floor(E e) {
+        return donneeOuNull(noeudPlancher(e, true));
+    }
+
+    @Override
+    public E ceiling(E e) {
+        return donneeOuNull(noeudPlafond(e, true));
+    }
+
+    @Override
+    public E higher(E e) {
+        return donneeOuNull(noeudPlafond(e, false));
+    }
+
+    @Override
+    public E pollFirst() {
+        return extraire(premierNoeud());
+    }
+
+    @Override
+    public E pollLast() {
+        return extraire(dernierNoeud());
+    }
+
+    @Override
+    public NavigableSet<E> descendingSet() {
+        return new SousEnsemble(false, null, false, false, null, false, true);
+    }
+
+    @Override
+    public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+        if (comparer(fromElement, toElement) > 0) {
+            throw new IllegalArgumentException("fromElement > toElement");
+        }
+        return new SousEnsemble(true, fromElement, fromInclusive, true, toElement, toInclusive, false);
+    }
+
+    @Override
+    public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+        comparer(toElement, toElement); // Vérifie le type de la borne
+        return new SousEnsemble(false, null, false, true, toElement, inclusive, false);
+    }
+
+    @Override
+    public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+        comparer(fromElement, fromElement);
+        return new SousEnsemble(true, fromElement, inclusive, false, null, false, false);
+    }
+
+    @Override
+    public SortedSet<E> subSet(E fromElement, E toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public SortedSet<E> headSet(E toElement) {
+        return headSet(toElement, false);
+    }
+
+    @Override
+    public SortedSet<E> tailSet(E fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    // Vue bornée (et éventuellement inversée) de l'arbre, sans copie : toutes
+    // les opérations se font sur l'arbre lui-même. Les bornes sont exprimées
+    // dans l'ordre croissant, quel que soit le sens de la vue.
+    private class SousEnsemble extends AbstractCollection<E> implements NavigableSet<E> {
+        private final boolean aBas, basInclus, aHaut, hautInclus, descendant;
+        private final E bas, haut;
+
+        SousEnsemble(boolean aBas, E bas, boolean basInclus,
+                     boolean aHaut, E haut, boolean hautInclus, boolean descendant) {
+            this.aBas = aBas;
+            this.bas = bas;
+            this.basInclus = basInclus;
+            this.aHaut = aHaut;
+            this.haut = haut;
+            this.hautInclus = hautInclus;
+            this.descendant = descendant;
+        }
+
+        boolean tropBas(Object e) {
+            if (!aBas) return false;
+            int comparaison = comparer(e, bas);
+            return comparaison < 0 || (comparaison == 0 && !basInclus);
+        }
+
+        boolean tropHaut(Object e) {
+            if (!aHaut) return false;
+            int comparaison = comparer(e, haut);
+            return comparaison > 0 || (comparaison == 0 && !hautInclus);
+        }
+
+        private boolean dansBornes(Object e) {
+            return !tropBas(e) && !tropHaut(e);
+        }
+
+        // Comme dansBornes, mais une borne exclusive de la vue est acceptée
+        // comme borne exclusive d'une sous-vue
+        private boolean dansBornesFermees(Object e) {
+            return (!aBas || comparer(e, bas) >= 0) && (!aHaut || comparer(e, haut) <= 0);
+        }
+
+        // Plus petit nœud de la vue, obtenu par une descente vers la borne basse
+        private Noeud<E> plusBas() {
+            Noeud<E> noeud = aBas ? noeudPlafond(bas, basInclus) : premierNoeud();
+            return (noeud == null || tropHaut(noeud.donnee)) ? null : noeud;
+        }
+
+        private Noeud<E> plusHaut() {
+            Noeud<E> noeud = aHaut ? noeudPlancher(haut, hautInclus) : dernierNoeud();
+            return (noeud == null || tropBas(noeud.donnee)) ? null : noeud;
+        }
+
+        private Noeud<E> plafond(E e, boolean inclus) {
+            if (tropBas(e)) return plusBas();
+            Noeud<E> noeud = noeudPlafond(e, inclus);
+            return (noeud == null || tropHaut(noeud.donnee)) ? null : noeud;
+        }
+
+        private Noeud<E> plancher(E e, boolean inclus) {
+            if (tropHaut(e)) return plusHaut();
+            Noeud<E> noeud = noeudPlancher(e, inclus);
+            return (noeud == null || tropBas(noeud.donnee)) ? null : noeud;
+        }
+
+        private Noeud<E> premier() {
+            return descendant ? plusHaut() : plusBas();
+        }
+
+        private Noeud<E> dernier() {
+            return descendant ? plusBas() : plusHaut();
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new ARNIterateur(premier(), descendant, this);
+        }
+
+        @Override
+        public Iterator<E> descendingIterator() {
+            return new ARNIterateur(dernier(), !descendant, this);
+        }
+
+        // Taille obtenue par deux calculs de rang, en O(log n)
+        @Override
+        public int size() {
+            int fin = aHaut ? compterInferieurs(haut, hautInclus) : ARN.this.size();
+            int debut = aBas ? compterInferieurs(bas, !basInclus) : 0;
+            return Math.max(0, fin - debut);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return plusBas() == null;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return dansBornes(o) && ARN.this.contains(o);
+        }
+
+        @Override
+        public boolean add(E e) {
+            if (!dansBornes(e)) throw new IllegalArgumentException("Clé hors des bornes de la vue");
+            return ARN.this.add(e);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return dansBornes(o) && ARN.this.remove(o);
+        }
+
+        @Override
+        public Comparator<? super E> comparator() {
+            Comparator<? super E> c = ARN.this.comparator();
+            return descendant ? Collections.reverseOrder(c) : c;
+        }
+
+        @Override
+        public E first() {
+            return donneeOuException(premier());
+        }
+
+        @Override
+        public E last() {
+            return donneeOuException(dernier());
+        }
+
+        @Override
+        public E lower(E e) {
+            return donneeOuNull(descendant ? plafond(e, false) : plancher(e, false));
+        }
+
+        @Override
+        public E floor(E e) {
+            return donneeOuNull(descendant ? plafond(e, true) : plancher(e, true));
+        }
+
+        @Override
+        public E ceiling(E e) {
+            return donneeOuNull(descendant ? plancher(e, true) : plafond(e, true));
+        }
+
+        @Override
+        public E higher(E e) {
+            return donneeOuNull(descendant ? plancher(e, false) : plafond(e, false));
+        }
+
+        @Override
+        public E pollFirst() {
+            return extraire(premier());
+        }
+
+        @Override
+        public E pollLast() {
+            return extraire(dernier());
+        }
+
+        @Override
+        public NavigableSet<E> descendingSet() {
+            return new SousEnsemble(aBas, bas, basInclus, aHaut, haut, hautInclus, !descendant);
+        }
+
+        // Crée une sous-vue ; les bornes absentes sont reprises de cette vue
+        private NavigableSet<E> sousVue(boolean aNouveauBas, E nouveauBas, boolean nouveauBasInclus,
+                                        boolean aNouveauHaut, E nouveauHaut, boolean nouveauHautInclus) {
+            if (aNouveauBas && !(nouveauBasInclus ? dansBornes(nouveauBas) : dansBornesFermees(nouveauBas))) {
+                throw new IllegalArgumentException("Borne hors de la vue");
+            }
+            if (aNouveauHaut && !(nouveauHautInclus ? dansBornes(nouveauHaut) : dansBornesFermees(nouveauHaut))) {
+                throw new IllegalArgumentException("Borne hors de la vue");
+            }
+            if (!aNouveauBas) {
+                aNouveauBas = aBas;
+                nouveauBas = bas;
+                nouveauBasInclus = basInclus;
+            }
+            if (!aNouveauHaut) {
+                aNouveauHaut = aHaut;
+                nouveauHaut = haut;
+                nouveauHautInclus = hautInclus;
+            }
+            return new SousEnsemble(aNouveauBas, nouveauBas, nouveauBasInclus,
+                    aNouveauHaut, nouveauHaut, nouveauHautInclus, descendant);
+        }
+
+        @Override
+        public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+            if (descendant) {
+                if (comparer(fromElement, toElement) < 0) {
+                    throw new IllegalArgumentException("fromElement > toElement");
+                }
+                return sousVue(true, toElement, toInclusive, true, fromElement, fromInclusive);
+            }
+            if (comparer(fromElement, toElement) > 0) {
+                throw new IllegalArgumentException("fromElement > toElement");
+            }
+            return sousVue(true, fromElement, fromInclusive, true, toElement, toInclusive);
+        }
+
+        @Override
+        public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+            return descendant
+                    ? sousVue(true, toElement, inclusive, false, null, false)
+                    : sousVue(false, null, false, true, toElement, inclusive);
+        }
+
+        @Override
+        public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+            return descendant
+                    ? sousVue(false, null, false, true, fromElement, inclusive)
+                    : sousVue(true, fromElement, inclusive, false, null, false);
+        }
+
+        @Override
+        public SortedSet<E> subSet(E fromElement, E toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public SortedSet<E> headSet(E toElement) {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public SortedSet<E> tailSet(E fromElement) {
+            return tailSet(fromElement, true);
+        }
+    }
+
+    // Recherche d'un élément dans l'arbre
+    @Override
+    public boolean contains(Object cle) {
+        return rechercherNoeud((E) cle) != null;
+    }
+    
+    // Méthode pour afficher l'arbre en chaîne de caractères
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        try {
+            afficher(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Impossible avec un StringBuilder
+        }
+        return sb.toString();
+    }
+
+    // Écrit l'arbre dans sortie, une ligne par nœud, la droite en haut. Le
+    // parcours (droite, nœud, gauche) suit les liens parent au lieu de se
+    // rappeler : la pile reste constante quelle que soit la forme de l'arbre,
+    // et rien n'est accumulé si sortie est un flux.
+    public void afficher(Appendable sortie) throws IOException {
+        final int len = 4;
+        Noeud<E> x = racine;
+        if (x == null) return;
+        StringBuilder chemin = new StringBuilder(); // 'D' ou 'G' par niveau
+        while (x.droite != null) {
+            x = x.droite;
+            chemin.append('D');
+        }
+
+        while (x != null) {
+            for (int i = 0; i < chemin.length(); i++) {
+                for (int j = 0; j < len; j++) sortie.append(' ');
+                char c = ' ';
+                if (i == chemin.length() - 1)
+                    c = '+';
+                else if (chemin.charAt(i) != chemin.charAt(i + 1))
+                    c = '|';
+                sortie.append(c);
+            }
+
+            sortie.append("-- ").append(String.valueOf(x.donnee));
+            if (x.nombre > 1) {
+                sortie.append('x').append(String.valueOf(x.nombre));
+            }
+            sortie.append(x.couleur == ROUGE ? "R" : "N").append("\n");
+
+            if (x.gauche != null) {
+                // Nœud suivant : le plus à droite du sous-arbre gauche
+                x = x.gauche;
+                chemin.append('G');
+                while (x.droite != null) {
+                    x = x.droite;
+                    chemin.append('D');
+                }
+            } else {
+                // Sinon, le premier ancêtre dont on vient de la droite
+                while (x.parent != null && x == x.parent.gauche) {
+                    x = x.parent;
+                    chemin.setLength(chemin.length() - 1);
+                }
+                x = x.parent;
+                if (x != null) {
+                    chemin.setLength(chemin.length() - 1);
+                }
+            }
+        }
+    }
+
+    public static void main(String... args) {
+        ARN<Integer> arbre = new ARN<>();
+    
+        // Ajout des éléments à l'arbre
+        int[] elementsToAdd = {1, 7, 8, 10, 15, 7, 12, 19, 31, 38};
+        for (int element : elementsToAdd) {
+            arbre.add(element);
+            System.out.println("Après ajout de " + element + " :");
+            System.out.println(arbre);
+        }
+    
+        // Tests de recherche
+        System.out.println("------------------------------------------------------------------------------------");
+        System.out.println("Tests de recherche :");
+    
+        int[] elementsToSearch = {1, 7, 8, 10, 15, 19, 31, 38};
+        for (int element : elementsToSearch) {
+            if (arbre.contains(element)) {
+                System.out.println("L'élément " + element + " est présent dans l'arbre.");
+            } else {
+                System.out.println("L'élément " + element + " n'est pas présent dans l'arbre.");
+            }
+        }
+    
+        // Suppression d'éléments
+        int[] elementsToRemove = {8, 10, 7, 31};
+        for (int element : elementsToRemove) {
+            arbre.remove(element);
+            System.out.println("Après suppression de " + element + " :");
+            System.out.println(arbre);
+        }
+    
+        // Tests de recherche après suppression
+        System.out.println("--------------------------------------------------------------------------------------");
+
+        // Multiensemble : un seul nœud par clé distincte
+        ARN<Integer> multi = ARN.multiensemble();
+        for (int element : new int[] {5, 3, 5, 8, 5, 3}) {
+            multi.add(element);
+        }
+        multi.remove(5);
+        System.out.println("Multiensemble " + new ArrayList<>(multi) + ", 5 présent " + multi.count(5) + " fois :");
+        System.out.println(multi);
     }
 }
\ No newline at end of file
@@ -0,0 +1,158 @@
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+// ARN dont chaque nœud retient l'agrégat de son sous-arbre pour un monoïde :
+// un élément neutre et une opération combiner associative (pas forcément
+// commutative : les agrégats sont combinés dans l'ordre des éléments). La
+// valeur agrégée d'un élément est valeur(élément). Comme finMax dans
+// ARNIntervalles, l'agrégat est entretenu par mettreAJour, que ARN appelle
+// dans les rotations, sur le chemin des insertions et suppressions, dans
+// join et dans la construction en bloc.
+//
+// aggregate(de, a) combine les éléments de [de, a[ en O(log n) appels à
+// combiner, sans parcourir l'intervalle ; aggregate() renvoie celui de tout
+// l'arbre en O(1). Pour des sommes, minimums ou maximums de long, voir
+// ARNAgregeLong, qui évite d'emballer les valeurs.
+public class ARNAgrege<E, A> extends ARN<E> {
+
+    static final class NoeudAgrege<E, A> extends Noeud<E> {
+        A agregat; // Agrégat du sous-arbre, dans l'ordre
+
+        NoeudAgrege(E donnee, A agregat) {
+            super(donnee);
+            this.agregat = agregat;
+        }
+    }
+
+    private final Function<? super E, ? extends A> valeur;
+    private final A neutre;
+    private final BinaryOperator<A> combiner;
+
+    // Arbre vide ordonné selon l'ordre naturel des éléments
+    public ARNAgrege(Function<? super E, ? extends A> valeur, A neutre, BinaryOperator<A> combiner) {
+        this(valeur, neutre, combiner, null);
+    }
+
+    // Arbre vide ordonné par cmp (null pour l'ordre naturel)
+    public ARNAgrege(Function<? super E, ? extends A> valeur, A neutre, BinaryOperator<A> combiner,
+                     Comparator<? super E> cmp) {
+        super(cmp);
+        this.valeur = Objects.requireNonNull(valeur);
+        this.neutre = neutre;
+        this.combiner = Objects.requireNonNull(combiner);
+    }
+
+    @Override
+    protected Noeud<E> creerNoeud(E cle) {
+        return new NoeudAgrege<>(cle, valeur.apply(cle));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void mettreAJour(Noeud<E> noeud) {
+        super.mettreAJour(noeud);
+        A agregat = valeur.apply(noeud.donnee);
+        if (noeud.gauche != null) {
+            agregat = combiner.apply(((NoeudAgrege<E, A>) noeud.gauche).agregat, agregat);
+        }
+        if (noeud.droite != null) {
+            agregat = combiner.apply(agregat, ((NoeudAgrege<E, A>) noeud.droite).agregat);
+        }
+        ((NoeudAgrege<E, A>) noeud).agregat = agregat;
+    }
+
+    @Override
+    protected ARNAgrege<E, A> creerArbreVide() {
+        return new ARNAgrege<>(valeur, neutre, combiner, comparator());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ARNAgrege<E, A> split(E cle) {
+        return (ARNAgrege<E, A>) super.split(cle);
+    }
+
+    // Les agrégats des sous-arbres échangés ne sont pas recalculés : les deux
+    // arbres doivent partager le même monoïde
+    @Override
+    void verifierMemeMode(ARN<E> autre) {
+        super.verifierMemeMode(autre);
+        ARNAgrege<?, ?> agrege = (ARNAgrege<?, ?>) autre;
+        if (valeur != agrege.valeur || combiner != agrege.combiner || !Objects.equals(neutre, agrege.neutre)) {
+            throw new IllegalArgumentException("Les deux arbres n'agrègent pas de la même façon");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private A agregat(Noeud<E> noeud) {
+        return noeud == null ? neutre : ((NoeudAgrege<E, A>) noeud).agregat;
+    }
+
+    // Agrégat de tous les éléments, en O(1)
+    public A aggregate() {
+        return agregat(racine);
+    }
+
+    // Agrégat des éléments de [de, a[, en O(log n)
+    public A aggregate(E de, E a) {
+        return aggregate(de, true, a, false);
+    }
+
+    // Agrégat des éléments compris entre de et a, bornes incluses ou non
+    public A aggregate(E de, boolean deInclus, E a, boolean aInclus) {
+        if (comparer(de, a) > 0) {
+            throw new IllegalArgumentException("fromElement > toElement");
+        }
+        // Descente jusqu'au premier nœud de l'intervalle : le reste de
+        // l'intervalle se partage entre ses deux sous-arbres
+        Noeud<E> noeud = racine;
+        while (noeud != null) {
+            if (!apresBas(noeud.donnee, de, deInclus)) {
+                noeud = noeud.droite;
+            } else if (!avantHaut(noeud.donnee, a, aInclus)) {
+                noeud = noeud.gauche;
+            } else {
+                break;
+            }
+        }
+        if (noeud == null) {
+            return neutre;
+        }
+        A milieu = combiner.apply(suffixe(noeud.gauche, de, deInclus), valeur.apply(noeud.donnee));
+        return combiner.apply(milieu, prefixe(noeud.droite, a, aInclus));
+    }
+
+    // Agrégat des éléments du sous-arbre qui sont au-dessus de la borne basse
+    private A suffixe(Noeud<E> noeud, E de, boolean deInclus) {
+        A resultat = neutre;
+        while (noeud != null) {
+            if (apresBas(noeud.donnee, de, deInclus)) {
+                // noeud et son sous-arbre droit en font partie et précèdent
+                // tout ce qui a déjà été combiné
+                A partie = combiner.apply(valeur.apply(noeud.donnee), agregat(noeud.droite));
+                resultat = combiner.apply(partie, resultat);
+                noeud = noeud.gauche;
+            } else {
+                noeud = noeud.droite;
+            }
+        }
+        return resultat;
+    }
+
+    // Agrégat des éléments du sous-arbre qui sont sous la borne haute
+    private A prefixe(Noeud<E> noeud, E a, boolean aInclus) {
+        A resultat = neutre;
+        while (noeud != null) {
+            if (avantHaut(noeud.donnee, a, aInclus)) {
+                A partie = combiner.apply(agregat(noeud.gauche), valeur.apply(noeud.donnee));
+                resultat = combiner.apply(resultat, partie);
+                noeud = noeud.droite;
+            } else {
+                noeud = noeud.gauche;
+            }
+        }
+        return resultat;
+    }
+}
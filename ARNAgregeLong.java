@@ -0,0 +1,213 @@
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.LongBinaryOperator;
+import java.util.function.ToLongFunction;
+
+// Version de ARNAgrege pour des agrégats de type long : la valeur de chaque
+// élément et l'agrégat de chaque sous-arbre sont des long dans le nœud, et
+// l'opération est un LongBinaryOperator ; ni l'entretien ni les requêtes
+// n'emballent de valeur. somme, minimum et maximum fournissent les monoïdes
+// usuels (la somme déborde comme l'addition de long).
+public class ARNAgregeLong<E> extends ARN<E> {
+
+    static final class NoeudAgregeLong<E> extends Noeud<E> {
+        long agregat; // Agrégat du sous-arbre, dans l'ordre
+
+        NoeudAgregeLong(E donnee, long agregat) {
+            super(donnee);
+            this.agregat = agregat;
+        }
+    }
+
+    private final ToLongFunction<? super E> valeur;
+    private final long neutre;
+    private final LongBinaryOperator combiner;
+
+    // Arbre vide ordonné selon l'ordre naturel des éléments ; combiner doit
+    // être associative et avoir neutre pour élément neutre
+    public ARNAgregeLong(ToLongFunction<? super E> valeur, long neutre, LongBinaryOperator combiner) {
+        this(valeur, neutre, combiner, null);
+    }
+
+    // Arbre vide ordonné par cmp (null pour l'ordre naturel)
+    public ARNAgregeLong(ToLongFunction<? super E> valeur, long neutre, LongBinaryOperator combiner,
+                         Comparator<? super E> cmp) {
+        super(cmp);
+        this.valeur = Objects.requireNonNull(valeur);
+        this.neutre = neutre;
+        this.combiner = Objects.requireNonNull(combiner);
+    }
+
+    public static <E extends Comparable<? super E>> ARNAgregeLong<E> somme(ToLongFunction<? super E> valeur) {
+        return new ARNAgregeLong<>(valeur, 0, Long::sum);
+    }
+
+    public static <E extends Comparable<? super E>> ARNAgregeLong<E> minimum(ToLongFunction<? super E> valeur) {
+        return new ARNAgregeLong<>(valeur, Long.MAX_VALUE, Math::min);
+    }
+
+    public static <E extends Comparable<? super E>> ARNAgregeLong<E> maximum(ToLongFunction<? super E> valeur) {
+        return new ARNAgregeLong<>(valeur, Long.MIN_VALUE, Math::max);
+    }
+
+    @Override
+    protected Noeud<E> creerNoeud(E cle) {
+        return new NoeudAgregeLong<>(cle, valeur.applyAsLong(cle));
+    }
+
+    @Override
+    protected void mettreAJour(Noeud<E> noeud) {
+        super.mettreAJour(noeud);
+        long agregat = valeur.applyAsLong(noeud.donnee);
+        if (noeud.gauche != null) {
+            agregat = combiner.applyAsLong(((NoeudAgregeLong<E>) noeud.gauche).agregat, agregat);
+        }
+        if (noeud.droite != null) {
+            agregat = combiner.applyAsLong(agregat, ((NoeudAgregeLong<E>) noeud.droite).agregat);
+        }
+        ((NoeudAgregeLong<E>) noeud).agregat = agregat;
+    }
+
+    @Override
+    protected ARNAgregeLong<E> creerArbreVide() {
+        return new ARNAgregeLong<>(valeur, neutre, combiner, comparator());
+    }
+
+    @Override
+    public ARNAgregeLong<E> split(E cle) {
+        return (ARNAgregeLong<E>) super.split(cle);
+    }
+
+    // Comme pour ARNAgrege, les deux arbres doivent partager le même monoïde
+    @Override
+    void verifierMemeMode(ARN<E> autre) {
+        super.verifierMemeMode(autre);
+        ARNAgregeLong<?> agrege = (ARNAgregeLong<?>) autre;
+        if (valeur != agrege.valeur || combiner != agrege.combiner || neutre != agrege.neutre) {
+            throw new IllegalArgumentException("Les deux arbres n'agrègent pas de la même façon");
+        }
+    }
+
+    private long agregat(Noeud<E> noeud) {
+        return noeud == null ? neutre : ((NoeudAgregeLong<E>) noeud).agregat;
+    }
+
+    // Agrégat de tous les éléments, en O(1)
+    public long aggregate() {
+        return agregat(racine);
+    }
+
+    // Agrégat des éléments de [de, a[, en O(log n)
+    public long aggregate(E de, E a) {
+        return aggregate(de, true, a, false);
+    }
+
+    // Agrégat des éléments compris entre de et a, bornes incluses ou non ; la
+    // descente est celle de ARNAgrege.aggregate
+    public long aggregate(E de, boolean deInclus, E a, boolean aInclus) {
+        if (comparer(de, a) > 0) {
+            throw new IllegalArgumentException("fromElement > toElement");
+        }
+        Noeud<E> noeud = racine;
+        while (noeud != null) {
+            if (!apresBas(noeud.donnee, de, deInclus)) {
+                noeud = noeud.droite;
+            } else if (!avantHaut(noeud.donnee, a, aInclus)) {
+                noeud = noeud.gauche;
+            } else {
+                break;
+            }
+        }
+        if (noeud == null) {
+            return neutre;
+        }
+        long milieu = combiner.applyAsLong(suffixe(noeud.gauche, de, deInclus), valeur.applyAsLong(noeud.donnee));
+        return combiner.applyAsLong(milieu, prefixe(noeud.droite, a, aInclus));
+    }
+
+    private long suffixe(Noeud<E> noeud, E de, boolean deInclus) {
+        long resultat = neutre;
+        while (noeud != null) {
+            if (apresBas(noeud.donnee, de, deInclus)) {
+                long partie = combiner.applyAsLong(valeur.applyAsLong(noeud.donnee), agregat(noeud.droite));
+                resultat = combiner.applyAsLong(partie, resultat);
+                noeud = noeud.gauche;
+            } else {
+                noeud = noeud.droite;
+            }
+        }
+        return resultat;
+    }
+
+    private long prefixe(Noeud<E> noeud, E a, boolean aInclus) {
+        long resultat = neutre;
+        while (noeud != null) {
+            if (avantHaut(noeud.donnee, a, aInclus)) {
+                long partie = combiner.applyAsLong(agregat(noeud.gauche), valeur.applyAsLong(noeud.donnee));
+                resultat = combiner.applyAsLong(resultat, partie);
+                noeud = noeud.droite;
+            } else {
+                noeud = noeud.gauche;
+            }
+        }
+        return resultat;
+    }
+
+    public static void main(String... args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Random rand = new Random(42);
+        ARNAgregeLong<Long> sommes = somme(Long::longValue);
+        ARNAgregeLong<Long> maximums = maximum(cle -> cle % 1000);
+
+        long debut = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            long cle = rand.nextInt(Integer.MAX_VALUE);
+            sommes.add(cle);
+            maximums.add(cle);
+        }
+        System.out.printf("Insertion de %,d clés dans deux arbres : %d ms%n", n, (System.nanoTime() - debut) / 1_000_000);
+
+        // Intervalles d'environ 1 % des clés
+        int nbRequetes = 10_000;
+        long[] bornes = new long[nbRequetes];
+        for (int i = 0; i < nbRequetes; i++) {
+            bornes[i] = rand.nextInt(Integer.MAX_VALUE - Integer.MAX_VALUE / 100);
+        }
+        for (int essai = 0; essai < 3; essai++) { // Le dernier essai est mesuré après préchauffage
+            long controle = 0;
+            debut = System.nanoTime();
+            for (long bas : bornes) {
+                controle += sommes.aggregate(bas, bas + Integer.MAX_VALUE / 100);
+            }
+            long dureeAgregat = System.nanoTime() - debut;
+
+            // Référence : parcours de l'intervalle, comme avant
+            long reference = 0;
+            debut = System.nanoTime();
+            for (long bas : bornes) {
+                for (Iterator<Long> it = sommes.subSet(bas, bas + Integer.MAX_VALUE / 100).iterator(); it.hasNext(); ) {
+                    reference += it.next();
+                }
+            }
+            long dureeParcours = System.nanoTime() - debut;
+            if (essai == 2) {
+                System.out.printf("Somme sur un intervalle : %.0f ns (parcours : %.0f ns), résultats %s%n",
+                        (double) dureeAgregat / nbRequetes, (double) dureeParcours / nbRequetes,
+                        controle == reference ? "identiques" : "DIFFÉRENTS");
+            }
+        }
+        System.out.println("Plus grand reste modulo 1000 dans [0, 1e6[ : " + maximums.aggregate(0L, 1_000_000L));
+
+        // Monoïde générique non commutatif : première et dernière clé d'un intervalle
+        ARNAgrege<Long, long[]> bords = new ARNAgrege<>(cle -> new long[] {cle, cle}, null,
+                (x, y) -> x == null ? y : y == null ? x : new long[] {x[0], y[1]});
+        for (long cle : sommes.headSet(10_000_000L)) {
+            bords.add(cle);
+        }
+        long[] extremes = bords.aggregate(1_000_000L, 2_000_000L);
+        System.out.println("Première et dernière clé de [1e6, 2e6[ : "
+                + (extremes == null ? "aucune" : extremes[0] + " et " + extremes[1]));
+    }
+}
@@ -0,0 +1,361 @@
+import java.util.*;
+import java.util.concurrent.locks.StampedLock;
+
+// Variante de ARN sûre en présence de plusieurs threads. Les écritures (add,
+// remove, clear) prennent le verrou exclusif d'un StampedLock. Les lectures
+// (contains, rechercherNoeud, parcours d'intervalle, itération) s'exécutent
+// sans verrou sous un tampon optimiste : si une écriture a eu lieu pendant la
+// lecture, le tampon n'est plus valide et la lecture est recommencée, puis,
+// après quelques échecs, refaite sous le verrou partagé. Les lectures ne se
+// bloquent donc jamais entre elles et passent à l'échelle avec les cœurs.
+//
+// Une lecture optimiste peut observer l'arbre au milieu d'une rotation : elle
+// ne fait confiance à rien avant validation, borne le nombre de nœuds visités
+// (un cycle transitoire ne peut pas la faire boucler) et ignore toute
+// exception levée sur un état incohérent.
+public class ARNConcurrent<E> extends AbstractCollection<E> implements Metriques.Source {
+
+    private static final int TENTATIVES_OPTIMISTES = 3;
+    private static final int TAILLE_LOT = 64; // Éléments lus par l'itérateur sous un même tampon
+
+    private final ARN<E> arbre;
+    private final StampedLock verrou = new StampedLock();
+
+    // Levée quand une lecture optimiste dépasse son budget de nœuds
+    private static final class LectureIncoherente extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        LectureIncoherente() {
+            super(null, null, false, false);
+        }
+    }
+
+    public ARNConcurrent() {
+        this(null);
+    }
+
+    // Arbre ordonné par cmp (null pour l'ordre naturel)
+    public ARNConcurrent(Comparator<? super E> cmp) {
+        arbre = new ARN<>(cmp);
+    }
+
+    @Override
+    public boolean add(E cle) {
+        long tampon = verrou.writeLock();
+        try {
+            return arbre.add(cle);
+        } finally {
+            verrou.unlockWrite(tampon);
+        }
+    }
+
+    @Override
+    public boolean remove(Object cle) {
+        long tampon = verrou.writeLock();
+        try {
+            return arbre.remove(cle);
+        } finally {
+            verrou.unlockWrite(tampon);
+        }
+    }
+
+    @Override
+    public void clear() {
+        long tampon = verrou.writeLock();
+        try {
+            arbre.clear();
+        } finally {
+            verrou.unlockWrite(tampon);
+        }
+    }
+
+    @Override
+    public int size() {
+        long tampon = verrou.tryOptimisticRead();
+        int taille = ARN.getTaille(arbre.getRacine());
+        if (verrou.validate(tampon)) {
+            return taille;
+        }
+        tampon = verrou.readLock();
+        try {
+            return arbre.size();
+        } finally {
+            verrou.unlockRead(tampon);
+        }
+    }
+
+    @Override
+    public boolean contains(Object cle) {
+        return rechercherNoeud(cle) != null;
+    }
+
+    // Recherche optimiste ; le nœud renvoyé ne doit pas être modifié
+    @SuppressWarnings("unchecked")
+    public ARN.Noeud<E> rechercherNoeud(Object cle) {
+        for (int essai = 0; essai < TENTATIVES_OPTIMISTES; essai++) {
+            long tampon = verrou.tryOptimisticRead();
+            if (tampon == 0L) {
+                break; // Une écriture est en cours
+            }
+            try {
+                ARN.Noeud<E> noeud = descendre(cle, budget());
+                if (verrou.validate(tampon)) {
+                    // Sous le verrou, c'est arbre.rechercherNoeud qui compte
+                    // l'opération ; les comparaisons des essais ratés restent
+                    // comptées
+                    if (Metriques.ACTIVES) arbre.compteurs.operations.increment();
+                    return noeud;
+                }
+            } catch (LectureIncoherente e) {
+                // Conflit avec une écriture : on recommence
+            } catch (RuntimeException e) {
+                if (verrou.validate(tampon)) {
+                    throw e; // Erreur réelle (clé non comparable...), pas un conflit
+                }
+            }
+        }
+        long tampon = verrou.readLock();
+        try {
+            return arbre.rechercherNoeud((E) cle);
+        } finally {
+            verrou.unlockRead(tampon);
+        }
+    }
+
+    // Renvoie, dans l'ordre, les éléments e tels que bas <= e < haut. Le
+    // parcours coûte O(log n + k) et se fait lui aussi sous tampon optimiste ;
+    // comme subSet, lève IllegalArgumentException si bas > haut.
+    public List<E> intervalle(E bas, E haut) {
+        if (arbre.comparer(bas, haut) > 0) {
+            throw new IllegalArgumentException("fromElement > toElement");
+        }
+        return lire((resultat, tailleMax, hauteurMax) ->
+                parcourir(premierAuDessus(bas, true, hauteurMax), haut, true, Integer.MAX_VALUE,
+                        resultat, tailleMax, hauteurMax));
+    }
+
+    // Lecture d'une suite d'éléments, à refaire en entier si elle échoue
+    private interface Lecture<E> {
+        void lire(List<E> resultat, int tailleMax, int hauteurMax);
+    }
+
+    // Exécute lecture sous tampon optimiste, puis sous le verrou partagé
+    // après TENTATIVES_OPTIMISTES échecs ou si une écriture est en cours
+    private List<E> lire(Lecture<E> lecture) {
+        for (int essai = 0; essai < TENTATIVES_OPTIMISTES; essai++) {
+            long tampon = verrou.tryOptimisticRead();
+            if (tampon == 0L) {
+                break;
+            }
+            try {
+                List<E> resultat = new ArrayList<>();
+                lecture.lire(resultat, ARN.getTaille(arbre.getRacine()), budget());
+                if (verrou.validate(tampon)) {
+                    return resultat;
+                }
+            } catch (LectureIncoherente e) {
+                // Conflit avec une écriture : on recommence
+            } catch (RuntimeException e) {
+                if (verrou.validate(tampon)) {
+                    throw e;
+                }
+            }
+        }
+        // Sous le verrou l'arbre est cohérent : les budgets ne sont jamais
+        // dépassés
+        long tampon = verrou.readLock();
+        try {
+            List<E> resultat = new ArrayList<>();
+            lecture.lire(resultat, arbre.size(), budget());
+            return resultat;
+        } finally {
+            verrou.unlockRead(tampon);
+        }
+    }
+
+    // Un arbre rouge-noir de n nœuds a une hauteur d'au plus 2 log2(n + 1) :
+    // une descente cohérente ne dépasse jamais ce budget
+    private int budget() {
+        int taille = ARN.getTaille(arbre.getRacine());
+        return 2 * (33 - Integer.numberOfLeadingZeros(taille + 1)) + 2;
+    }
+
+    private ARN.Noeud<E> descendre(Object cle, int budget) {
+        ARN.Noeud<E> noeud = arbre.getRacine();
+        while (noeud != null) {
+            if (--budget < 0) {
+                throw new LectureIncoherente();
+            }
+            int comparaison = arbre.comparer(cle, noeud.donnee);
+            if (comparaison < 0) {
+                noeud = noeud.gauche;
+            } else if (comparaison > 0) {
+                noeud = noeud.droite;
+            } else {
+                return noeud;
+            }
+        }
+        return null;
+    }
+
+    // Premier nœud au-dessus de bas (égal compris si basInclus)
+    private ARN.Noeud<E> premierAuDessus(E bas, boolean basInclus, int hauteurMax) {
+        ARN.Noeud<E> candidat = null;
+        ARN.Noeud<E> noeud = arbre.getRacine();
+        int budget = hauteurMax;
+        while (noeud != null) {
+            if (--budget < 0) {
+                throw new LectureIncoherente();
+            }
+            if (arbre.apresBas(noeud.donnee, bas, basInclus)) {
+                candidat = noeud;
+                noeud = noeud.gauche;
+            } else {
+                noeud = noeud.droite;
+            }
+        }
+        return candidat;
+    }
+
+    private ARN.Noeud<E> premier(int hauteurMax) {
+        ARN.Noeud<E> noeud = arbre.getRacine();
+        int budget = hauteurMax;
+        while (noeud != null && noeud.gauche != null) {
+            if (--budget < 0) {
+                throw new LectureIncoherente();
+            }
+            noeud = noeud.gauche;
+        }
+        return noeud;
+    }
+
+    // Ajoute à resultat premier et ses successeurs jusqu'à haut exclu (sans
+    // limite si borneHaute est faux). Passé limite éléments, le parcours
+    // s'arrête au premier changement de clé. Chaque pas remonte ou descend
+    // d'au plus la hauteur de l'arbre, et on ne peut pas voir plus de nœuds
+    // que l'arbre n'en contient.
+    private void parcourir(ARN.Noeud<E> premier, E haut, boolean borneHaute, int limite,
+                           List<E> resultat, int tailleMax, int hauteurMax) {
+        for (ARN.Noeud<E> noeud = premier; noeud != null; noeud = successeur(noeud, hauteurMax)) {
+            if (borneHaute && arbre.comparer(haut, noeud.donnee) <= 0) {
+                return;
+            }
+            if (resultat.size() >= limite && arbre.comparer(resultat.get(resultat.size() - 1), noeud.donnee) != 0) {
+                return;
+            }
+            if (resultat.size() == tailleMax) {
+                throw new LectureIncoherente();
+            }
+            resultat.add(noeud.donnee);
+        }
+    }
+
+    private static <E> ARN.Noeud<E> successeur(ARN.Noeud<E> noeud, int budget) {
+        if (noeud.droite != null) {
+            noeud = noeud.droite;
+            while (noeud.gauche != null) {
+                if (--budget < 0) {
+                    throw new LectureIncoherente();
+                }
+                noeud = noeud.gauche;
+            }
+            return noeud;
+        }
+        ARN.Noeud<E> parent = noeud.parent;
+        while (parent != null && noeud == parent.droite) {
+            if (--budget < 0) {
+                throw new LectureIncoherente();
+            }
+            noeud = parent;
+            parent = parent.parent;
+        }
+        return parent;
+    }
+
+    // Lot suivant de l'itérateur : au moins TAILLE_LOT éléments (sauf en fin
+    // d'arbre) à partir du premier, ou au-dessus de dernier, complétés
+    // jusqu'au changement de clé pour que le lot suivant reparte strictement
+    // au-dessus
+    private List<E> lireLot(E dernier, boolean depuisDebut) {
+        return lire((resultat, tailleMax, hauteurMax) -> {
+            ARN.Noeud<E> depart = depuisDebut ? premier(hauteurMax) : premierAuDessus(dernier, false, hauteurMax);
+            parcourir(depart, null, false, TAILLE_LOT, resultat, tailleMax, hauteurMax);
+        });
+    }
+
+    // L'itérateur lit l'arbre vivant par lots de TAILLE_LOT éléments, chacun
+    // sous tampon optimiste (ou sous le verrou partagé, qui ne bloque alors
+    // les écritures que le temps d'un lot). Il est faiblement cohérent, comme
+    // ceux de ConcurrentSkipListSet : il ne lève jamais
+    // ConcurrentModificationException, renvoie chaque élément au plus une
+    // fois et dans l'ordre, et voit ou non les écritures faites entre deux
+    // lots. remove() retire l'élément de l'arbre sous le verrou exclusif.
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private List<E> lot = lireLot(null, true);
+            private int position;
+            private E dernier;
+            private boolean peutSupprimer;
+
+            @Override
+            public boolean hasNext() {
+                // Un lot plus court que TAILLE_LOT s'est arrêté en fin d'arbre
+                if (position == lot.size() && lot.size() >= TAILLE_LOT) {
+                    lot = lireLot(lot.get(lot.size() - 1), false);
+                    position = 0;
+                }
+                return position < lot.size();
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                dernier = lot.get(position++);
+                peutSupprimer = true;
+                return dernier;
+            }
+
+            @Override
+            public void remove() {
+                if (!peutSupprimer) throw new IllegalStateException();
+                ARNConcurrent.this.remove(dernier);
+                peutSupprimer = false;
+            }
+        };
+    }
+
+    // Métriques de l'arbre sous-jacent, dont la forme est relevée sous le
+    // verrou partagé
+    @Override
+    public Metriques metriques() {
+        long tampon = verrou.readLock();
+        try {
+            return arbre.metriques();
+        } finally {
+            verrou.unlockRead(tampon);
+        }
+    }
+
+    // Sous le verrou exclusif : les compteurs des écritures ne sont pas
+    // synchronisés
+    @Override
+    public void reinitialiserMetriques() {
+        long tampon = verrou.writeLock();
+        try {
+            arbre.reinitialiserMetriques();
+        } finally {
+            verrou.unlockWrite(tampon);
+        }
+    }
+
+    @Override
+    public String toString() {
+        long tampon = verrou.readLock();
+        try {
+            return arbre.toString();
+        } finally {
+            verrou.unlockRead(tampon);
+        }
+    }
+}
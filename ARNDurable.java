@@ -0,0 +1,406 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractCollection;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+// Couche de durabilité optionnelle autour d'un ARN<Integer>. Chaque add ou
+// remove effectif est ajouté à un journal (write-ahead log) ; le journal est
+// forcé sur disque par lots (group commit) : un fsync toutes les tailleLot
+// mutations, et au plus intervalleMs après la première mutation non forcée.
+// Une mutation n'est donc garantie qu'une fois son lot forcé
+// (getNbDurables(), ou synchroniser() pour l'exiger tout de suite).
+//
+// Le répertoire contient un instantané (voir Instantane) et le journal des
+// mutations qui l'ont suivi, numérotés par une génération :
+//
+//   instantane-g   état de l'arbre au point de contrôle g (absent pour g = 0)
+//   journal-g      mutations postérieures, 9 octets chacune :
+//                  opération (1), clé (4), CRC32C des 5 octets précédents (4)
+//
+// Un point de contrôle écrit instantane-(g+1), crée journal-(g+1) vide puis
+// supprime les fichiers de la génération g. À l'ouverture, on recharge le
+// dernier instantané en O(n) puis on rejoue son journal jusqu'au premier
+// enregistrement incomplet ou corrompu (écriture interrompue par un arrêt
+// brutal), que l'on coupe. Un arrêt entre deux étapes du point de contrôle
+// laisse toujours une génération cohérente : l'instantané g+1 contient déjà
+// tout le journal g, qui n'est jamais rejoué par-dessus.
+//
+// Comme ARN, cette classe n'est pas prévue pour plusieurs écrivains ; les
+// mutations sont seulement synchronisées avec le fil de synchronisation
+// périodique.
+public class ARNDurable extends AbstractCollection<Integer> implements Closeable {
+
+    private static final byte AJOUT = 1;
+    private static final byte SUPPRESSION = 2;
+    private static final int TAILLE_ENREGISTREMENT = 9;
+    private static final int TAILLE_TAMPON = TAILLE_ENREGISTREMENT << 13; // Multiple de la taille d'un enregistrement
+    private static final String PREFIXE_INSTANTANE = "instantane-";
+    private static final String PREFIXE_JOURNAL = "journal-";
+
+    private final Path repertoire;
+    private final int tailleLot;
+    private final long seuilPointDeControle;
+    private final ARN<Integer> arbre;
+    private final ByteBuffer tampon = ByteBuffer.allocateDirect(TAILLE_TAMPON);
+    private final CRC32C crc = new CRC32C();
+    private final ScheduledExecutorService minuterie; // null sans synchronisation périodique
+
+    private long generation;
+    private FileChannel journal;
+    private long nbDansJournal; // Enregistrements du journal courant
+    private long nbEcrits;      // Mutations journalisées depuis l'ouverture
+    private long nbDurables;    // Parmi elles, celles forcées sur disque
+    private boolean ferme;
+    private volatile IOException erreur; // Échec d'une synchronisation périodique
+
+    // Lots de 1024 mutations, forcés au plus tard après 10 ms ; point de
+    // contrôle tous les 4M enregistrements (36 Mo de journal)
+    public ARNDurable(Path repertoire) throws IOException {
+        this(repertoire, 1024, 10, 1 << 22);
+    }
+
+    // tailleLot : nombre maximal de mutations entre deux fsync (1 pour un
+    // fsync par opération) ; intervalleMs : délai maximal avant qu'une
+    // mutation soit forcée (0 pour s'en tenir aux lots) ;
+    // seuilPointDeControle : taille du journal, en enregistrements, qui
+    // déclenche un point de contrôle (0 pour ne le faire que sur demande)
+    public ARNDurable(Path repertoire, int tailleLot, long intervalleMs, long seuilPointDeControle)
+            throws IOException {
+        if (tailleLot < 1 || intervalleMs < 0 || seuilPointDeControle < 0) {
+            throw new IllegalArgumentException("Paramètres invalides : tailleLot=" + tailleLot
+                    + ", intervalleMs=" + intervalleMs + ", seuilPointDeControle=" + seuilPointDeControle);
+        }
+        this.repertoire = Files.createDirectories(repertoire);
+        this.tailleLot = tailleLot;
+        this.seuilPointDeControle = seuilPointDeControle;
+
+        // Reprise : dernier instantané, puis la partie valide de son journal
+        generation = derniereGeneration();
+        arbre = generation > 0 ? Instantane.chargerARN(instantane(generation)) : new ARN<>();
+        Path chemin = journal(generation);
+        long valide = Files.exists(chemin) ? rejouer(chemin) : 0;
+        journal = FileChannel.open(chemin, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        journal.truncate(valide);
+        journal.position(valide);
+        journal.force(true);
+        nbDansJournal = valide / TAILLE_ENREGISTREMENT;
+        supprimerObsoletes();
+        forcerRepertoire();
+
+        if (intervalleMs > 0) {
+            minuterie = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread fil = new Thread(r, "ARNDurable-synchronisation");
+                fil.setDaemon(true);
+                return fil;
+            });
+            minuterie.scheduleWithFixedDelay(this::synchroniserPeriodiquement,
+                    intervalleMs, intervalleMs, TimeUnit.MILLISECONDS);
+        } else {
+            minuterie = null;
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Opérations
+    // ------------------------------------------------------------------
+
+    @Override
+    public synchronized boolean add(Integer cle) {
+        Objects.requireNonNull(cle);
+        verifierEtat();
+        arbre.add(cle);
+        journaliser(AJOUT, cle);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean remove(Object o) {
+        verifierEtat();
+        if (!(o instanceof Integer) || !arbre.remove(o)) {
+            return false; // Rien à journaliser
+        }
+        journaliser(SUPPRESSION, (Integer) o);
+        return true;
+    }
+
+    // Vide l'arbre et le rend durable par un point de contrôle, plutôt que de
+    // journaliser une suppression par élément
+    @Override
+    public synchronized void clear() {
+        verifierEtat();
+        arbre.clear();
+        try {
+            pointDeControle();
+        } catch (IOException e) {
+            echec(e);
+        }
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return arbre.contains(o);
+    }
+
+    @Override
+    public int size() {
+        return arbre.size();
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+        Iterator<Integer> it = arbre.iterator();
+        return new Iterator<Integer>() {
+            private Integer dernier;
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public Integer next() {
+                dernier = it.next();
+                return dernier;
+            }
+
+            @Override
+            public void remove() {
+                synchronized (ARNDurable.this) {
+                    verifierEtat();
+                    it.remove();
+                    journaliser(SUPPRESSION, dernier);
+                }
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return arbre.toString();
+    }
+
+    // Nombre de mutations, depuis l'ouverture, qui survivront à un arrêt brutal
+    public synchronized long getNbDurables() {
+        return nbDurables;
+    }
+
+    // Force sur disque toutes les mutations déjà journalisées
+    public synchronized void synchroniser() throws IOException {
+        verifierEtat();
+        forcer();
+    }
+
+    // Écrit un instantané de l'arbre et repart d'un journal vide. Coûte O(n) :
+    // l'écrivain est bloqué pendant ce temps.
+    public synchronized void pointDeControle() throws IOException {
+        verifierEtat();
+        forcer();
+        long suivante = generation + 1;
+        Instantane.ecrire(arbre, instantane(suivante));
+        FileChannel nouveau = FileChannel.open(journal(suivante), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        forcerRepertoire(); // Le renommage de l'instantané doit être durable avant de supprimer l'ancien
+        journal.close();
+        journal = nouveau;
+        generation = suivante;
+        nbDansJournal = 0;
+        supprimerObsoletes();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (minuterie != null) {
+            minuterie.shutdown();
+        }
+        synchronized (this) {
+            if (ferme) {
+                return;
+            }
+            ferme = true;
+            try {
+                if (erreur == null) {
+                    forcer();
+                }
+            } finally {
+                journal.close();
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Journal
+    // ------------------------------------------------------------------
+
+    private void journaliser(byte operation, int cle) {
+        try {
+            if (!tampon.hasRemaining()) {
+                ecrireTampon();
+            }
+            tampon.put(operation).putInt(cle).putInt(sommeDeControle(operation, cle));
+            nbEcrits++;
+            nbDansJournal++;
+            if (nbEcrits - nbDurables >= tailleLot) {
+                forcer();
+            }
+            if (seuilPointDeControle > 0 && nbDansJournal >= seuilPointDeControle) {
+                pointDeControle();
+            }
+        } catch (IOException e) {
+            echec(e);
+        }
+    }
+
+    private int sommeDeControle(byte operation, int cle) {
+        crc.reset();
+        crc.update(operation);
+        crc.update(cle >>> 24);
+        crc.update(cle >>> 16);
+        crc.update(cle >>> 8);
+        crc.update(cle);
+        return (int) crc.getValue();
+    }
+
+    private void ecrireTampon() throws IOException {
+        tampon.flip();
+        while (tampon.hasRemaining()) {
+            journal.write(tampon);
+        }
+        tampon.clear();
+    }
+
+    private void forcer() throws IOException {
+        if (nbDurables == nbEcrits) {
+            return;
+        }
+        ecrireTampon();
+        journal.force(false);
+        nbDurables = nbEcrits;
+    }
+
+    private synchronized void synchroniserPeriodiquement() {
+        if (ferme || erreur != null) {
+            return;
+        }
+        try {
+            forcer();
+        } catch (IOException e) {
+            erreur = e;
+        }
+    }
+
+    // Après un échec d'écriture, l'arbre en mémoire peut être en avance sur
+    // le journal : l'instance refuse toute opération ultérieure
+    private void echec(IOException e) {
+        erreur = e;
+        throw new UncheckedIOException("Échec d'écriture du journal de " + repertoire, e);
+    }
+
+    private void verifierEtat() {
+        if (ferme) {
+            throw new IllegalStateException("Arbre durable fermé");
+        }
+        if (erreur != null) {
+            throw new UncheckedIOException("Échec d'écriture précédent du journal de " + repertoire, erreur);
+        }
+    }
+
+    // Rejoue sur l'arbre les enregistrements valides de chemin et renvoie la
+    // longueur, en octets, de la partie valide
+    private long rejouer(Path chemin) throws IOException {
+        long valide = 0;
+        try (FileChannel canal = FileChannel.open(chemin, StandardOpenOption.READ)) {
+            ByteBuffer lecture = ByteBuffer.allocateDirect(TAILLE_TAMPON);
+            while (canal.read(lecture) >= 0) {
+                lecture.flip();
+                while (lecture.remaining() >= TAILLE_ENREGISTREMENT) {
+                    byte operation = lecture.get();
+                    int cle = lecture.getInt();
+                    if (lecture.getInt() != sommeDeControle(operation, cle)) {
+                        return valide; // Enregistrement déchiré : fin de la partie valide
+                    }
+                    if (operation == AJOUT) {
+                        arbre.add(cle);
+                    } else if (operation == SUPPRESSION) {
+                        arbre.remove(cle);
+                    } else {
+                        return valide;
+                    }
+                    valide += TAILLE_ENREGISTREMENT;
+                }
+                lecture.compact();
+            }
+        }
+        return valide;
+    }
+
+    // ------------------------------------------------------------------
+    // Fichiers
+    // ------------------------------------------------------------------
+
+    private Path instantane(long g) {
+        return repertoire.resolve(PREFIXE_INSTANTANE + g);
+    }
+
+    private Path journal(long g) {
+        return repertoire.resolve(PREFIXE_JOURNAL + g);
+    }
+
+    // Génération, dans le nom d'un fichier du répertoire, ou -1
+    private static long generationDe(Path fichier, String prefixe) {
+        String nom = fichier.getFileName().toString();
+        if (!nom.startsWith(prefixe)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(nom.substring(prefixe.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private long derniereGeneration() throws IOException {
+        long derniere = 0;
+        try (DirectoryStream<Path> fichiers = Files.newDirectoryStream(repertoire)) {
+            for (Path fichier : fichiers) {
+                derniere = Math.max(derniere, generationDe(fichier, PREFIXE_INSTANTANE));
+            }
+        }
+        return derniere;
+    }
+
+    // Supprime les générations antérieures et les instantanés inachevés
+    private void supprimerObsoletes() throws IOException {
+        try (DirectoryStream<Path> fichiers = Files.newDirectoryStream(repertoire)) {
+            for (Path fichier : fichiers) {
+                String nom = fichier.getFileName().toString();
+                long g = Math.max(generationDe(fichier, PREFIXE_INSTANTANE), generationDe(fichier, PREFIXE_JOURNAL));
+                if ((g >= 0 && g < generation) || (nom.startsWith(PREFIXE_INSTANTANE) && nom.endsWith(".tmp"))) {
+                    Files.deleteIfExists(fichier);
+                }
+            }
+        }
+    }
+
+    // Rend durables les créations et renommages de fichiers du répertoire.
+    // Certains systèmes (Windows) ne permettent pas d'ouvrir un répertoire :
+    // l'opération y est sans objet.
+    private void forcerRepertoire() {
+        try (FileChannel canal = FileChannel.open(repertoire, StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (IOException e) {
+            // Répertoire non ouvrable sur ce système
+        }
+    }
+}
@@ -0,0 +1,252 @@
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+// Arbre d'intervalles : un ARN d'intervalles fermés [debut, fin], ordonnés
+// par début puis par fin, dont chaque nœud retient la plus grande fin de son
+// sous-arbre (finMax). finMax est entretenu par mettreAJour, que ARN appelle
+// sur le chemin d'une insertion ou d'une suppression et dans chaque rotation
+// des deux corrections : il est donc toujours exact, sans code propre aux
+// rotations.
+//
+// overlapping(a, b) parcourt l'arbre dans l'ordre en élaguant tout
+// sous-arbre de finMax < a et tout ce qui suit un début > b. Le parcours suit
+// les liens parent et ne mémorise que le prochain résultat : l'itérateur
+// n'alloue rien d'autre que lui-même. Il coûte O(log n + k) quand les k
+// intervalles trouvés sont voisins dans l'ordre des débuts, et au pire
+// O(min(n, (k + 1) log n)).
+public class ARNIntervalles extends ARN<ARNIntervalles.Intervalle> {
+
+    // Intervalle fermé d'entiers longs (horodatages...) ; la classe peut être
+    // étendue pour porter une donnée, l'ordre ne dépendant que des bornes
+    public static class Intervalle implements Comparable<Intervalle> {
+        public final long debut;
+        public final long fin;
+
+        public Intervalle(long debut, long fin) {
+            if (debut > fin) {
+                throw new IllegalArgumentException("Intervalle vide : [" + debut + ", " + fin + "]");
+            }
+            this.debut = debut;
+            this.fin = fin;
+        }
+
+        public boolean chevauche(long a, long b) {
+            return debut <= b && a <= fin;
+        }
+
+        @Override
+        public int compareTo(Intervalle autre) {
+            int comparaison = Long.compare(debut, autre.debut);
+            return comparaison != 0 ? comparaison : Long.compare(fin, autre.fin);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Intervalle)) return false;
+            Intervalle autre = (Intervalle) o;
+            return debut == autre.debut && fin == autre.fin;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(debut) * 31 + Long.hashCode(fin);
+        }
+
+        @Override
+        public String toString() {
+            return "[" + debut + ", " + fin + "]";
+        }
+    }
+
+    static final class NoeudIntervalle extends Noeud<Intervalle> {
+        long finMax; // Plus grande fin du sous-arbre
+
+        NoeudIntervalle(Intervalle intervalle) {
+            super(intervalle);
+            finMax = intervalle.fin;
+        }
+    }
+
+    public ARNIntervalles() {
+        super();
+    }
+
+    @Override
+    protected Noeud<Intervalle> creerNoeud(Intervalle intervalle) {
+        return new NoeudIntervalle(intervalle);
+    }
+
+    @Override
+    protected void mettreAJour(Noeud<Intervalle> noeud) {
+        super.mettreAJour(noeud);
+        long finMax = noeud.donnee.fin;
+        if (noeud.gauche != null) {
+            finMax = Math.max(finMax, ((NoeudIntervalle) noeud.gauche).finMax);
+        }
+        if (noeud.droite != null) {
+            finMax = Math.max(finMax, ((NoeudIntervalle) noeud.droite).finMax);
+        }
+        ((NoeudIntervalle) noeud).finMax = finMax;
+    }
+
+    @Override
+    protected ARNIntervalles creerArbreVide() {
+        return new ARNIntervalles();
+    }
+
+    @Override
+    public ARNIntervalles split(Intervalle cle) {
+        return (ARNIntervalles) super.split(cle);
+    }
+
+    // Raccourci pour add(new Intervalle(debut, fin))
+    public boolean add(long debut, long fin) {
+        return add(new Intervalle(debut, fin));
+    }
+
+    // Plus grande fin de l'arbre, en O(1) ; Long.MIN_VALUE s'il est vide
+    public long finMax() {
+        return racine == null ? Long.MIN_VALUE : ((NoeudIntervalle) racine).finMax;
+    }
+
+    // Intervalles qui rencontrent [a, b], dans l'ordre des débuts
+    public Iterator<Intervalle> overlapping(long a, long b) {
+        if (a > b) {
+            throw new IllegalArgumentException("Requête vide : [" + a + ", " + b + "]");
+        }
+        return new Chevauchants(a, b);
+    }
+
+    // Intervalles qui contiennent t
+    public Iterator<Intervalle> stabbing(long t) {
+        return new Chevauchants(t, t);
+    }
+
+    // Vrai si au moins un intervalle rencontre [a, b], en O(log n)
+    public boolean chevauche(long a, long b) {
+        return overlapping(a, b).hasNext();
+    }
+
+    // Premier nœud, dans l'ordre, du sous-arbre qui peut encore rencontrer
+    // [a, ...] : on descend à gauche tant que le sous-arbre gauche a une fin
+    // >= a. Le nœud renvoyé peut lui-même finir avant a.
+    private static NoeudIntervalle premierCandidat(Noeud<Intervalle> sousArbre, long a) {
+        NoeudIntervalle noeud = (NoeudIntervalle) sousArbre;
+        if (noeud == null || noeud.finMax < a) {
+            return null;
+        }
+        while (noeud.gauche != null && ((NoeudIntervalle) noeud.gauche).finMax >= a) {
+            noeud = (NoeudIntervalle) noeud.gauche;
+        }
+        return noeud;
+    }
+
+    // Candidat suivant noeud dans l'ordre : dans son sous-arbre droit s'il
+    // n'est pas élagué, sinon le premier ancêtre dont on sort par la gauche
+    private static NoeudIntervalle candidatSuivant(NoeudIntervalle noeud, long a) {
+        NoeudIntervalle suivant = premierCandidat(noeud.droite, a);
+        if (suivant != null) {
+            return suivant;
+        }
+        Noeud<Intervalle> courant = noeud;
+        while (courant.parent != null && courant == courant.parent.droite) {
+            courant = courant.parent;
+        }
+        return (NoeudIntervalle) courant.parent;
+    }
+
+    private final class Chevauchants implements Iterator<Intervalle> {
+        private final long a;
+        private final long b;
+        private NoeudIntervalle suivant;
+        private final int nbModificationsAttendu = nbModifications;
+
+        Chevauchants(long a, long b) {
+            this.a = a;
+            this.b = b;
+            this.suivant = resultatDepuis(premierCandidat(racine, a));
+        }
+
+        // Premier résultat à partir du candidat noeud : les débuts croissent
+        // dans l'ordre, donc un début > b termine le parcours
+        private NoeudIntervalle resultatDepuis(NoeudIntervalle noeud) {
+            while (noeud != null) {
+                if (noeud.donnee.debut > b) {
+                    return null;
+                }
+                if (noeud.donnee.fin >= a) {
+                    return noeud;
+                }
+                noeud = candidatSuivant(noeud, a);
+            }
+            return null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return suivant != null;
+        }
+
+        @Override
+        public Intervalle next() {
+            if (suivant == null) throw new NoSuchElementException();
+            if (nbModifications != nbModificationsAttendu) throw new ConcurrentModificationException();
+            NoeudIntervalle resultat = suivant;
+            suivant = resultatDepuis(candidatSuivant(resultat, a));
+            return resultat.donnee;
+        }
+    }
+
+    public static void main(String... args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long horizon = 1_000_000_000L;
+        Random rand = new Random(42);
+        ARNIntervalles arbre = new ARNIntervalles();
+
+        long debut = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            long depart = (long) (rand.nextDouble() * horizon);
+            arbre.add(depart, depart + rand.nextInt(10_000));
+        }
+        System.out.printf("Insertion de %,d intervalles : %d ms%n", n, (System.nanoTime() - debut) / 1_000_000);
+
+        int nbRequetes = 1_000_000;
+        long[] points = new long[nbRequetes];
+        for (int i = 0; i < nbRequetes; i++) {
+            points[i] = (long) (rand.nextDouble() * horizon);
+        }
+        for (int essai = 0; essai < 3; essai++) { // Le dernier essai est mesuré après préchauffage
+            long trouves = 0;
+            debut = System.nanoTime();
+            for (long t : points) {
+                for (Iterator<Intervalle> it = arbre.stabbing(t); it.hasNext(); it.next()) {
+                    trouves++;
+                }
+            }
+            long duree = System.nanoTime() - debut;
+
+            // Référence : une simple descente (contains) sur le même arbre
+            long presents = 0;
+            debut = System.nanoTime();
+            for (long t : points) {
+                if (arbre.contains(new Intervalle(t, t))) {
+                    presents++;
+                }
+            }
+            long dureeDescente = System.nanoTime() - debut;
+            if (essai == 2) {
+                System.out.printf("Stabbing : %.0f ns par requête, %.2f intervalles trouvés en moyenne "
+                                + "(contains : %.0f ns, %d trouvés)%n", (double) duree / nbRequetes,
+                        (double) trouves / nbRequetes, (double) dureeDescente / nbRequetes, presents);
+            }
+        }
+
+        System.out.print("Intervalles qui rencontrent [500000000, 500010000] :");
+        for (Iterator<Intervalle> it = arbre.overlapping(500_000_000L, 500_010_000L); it.hasNext(); ) {
+            System.out.print(" " + it.next());
+        }
+        System.out.println();
+    }
+}
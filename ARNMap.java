@@ -0,0 +1,897 @@
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+// Table ordonnée clé -> valeur sur le moteur rouge-noir de ARN : les nœuds de
+// l'arbre portent aussi la valeur, au lieu de garder l'ARN comme index et les
+// valeurs dans une HashMap à côté. get, put, remove, et surtout compute,
+// merge et computeIfAbsent ne font qu'une descente : la valeur est modifiée
+// en place dans le nœud trouvé, ou le nouveau nœud est accroché là où la
+// descente s'est arrêtée.
+//
+// Les nœuds sont eux-mêmes les entrées rendues par l'itération d'entrySet() :
+// parcourir la table n'alloue rien par entrée, et setValue écrit dans
+// l'arbre. Comme avec TreeMap, une entrée gardée après une suppression peut
+// avoir reçu le contenu de son successeur ; firstEntry, ceilingEntry... rendent
+// en revanche des copies immuables, comme le demande NavigableMap.
+//
+// Les vues (subMap, headMap, tailMap, descendingMap) sont des ARNMap bornées
+// qui partagent l'arbre. Les clés sont uniques ; les valeurs null sont
+// admises, sauf pour merge.
+public class ARNMap<K, V> extends AbstractMap<K, V> implements NavigableMap<K, V> {
+
+    // Nœud de l'arbre, qui sert aussi d'entrée
+    static final class Entree<K, V> extends ARN.Noeud<K> implements Map.Entry<K, V> {
+        V valeur;
+
+        Entree(K cle) {
+            super(cle);
+        }
+
+        @Override
+        public K getKey() {
+            return donnee;
+        }
+
+        @Override
+        public V getValue() {
+            return valeur;
+        }
+
+        @Override
+        public V setValue(V nouvelle) {
+            V ancienne = valeur;
+            valeur = nouvelle;
+            return ancienne;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        void copierDepuis(ARN.Noeud<K> autre) {
+            super.copierDepuis(autre);
+            valeur = ((Entree<K, V>) autre).valeur;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) return false;
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return Objects.equals(donnee, e.getKey()) && Objects.equals(valeur, e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(donnee) ^ Objects.hashCode(valeur);
+        }
+
+        @Override
+        public String toString() {
+            return donnee + "=" + valeur;
+        }
+    }
+
+    // L'ARN des clés, dont les nœuds sont des entrées
+    private static final class Arbre<K, V> extends ARN<K> {
+        // Signe de la dernière comparaison de descendre(), comme dans ABR
+        private int derniereComparaison;
+
+        Arbre(Comparator<? super K> cmp) {
+            super(cmp);
+        }
+
+        @Override
+        protected Noeud<K> creerNoeud(K cle) {
+            return new Entree<K, V>(cle);
+        }
+
+        // Renvoie le nœud de cle s'il existe (derniereComparaison vaut alors
+        // 0), sinon le nœud sous lequel l'accrocher (null si l'arbre est vide)
+        @SuppressWarnings("unchecked")
+        Noeud<K> descendre(Object cle) {
+            Noeud<K> noeud = racine;
+            Noeud<K> parent = null;
+            int comparaison = 0;
+            if (noeud == null) {
+                comparer(cle, (K) cle); // Vérifie le type de la clé (et null)
+            }
+            while (noeud != null) {
+                comparaison = comparer(cle, noeud.donnee);
+                if (comparaison == 0) {
+                    derniereComparaison = 0;
+                    return noeud;
+                }
+                parent = noeud;
+                noeud = comparaison < 0 ? noeud.gauche : noeud.droite;
+            }
+            derniereComparaison = comparaison;
+            return parent;
+        }
+    }
+
+    private final Arbre<K, V> arbre;
+    // Bornes de la vue, dans l'ordre croissant quel que soit son sens ; une
+    // table créée par un constructeur n'en a pas
+    private final boolean aBas, basInclus, aHaut, hautInclus, descendant;
+    private final K bas, haut;
+
+    // Table vide, ordonnée selon l'ordre naturel des clés
+    public ARNMap() {
+        this(null);
+    }
+
+    // Table vide ordonnée par cmp (null pour l'ordre naturel)
+    public ARNMap(Comparator<? super K> cmp) {
+        this(new Arbre<>(cmp), false, null, false, false, null, false, false);
+    }
+
+    private ARNMap(Arbre<K, V> arbre, boolean aBas, K bas, boolean basInclus,
+                   boolean aHaut, K haut, boolean hautInclus, boolean descendant) {
+        this.arbre = arbre;
+        this.aBas = aBas;
+        this.bas = bas;
+        this.basInclus = basInclus;
+        this.aHaut = aHaut;
+        this.haut = haut;
+        this.hautInclus = hautInclus;
+        this.descendant = descendant;
+    }
+
+    // ------------------------------------------------------------------
+    // Accès par clé : une seule descente
+    // ------------------------------------------------------------------
+
+    @SuppressWarnings("unchecked")
+    private Entree<K, V> trouver(Object cle) {
+        if (!dansBornes(cle)) {
+            return null;
+        }
+        ARN.Noeud<K> noeud = arbre.descendre(cle);
+        return noeud != null && arbre.derniereComparaison == 0 ? (Entree<K, V>) noeud : null;
+    }
+
+    // Accroche une nouvelle entrée sous le nœud où descendre() s'est arrêté
+    @SuppressWarnings("unchecked")
+    private void inserer(ARN.Noeud<K> parent, K cle, V valeur) {
+        Entree<K, V> entree = (Entree<K, V>) arbre.insererSous(parent, arbre.derniereComparaison < 0, cle);
+        entree.valeur = valeur;
+    }
+
+    private void verifierCle(K cle) {
+        if (!dansBornes(cle)) throw new IllegalArgumentException("Clé hors des bornes de la vue");
+    }
+
+    // La fonction d'un compute ne doit pas modifier la table : la position
+    // d'insertion trouvée par la descente ne serait plus valable
+    private void verifierInchangee(int nbModificationsAttendu) {
+        if (arbre.nbModifications != nbModificationsAttendu) throw new ConcurrentModificationException();
+    }
+
+    @Override
+    public V get(Object cle) {
+        Entree<K, V> entree = trouver(cle);
+        return entree == null ? null : entree.valeur;
+    }
+
+    @Override
+    public boolean containsKey(Object cle) {
+        return trouver(cle) != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(K cle, V valeur) {
+        verifierCle(cle);
+        ARN.Noeud<K> noeud = arbre.descendre(cle);
+        if (noeud != null && arbre.derniereComparaison == 0) {
+            return ((Entree<K, V>) noeud).setValue(valeur);
+        }
+        inserer(noeud, cle, valeur);
+        return null;
+    }
+
+    @Override
+    public V remove(Object cle) {
+        Entree<K, V> entree = trouver(cle);
+        if (entree == null) {
+            return null;
+        }
+        V valeur = entree.valeur;
+        arbre.supprimerNoeud(entree);
+        return valeur;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V compute(K cle, BiFunction<? super K, ? super V, ? extends V> fonction) {
+        Objects.requireNonNull(fonction);
+        verifierCle(cle);
+        ARN.Noeud<K> noeud = arbre.descendre(cle);
+        boolean trouve = noeud != null && arbre.derniereComparaison == 0;
+        int nbModificationsAttendu = arbre.nbModifications;
+        V nouvelle = fonction.apply(cle, trouve ? ((Entree<K, V>) noeud).valeur : null);
+        verifierInchangee(nbModificationsAttendu);
+        if (trouve) {
+            if (nouvelle == null) {
+                arbre.supprimerNoeud(noeud);
+            } else {
+                ((Entree<K, V>) noeud).valeur = nouvelle;
+            }
+        } else if (nouvelle != null) {
+            inserer(noeud, cle, nouvelle);
+        }
+        return nouvelle;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V computeIfAbsent(K cle, Function<? super K, ? extends V> fonction) {
+        Objects.requireNonNull(fonction);
+        verifierCle(cle);
+        ARN.Noeud<K> noeud = arbre.descendre(cle);
+        boolean trouve = noeud != null && arbre.derniereComparaison == 0;
+        if (trouve && ((Entree<K, V>) noeud).valeur != null) {
+            return ((Entree<K, V>) noeud).valeur;
+        }
+        int nbModificationsAttendu = arbre.nbModifications;
+        V nouvelle = fonction.apply(cle);
+        verifierInchangee(nbModificationsAttendu);
+        if (nouvelle != null) {
+            if (trouve) {
+                ((Entree<K, V>) noeud).valeur = nouvelle;
+            } else {
+                inserer(noeud, cle, nouvelle);
+            }
+        }
+        return nouvelle;
+    }
+
+    @Override
+    public V computeIfPresent(K cle, BiFunction<? super K, ? super V, ? extends V> fonction) {
+        Objects.requireNonNull(fonction);
+        Entree<K, V> entree = trouver(cle);
+        if (entree == null || entree.valeur == null) {
+            return null;
+        }
+        int nbModificationsAttendu = arbre.nbModifications;
+        V nouvelle = fonction.apply(cle, entree.valeur);
+        verifierInchangee(nbModificationsAttendu);
+        if (nouvelle == null) {
+            arbre.supprimerNoeud(entree);
+        } else {
+            entree.valeur = nouvelle;
+        }
+        return nouvelle;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V merge(K cle, V valeur, BiFunction<? super V, ? super V, ? extends V> fonction) {
+        Objects.requireNonNull(fonction);
+        Objects.requireNonNull(valeur);
+        verifierCle(cle);
+        ARN.Noeud<K> noeud = arbre.descendre(cle);
+        if (noeud == null || arbre.derniereComparaison != 0) {
+            inserer(noeud, cle, valeur);
+            return valeur;
+        }
+        Entree<K, V> entree = (Entree<K, V>) noeud;
+        if (entree.valeur == null) {
+            entree.valeur = valeur;
+            return valeur;
+        }
+        int nbModificationsAttendu = arbre.nbModifications;
+        V nouvelle = fonction.apply(entree.valeur, valeur);
+        verifierInchangee(nbModificationsAttendu);
+        if (nouvelle == null) {
+            arbre.supprimerNoeud(entree);
+        } else {
+            entree.valeur = nouvelle;
+        }
+        return nouvelle;
+    }
+
+    @Override
+    public int size() {
+        if (!aBas && !aHaut) {
+            return arbre.size();
+        }
+        int fin = aHaut ? arbre.compterInferieurs(haut, hautInclus) : arbre.size();
+        int debut = aBas ? arbre.compterInferieurs(bas, !basInclus) : 0;
+        return Math.max(0, fin - debut);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return plusBas() == null;
+    }
+
+    @Override
+    public void clear() {
+        if (!aBas && !aHaut) {
+            arbre.clear();
+        } else {
+            // Une vue ne retire que ses propres entrées, en partant de la plus
+            // basse ; supprimerNoeud renvoie le nœud qui porte la suivante
+            // (pas AbstractMap.clear, qui repasserait par entrySet().clear())
+            ARN.Noeud<K> noeud = plusBas();
+            while (noeud != null && !tropHaut(noeud.donnee)) {
+                noeud = arbre.supprimerNoeud(noeud);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Agrégation sur un intervalle : table.subMap(a, b).sommer(...) parcourt
+    // les valeurs de [a, b[ en O(log n + k), sans rien allouer par valeur
+    // ------------------------------------------------------------------
+
+    // Replie les valeurs de la table, dans son ordre
+    @SuppressWarnings("unchecked")
+    public <R> R agreger(R initial, BiFunction<? super R, ? super V, ? extends R> accumulateur) {
+        R resultat = initial;
+        for (ARN.Noeud<K> noeud = premier(); noeud != null; noeud = apres(noeud)) {
+            resultat = accumulateur.apply(resultat, ((Entree<K, V>) noeud).valeur);
+        }
+        return resultat;
+    }
+
+    // Somme des valeurs converties en long, sans boxing de l'accumulateur
+    @SuppressWarnings("unchecked")
+    public long sommer(ToLongFunction<? super V> conversion) {
+        long somme = 0;
+        for (ARN.Noeud<K> noeud = premier(); noeud != null; noeud = apres(noeud)) {
+            somme += conversion.applyAsLong(((Entree<K, V>) noeud).valeur);
+        }
+        return somme;
+    }
+
+    // ------------------------------------------------------------------
+    // Bornes et navigation, comme dans ARN.SousEnsemble
+    // ------------------------------------------------------------------
+
+    private boolean tropBas(Object cle) {
+        if (!aBas) return false;
+        int comparaison = arbre.comparer(cle, bas);
+        return comparaison < 0 || (comparaison == 0 && !basInclus);
+    }
+
+    private boolean tropHaut(Object cle) {
+        if (!aHaut) return false;
+        int comparaison = arbre.comparer(cle, haut);
+        return comparaison > 0 || (comparaison == 0 && !hautInclus);
+    }
+
+    private boolean dansBornes(Object cle) {
+        return !tropBas(cle) && !tropHaut(cle);
+    }
+
+    private boolean accepteBorne(Object cle, boolean incluse) {
+        if (incluse) {
+            return dansBornes(cle);
+        }
+        return (!aBas || arbre.comparer(cle, bas) >= 0) && (!aHaut || arbre.comparer(cle, haut) <= 0);
+    }
+
+    private ARN.Noeud<K> plusBas() {
+        ARN.Noeud<K> noeud = aBas ? arbre.noeudPlafond(bas, basInclus) : arbre.premierNoeud();
+        return (noeud == null || tropHaut(noeud.donnee)) ? null : noeud;
+    }
+
+    private ARN.Noeud<K> plusHaut() {
+        ARN.Noeud<K> noeud = aHaut ? arbre.noeudPlancher(haut, hautInclus) : arbre.dernierNoeud();
+        return (noeud == null || tropBas(noeud.donnee)) ? null : noeud;
+    }
+
+    private ARN.Noeud<K> plafond(Object cle, boolean inclus) {
+        if (tropBas(cle)) return plusBas();
+        ARN.Noeud<K> noeud = arbre.noeudPlafond(cle, inclus);
+        return (noeud == null || tropHaut(noeud.donnee)) ? null : noeud;
+    }
+
+    private ARN.Noeud<K> plancher(Object cle, boolean inclus) {
+        if (tropHaut(cle)) return plusHaut();
+        ARN.Noeud<K> noeud = arbre.noeudPlancher(cle, inclus);
+        return (noeud == null || tropBas(noeud.donnee)) ? null : noeud;
+    }
+
+    // Premier et dernier nœuds dans le sens de la vue
+    private ARN.Noeud<K> premier() {
+        return descendant ? plusHaut() : plusBas();
+    }
+
+    private ARN.Noeud<K> dernier() {
+        return descendant ? plusBas() : plusHaut();
+    }
+
+    // Nœud suivant dans le sens de la vue, ou null en sortant des bornes
+    private ARN.Noeud<K> apres(ARN.Noeud<K> noeud) {
+        ARN.Noeud<K> prochain = descendant ? arbre.predecesseur(noeud) : arbre.successeur(noeud);
+        if (prochain != null && (descendant ? tropBas(prochain.donnee) : tropHaut(prochain.donnee))) {
+            return null;
+        }
+        return prochain;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Map.Entry<K, V> copie(ARN.Noeud<K> noeud) {
+        if (noeud == null) return null;
+        Entree<K, V> entree = (Entree<K, V>) noeud;
+        return new AbstractMap.SimpleImmutableEntry<>(entree.donnee, entree.valeur);
+    }
+
+    private static <K> K cleOuNull(ARN.Noeud<K> noeud) {
+        return noeud == null ? null : noeud.donnee;
+    }
+
+    private static <K> K cleOuException(ARN.Noeud<K> noeud) {
+        if (noeud == null) throw new NoSuchElementException();
+        return noeud.donnee;
+    }
+
+    // Retire le nœud et renvoie une copie de son entrée
+    private Map.Entry<K, V> extraire(ARN.Noeud<K> noeud) {
+        Map.Entry<K, V> entree = copie(noeud);
+        if (noeud != null) {
+            arbre.supprimerNoeud(noeud);
+        }
+        return entree;
+    }
+
+    // Nœuds "inférieurs" et "supérieurs" au sens de la vue
+    private ARN.Noeud<K> avant(Object cle, boolean inclus) {
+        return descendant ? plafond(cle, inclus) : plancher(cle, inclus);
+    }
+
+    private ARN.Noeud<K> depuis(Object cle, boolean inclus) {
+        return descendant ? plancher(cle, inclus) : plafond(cle, inclus);
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        Comparator<? super K> c = arbre.comparator();
+        return descendant ? Collections.reverseOrder(c) : c;
+    }
+
+    @Override
+    public K firstKey() {
+        return cleOuException(premier());
+    }
+
+    @Override
+    public K lastKey() {
+        return cleOuException(dernier());
+    }
+
+    @Override
+    public Map.Entry<K, V> firstEntry() {
+        return copie(premier());
+    }
+
+    @Override
+    public Map.Entry<K, V> lastEntry() {
+        return copie(dernier());
+    }
+
+    @Override
+    public Map.Entry<K, V> pollFirstEntry() {
+        return extraire(premier());
+    }
+
+    @Override
+    public Map.Entry<K, V> pollLastEntry() {
+        return extraire(dernier());
+    }
+
+    @Override
+    public Map.Entry<K, V> lowerEntry(K cle) {
+        return copie(avant(cle, false));
+    }
+
+    @Override
+    public K lowerKey(K cle) {
+        return cleOuNull(avant(cle, false));
+    }
+
+    @Override
+    public Map.Entry<K, V> floorEntry(K cle) {
+        return copie(avant(cle, true));
+    }
+
+    @Override
+    public K floorKey(K cle) {
+        return cleOuNull(avant(cle, true));
+    }
+
+    @Override
+    public Map.Entry<K, V> ceilingEntry(K cle) {
+        return copie(depuis(cle, true));
+    }
+
+    @Override
+    public K ceilingKey(K cle) {
+        return cleOuNull(depuis(cle, true));
+    }
+
+    @Override
+    public Map.Entry<K, V> higherEntry(K cle) {
+        return copie(depuis(cle, false));
+    }
+
+    @Override
+    public K higherKey(K cle) {
+        return cleOuNull(depuis(cle, false));
+    }
+
+    // ------------------------------------------------------------------
+    // Vues : ce sont des ARNMap, d'où agreger et sommer sur un intervalle
+    // ------------------------------------------------------------------
+
+    // Sous-vue de bornes données dans l'ordre croissant ; une borne absente
+    // reprend celle de la vue. Comme pour TreeMap, une borne incluse doit
+    // être dans la vue, une borne exclue peut être celle de la vue.
+    private ARNMap<K, V> vue(boolean aBasVue, K basVue, boolean basInclusVue,
+                             boolean aHautVue, K hautVue, boolean hautInclusVue) {
+        if ((aBasVue && !accepteBorne(basVue, basInclusVue)) || (aHautVue && !accepteBorne(hautVue, hautInclusVue))) {
+            throw new IllegalArgumentException("Borne hors de la vue");
+        }
+        if (aBasVue && aHautVue && arbre.comparer(basVue, hautVue) > 0) {
+            throw new IllegalArgumentException("fromKey > toKey");
+        }
+        return new ARNMap<>(arbre,
+                aBasVue || aBas, aBasVue ? basVue : bas, aBasVue ? basInclusVue : basInclus,
+                aHautVue || aHaut, aHautVue ? hautVue : haut, aHautVue ? hautInclusVue : hautInclus,
+                descendant);
+    }
+
+    @Override
+    public ARNMap<K, V> descendingMap() {
+        return new ARNMap<>(arbre, aBas, bas, basInclus, aHaut, haut, hautInclus, !descendant);
+    }
+
+    @Override
+    public ARNMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        return descendant
+                ? vue(true, toKey, toInclusive, true, fromKey, fromInclusive)
+                : vue(true, fromKey, fromInclusive, true, toKey, toInclusive);
+    }
+
+    @Override
+    public ARNMap<K, V> headMap(K toKey, boolean inclusive) {
+        return descendant
+                ? vue(true, toKey, inclusive, false, null, false)
+                : vue(false, null, false, true, toKey, inclusive);
+    }
+
+    @Override
+    public ARNMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        return descendant
+                ? vue(false, null, false, true, fromKey, inclusive)
+                : vue(true, fromKey, inclusive, false, null, false);
+    }
+
+    @Override
+    public ARNMap<K, V> subMap(K fromKey, K toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public ARNMap<K, V> headMap(K toKey) {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public ARNMap<K, V> tailMap(K fromKey) {
+        return tailMap(fromKey, true);
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<Map.Entry<K, V>>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return new Iterateur<Map.Entry<K, V>>() {
+                    @Override
+                    Map.Entry<K, V> element(ARN.Noeud<K> noeud) {
+                        return (Entree<K, V>) noeud;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return ARNMap.this.size();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                if (!(o instanceof Map.Entry)) return false;
+                Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+                Entree<K, V> entree = trouver(e.getKey());
+                return entree != null && Objects.equals(entree.valeur, e.getValue());
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                if (!contains(o)) return false;
+                ARNMap.this.remove(((Map.Entry<?, ?>) o).getKey());
+                return true;
+            }
+
+            @Override
+            public void clear() {
+                ARNMap.this.clear();
+            }
+        };
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Iterator<V> iterator() {
+                return new Iterateur<V>() {
+                    @Override
+                    V element(ARN.Noeud<K> noeud) {
+                        return ((Entree<K, V>) noeud).valeur;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return ARNMap.this.size();
+            }
+
+            @Override
+            public void clear() {
+                ARNMap.this.clear();
+            }
+        };
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        return new Cles<>(this);
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return descendingMap().navigableKeySet();
+    }
+
+    // Parcours dans le sens de la vue, en suivant les liens parent ; remove()
+    // tient compte de la recopie du successeur dans le nœud supprimé
+    private abstract class Iterateur<T> implements Iterator<T> {
+        private ARN.Noeud<K> suivant = premier();
+        private ARN.Noeud<K> dernier;
+        private int nbModificationsAttendu = arbre.nbModifications;
+
+        abstract T element(ARN.Noeud<K> noeud);
+
+        @Override
+        public boolean hasNext() {
+            return suivant != null;
+        }
+
+        @Override
+        public T next() {
+            if (suivant == null) throw new NoSuchElementException();
+            if (arbre.nbModifications != nbModificationsAttendu) throw new ConcurrentModificationException();
+            dernier = suivant;
+            suivant = apres(suivant);
+            return element(dernier);
+        }
+
+        @Override
+        public void remove() {
+            if (dernier == null) throw new IllegalStateException();
+            if (arbre.nbModifications != nbModificationsAttendu) throw new ConcurrentModificationException();
+            ARN.Noeud<K> suite = arbre.supprimerNoeud(dernier);
+            if (suite == dernier && !descendant && suivant != null) {
+                suivant = dernier;
+            }
+            dernier = null;
+            nbModificationsAttendu = arbre.nbModifications;
+        }
+    }
+
+    // Ensemble des clés d'une table, ou d'une vue, sans copie
+    private static final class Cles<K> extends AbstractSet<K> implements NavigableSet<K> {
+        private final NavigableMap<K, ?> table;
+
+        Cles(NavigableMap<K, ?> table) {
+            this.table = table;
+        }
+
+        @Override
+        public Iterator<K> iterator() {
+            Iterator<? extends Map.Entry<K, ?>> it = table.entrySet().iterator();
+            return new Iterator<K>() {
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public K next() {
+                    return it.next().getKey();
+                }
+
+                @Override
+                public void remove() {
+                    it.remove();
+                }
+            };
+        }
+
+        @Override
+        public Iterator<K> descendingIterator() {
+            return descendingSet().iterator();
+        }
+
+        @Override
+        public int size() {
+            return table.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return table.isEmpty();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return table.containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!table.containsKey(o)) return false;
+            table.remove(o);
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            table.clear();
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return table.comparator();
+        }
+
+        @Override
+        public K first() {
+            return table.firstKey();
+        }
+
+        @Override
+        public K last() {
+            return table.lastKey();
+        }
+
+        @Override
+        public K lower(K e) {
+            return table.lowerKey(e);
+        }
+
+        @Override
+        public K floor(K e) {
+            return table.floorKey(e);
+        }
+
+        @Override
+        public K ceiling(K e) {
+            return table.ceilingKey(e);
+        }
+
+        @Override
+        public K higher(K e) {
+            return table.higherKey(e);
+        }
+
+        @Override
+        public K pollFirst() {
+            Map.Entry<K, ?> e = table.pollFirstEntry();
+            return e == null ? null : e.getKey();
+        }
+
+        @Override
+        public K pollLast() {
+            Map.Entry<K, ?> e = table.pollLastEntry();
+            return e == null ? null : e.getKey();
+        }
+
+        @Override
+        public NavigableSet<K> descendingSet() {
+            return new Cles<>(table.descendingMap());
+        }
+
+        @Override
+        public NavigableSet<K> subSet(K fromElement, boolean fromInclusive, K toElement, boolean toInclusive) {
+            return new Cles<>(table.subMap(fromElement, fromInclusive, toElement, toInclusive));
+        }
+
+        @Override
+        public NavigableSet<K> headSet(K toElement, boolean inclusive) {
+            return new Cles<>(table.headMap(toElement, inclusive));
+        }
+
+        @Override
+        public NavigableSet<K> tailSet(K fromElement, boolean inclusive) {
+            return new Cles<>(table.tailMap(fromElement, inclusive));
+        }
+
+        @Override
+        public SortedSet<K> subSet(K fromElement, K toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public SortedSet<K> headSet(K toElement) {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public SortedSet<K> tailSet(K fromElement) {
+            return tailSet(fromElement, true);
+        }
+    }
+
+    public static void main(String... args) {
+        // Compteurs par horodatage : un merge par événement
+        ARNMap<Long, Long> compteurs = new ARNMap<>();
+        SplittableRandom rand = new SplittableRandom(42);
+        int n = 4_000_000;
+        long debut = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            compteurs.merge((long) rand.nextInt(100_000), 1L, Long::sum);
+        }
+        double secondes = (System.nanoTime() - debut) / 1e9;
+        System.out.printf("%,d merges en %.2f s (%,.0f merges/s), %,d horodatages%n",
+                n, secondes, n / secondes, compteurs.size());
+        System.out.println("Événements dans [1000, 2000[ : " + compteurs.subMap(1000L, 2000L).sommer(Long::longValue));
+        System.out.println("Premier : " + compteurs.firstEntry() + ", dernier : " + compteurs.lastEntry());
+        System.out.println("Trois derniers : " + compteurs.descendingMap().headMap(99_996L));
+
+        // Vider une vue ne retire que ses entrées, comme pour TreeMap
+        TreeMap<Long, Long> reference = new TreeMap<>(compteurs);
+        compteurs.subMap(1000L, 2000L).clear();
+        reference.subMap(1000L, 2000L).clear();
+        compteurs.headMap(500L).keySet().clear();
+        reference.headMap(500L).keySet().clear();
+        compteurs.descendingMap().tailMap(99_000L, false).values().clear();
+        reference.descendingMap().tailMap(99_000L, false).values().clear();
+        compteurs.tailMap(99_990L).entrySet().clear();
+        reference.tailMap(99_990L).entrySet().clear();
+        if (!compteurs.equals(reference) || !compteurs.subMap(1000L, 2000L).isEmpty()) {
+            throw new IllegalStateException("Vider une vue a retiré d'autres entrées");
+        }
+        System.out.println("Vues vidées : " + compteurs.size() + " horodatages restants");
+    }
+}
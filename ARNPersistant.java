@@ -0,0 +1,384 @@
+import java.util.*;
+
+// Arbre rouge-noir persistant (à recopie de chemin). Les nœuds sont
+// immuables et n'ont pas de lien parent : add et remove ne recopient que les
+// O(log n) nœuds du chemin racine-feuille et partagent tout le reste avec la
+// version précédente. snapshot() est donc en O(1) : il renvoie la racine
+// courante, vue figée que les écritures suivantes ne modifient jamais. Une
+// version qui n'est plus référencée est récupérée par le GC.
+//
+// Insertion d'Okasaki, suppression de Kahrs ("Red-black trees with types",
+// 2001). Ordre naturel, doublons conservés (insérés à gauche) comme dans ARN.
+public class ARNPersistant<E> extends AbstractCollection<E> {
+
+    static final boolean ROUGE = false;
+    static final boolean NOIR = true;
+
+    static final class Noeud<E> {
+        final E donnee;
+        final Noeud<E> gauche;
+        final Noeud<E> droite;
+        final boolean couleur;
+        final int taille;
+
+        Noeud(boolean couleur, Noeud<E> gauche, E donnee, Noeud<E> droite) {
+            this.couleur = couleur;
+            this.gauche = gauche;
+            this.donnee = donnee;
+            this.droite = droite;
+            this.taille = 1 + getTaille(gauche) + getTaille(droite);
+        }
+    }
+
+    // Version courante ; volatile pour qu'un snapshot pris par un autre thread
+    // voie une version entièrement construite
+    private volatile Noeud<E> racine;
+
+    // Renvoie en O(1) une vue immuable de l'état actuel de l'arbre
+    public Version<E> snapshot() {
+        return new Version<>(racine);
+    }
+
+    @Override
+    public synchronized boolean add(E cle) {
+        racine = noircir(inserer(racine, cle));
+        return true;
+    }
+
+    @Override
+    public synchronized boolean remove(Object cle) {
+        Noeud<E> courante = racine;
+        // La suppression de Kahrs suppose la clé présente
+        if (rechercher(courante, cle) == null) {
+            return false;
+        }
+        racine = noircir(supprimer(courante, cle));
+        return true;
+    }
+
+    @Override
+    public synchronized void clear() {
+        racine = null;
+    }
+
+    @Override
+    public boolean contains(Object cle) {
+        return rechercher(racine, cle) != null;
+    }
+
+    @Override
+    public int size() {
+        return getTaille(racine);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return racine == null;
+    }
+
+    // Parcourt la version courante au moment de l'appel ; remove() retire
+    // l'élément de l'arbre sans affecter le parcours en cours
+    @Override
+    public Iterator<E> iterator() {
+        Iterator<E> it = new Iterateur<>(racine);
+        return new Iterator<E>() {
+            private E dernier;
+            private boolean peutSupprimer;
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public E next() {
+                dernier = it.next();
+                peutSupprimer = true;
+                return dernier;
+            }
+
+            @Override
+            public void remove() {
+                if (!peutSupprimer) throw new IllegalStateException();
+                ARNPersistant.this.remove(dernier);
+                peutSupprimer = false;
+            }
+        };
+    }
+
+    // Vue figée d'une version de l'arbre : consultable et itérable, mais non
+    // modifiable. Elle partage ses nœuds avec l'arbre et les autres versions.
+    public static final class Version<E> extends AbstractCollection<E> {
+        private final Noeud<E> racine;
+
+        private Version(Noeud<E> racine) {
+            this.racine = racine;
+        }
+
+        @Override
+        public boolean contains(Object cle) {
+            return rechercher(racine, cle) != null;
+        }
+
+        @Override
+        public int size() {
+            return getTaille(racine);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return racine == null;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterateur<>(racine);
+        }
+
+        // k-ième plus petit élément (k commence à 0), en O(log n)
+        public E select(int k) {
+            if (k < 0 || k >= size()) {
+                throw new IndexOutOfBoundsException("Rang " + k + " hors de [0, " + size() + "[");
+            }
+            Noeud<E> noeud = racine;
+            while (true) {
+                int tailleGauche = getTaille(noeud.gauche);
+                if (k < tailleGauche) {
+                    noeud = noeud.gauche;
+                } else if (k > tailleGauche) {
+                    k -= tailleGauche + 1;
+                    noeud = noeud.droite;
+                } else {
+                    return noeud.donnee;
+                }
+            }
+        }
+    }
+
+    // Parcours infixe avec une pile explicite (pas de lien parent) ; la pile
+    // est dimensionnée par la hauteur maximale d'un arbre rouge-noir
+    private static final class Iterateur<E> implements Iterator<E> {
+        private final Noeud<E>[] pile;
+        private int sommet;
+
+        @SuppressWarnings("unchecked")
+        Iterateur(Noeud<E> racine) {
+            int n = getTaille(racine);
+            pile = (Noeud<E>[]) new Noeud<?>[2 * (33 - Integer.numberOfLeadingZeros(n + 1))];
+            empilerGauche(racine);
+        }
+
+        private void empilerGauche(Noeud<E> noeud) {
+            while (noeud != null) {
+                pile[sommet++] = noeud;
+                noeud = noeud.gauche;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return sommet > 0;
+        }
+
+        @Override
+        public E next() {
+            if (sommet == 0) throw new NoSuchElementException();
+            Noeud<E> noeud = pile[--sommet];
+            pile[sommet] = null;
+            empilerGauche(noeud.droite);
+            return noeud.donnee;
+        }
+    }
+
+    static int getTaille(Noeud<?> noeud) {
+        return noeud == null ? 0 : noeud.taille;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> int comparer(Object a, E b) {
+        return ((Comparable<E>) a).compareTo(b);
+    }
+
+    private static <E> Noeud<E> rechercher(Noeud<E> noeud, Object cle) {
+        while (noeud != null) {
+            int comparaison = comparer(cle, noeud.donnee);
+            if (comparaison < 0) {
+                noeud = noeud.gauche;
+            } else if (comparaison > 0) {
+                noeud = noeud.droite;
+            } else {
+                return noeud;
+            }
+        }
+        return null;
+    }
+
+    private static boolean estRouge(Noeud<?> noeud) {
+        return noeud != null && noeud.couleur == ROUGE;
+    }
+
+    private static boolean estNoeudNoir(Noeud<?> noeud) {
+        return noeud != null && noeud.couleur == NOIR;
+    }
+
+    private static <E> Noeud<E> rouge(Noeud<E> gauche, E donnee, Noeud<E> droite) {
+        return new Noeud<>(ROUGE, gauche, donnee, droite);
+    }
+
+    private static <E> Noeud<E> noir(Noeud<E> gauche, E donnee, Noeud<E> droite) {
+        return new Noeud<>(NOIR, gauche, donnee, droite);
+    }
+
+    private static <E> Noeud<E> noircir(Noeud<E> noeud) {
+        return (noeud == null || noeud.couleur == NOIR) ? noeud : noir(noeud.gauche, noeud.donnee, noeud.droite);
+    }
+
+    // ---------------------------------------------------------------
+    // Insertion : recopie du chemin, rééquilibrage sur les nœuds noirs
+    // ---------------------------------------------------------------
+
+    private static <E> Noeud<E> inserer(Noeud<E> noeud, E cle) {
+        if (noeud == null) {
+            return rouge(null, cle, null);
+        }
+        // Doublons à gauche, comme dans ARN
+        boolean aGauche = comparer(cle, noeud.donnee) <= 0;
+        if (noeud.couleur == NOIR) {
+            return aGauche
+                    ? equilibrer(inserer(noeud.gauche, cle), noeud.donnee, noeud.droite)
+                    : equilibrer(noeud.gauche, noeud.donnee, inserer(noeud.droite, cle));
+        }
+        return aGauche
+                ? rouge(inserer(noeud.gauche, cle), noeud.donnee, noeud.droite)
+                : rouge(noeud.gauche, noeud.donnee, inserer(noeud.droite, cle));
+    }
+
+    // Reconstruit un nœud noir (a, x, b) en éliminant un éventuel rouge-rouge
+    // sous lui
+    private static <E> Noeud<E> equilibrer(Noeud<E> a, E x, Noeud<E> b) {
+        if (estRouge(a) && estRouge(b)) {
+            return rouge(noircir(a), x, noircir(b));
+        }
+        if (estRouge(a)) {
+            if (estRouge(a.gauche)) {
+                return rouge(noircir(a.gauche), a.donnee, noir(a.droite, x, b));
+            }
+            if (estRouge(a.droite)) {
+                return rouge(noir(a.gauche, a.donnee, a.droite.gauche), a.droite.donnee,
+                        noir(a.droite.droite, x, b));
+            }
+        }
+        if (estRouge(b)) {
+            if (estRouge(b.droite)) {
+                return rouge(noir(a, x, b.gauche), b.donnee, noircir(b.droite));
+            }
+            if (estRouge(b.gauche)) {
+                return rouge(noir(a, x, b.gauche.gauche), b.gauche.donnee,
+                        noir(b.gauche.droite, b.donnee, b.droite));
+            }
+        }
+        return noir(a, x, b);
+    }
+
+    // ---------------------------------------------------------------
+    // Suppression (Kahrs) : la clé doit être présente
+    // ---------------------------------------------------------------
+
+    private static <E> Noeud<E> supprimer(Noeud<E> noeud, Object cle) {
+        int comparaison = comparer(cle, noeud.donnee);
+        if (comparaison < 0) {
+            return estNoeudNoir(noeud.gauche)
+                    ? equilibrerGauche(supprimer(noeud.gauche, cle), noeud.donnee, noeud.droite)
+                    : rouge(supprimer(noeud.gauche, cle), noeud.donnee, noeud.droite);
+        } else if (comparaison > 0) {
+            return estNoeudNoir(noeud.droite)
+                    ? equilibrerDroite(noeud.gauche, noeud.donnee, supprimer(noeud.droite, cle))
+                    : rouge(noeud.gauche, noeud.donnee, supprimer(noeud.droite, cle));
+        }
+        return fusionner(noeud.gauche, noeud.droite);
+    }
+
+    // Le sous-arbre gauche a perdu un niveau noir
+    private static <E> Noeud<E> equilibrerGauche(Noeud<E> gauche, E x, Noeud<E> droite) {
+        if (estRouge(gauche)) {
+            return rouge(noircir(gauche), x, droite);
+        }
+        if (estNoeudNoir(droite)) {
+            return equilibrer(gauche, x, rougir(droite));
+        }
+        if (estRouge(droite) && estNoeudNoir(droite.gauche)) {
+            return rouge(noir(gauche, x, droite.gauche.gauche), droite.gauche.donnee,
+                    equilibrer(droite.gauche.droite, droite.donnee, rougir(droite.droite)));
+        }
+        throw new IllegalStateException("Invariant rouge-noir violé");
+    }
+
+    // Le sous-arbre droit a perdu un niveau noir
+    private static <E> Noeud<E> equilibrerDroite(Noeud<E> gauche, E x, Noeud<E> droite) {
+        if (estRouge(droite)) {
+            return rouge(gauche, x, noircir(droite));
+        }
+        if (estNoeudNoir(gauche)) {
+            return equilibrer(rougir(gauche), x, droite);
+        }
+        if (estRouge(gauche) && estNoeudNoir(gauche.droite)) {
+            return rouge(equilibrer(rougir(gauche.gauche), gauche.donnee, gauche.droite.gauche),
+                    gauche.droite.donnee, noir(gauche.droite.droite, x, droite));
+        }
+        throw new IllegalStateException("Invariant rouge-noir violé");
+    }
+
+    private static <E> Noeud<E> rougir(Noeud<E> noeud) {
+        if (!estNoeudNoir(noeud)) {
+            throw new IllegalStateException("Invariant rouge-noir violé");
+        }
+        return rouge(noeud.gauche, noeud.donnee, noeud.droite);
+    }
+
+    // Fusionne deux sous-arbres de même hauteur noire dont toutes les clés
+    // de a précèdent celles de b
+    private static <E> Noeud<E> fusionner(Noeud<E> a, Noeud<E> b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (estRouge(a) && estRouge(b)) {
+            Noeud<E> milieu = fusionner(a.droite, b.gauche);
+            if (estRouge(milieu)) {
+                return rouge(rouge(a.gauche, a.donnee, milieu.gauche), milieu.donnee,
+                        rouge(milieu.droite, b.donnee, b.droite));
+            }
+            return rouge(a.gauche, a.donnee, rouge(milieu, b.donnee, b.droite));
+        }
+        if (!estRouge(a) && !estRouge(b)) {
+            Noeud<E> milieu = fusionner(a.droite, b.gauche);
+            if (estRouge(milieu)) {
+                return rouge(noir(a.gauche, a.donnee, milieu.gauche), milieu.donnee,
+                        noir(milieu.droite, b.donnee, b.droite));
+            }
+            return equilibrerGauche(a.gauche, a.donnee, noir(milieu, b.donnee, b.droite));
+        }
+        if (estRouge(b)) {
+            return rouge(fusionner(a, b.gauche), b.donnee, b.droite);
+        }
+        return rouge(a.gauche, a.donnee, fusionner(a.droite, b));
+    }
+
+    public static void main(String... args) {
+        ARNPersistant<Integer> arbre = new ARNPersistant<>();
+        for (int i = 1; i <= 10; i++) {
+            arbre.add(i);
+        }
+        Version<Integer> avant = arbre.snapshot();
+
+        for (int i = 1; i <= 10; i += 2) {
+            arbre.remove(i);
+        }
+        arbre.add(42);
+
+        System.out.println("Snapshot : " + avant + " (" + avant.size() + " éléments)");
+        System.out.println("Actuel   : " + arbre + " (" + arbre.size() + " éléments)");
+    }
+}
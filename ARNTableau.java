@@ -0,0 +1,538 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+// Arbre rouge-noir dont les nœuds sont stockés "en colonnes" : les clés, les
+// liens gauche/droite/parent et les couleurs sont rangés dans des tableaux
+// parallèles et un nœud n'est qu'un indice. Il n'y a donc plus un objet par
+// nœud : moins d'octets par élément, moins de travail pour le GC, et des
+// liens int au lieu de références. Les cases libérées sont chaînées dans une
+// liste libre et réutilisées ; la capacité grandit au besoin.
+//
+// L'indice 0 est la sentinelle NIL (toujours noire), ce qui simplifie les
+// corrections après suppression. L'API et le comportement (ordre naturel,
+// doublons conservés) sont ceux de ARN.
+public class ARNTableau<E> extends AbstractCollection<E> {
+
+    private static final int NIL = 0;
+    private static final int CAPACITE_INITIALE = 16;
+    static final boolean ROUGE = false;
+    static final boolean NOIR = true;
+
+    private Object[] cles;
+    private int[] gauche;
+    private int[] droite;
+    private int[] parent;
+    private boolean[] couleurs;
+
+    private int racine = NIL;
+    private int taille;
+    private int prochainLibre = 1; // Première case jamais utilisée
+    private int listeLibre = NIL;  // Cases libérées, chaînées par gauche[]
+    private int nbModifications;
+
+    public ARNTableau() {
+        this(CAPACITE_INITIALE);
+    }
+
+    // Crée un arbre vide pouvant contenir capacite éléments sans s'agrandir
+    public ARNTableau(int capacite) {
+        if (capacite < 0) {
+            throw new IllegalArgumentException("Capacité négative : " + capacite);
+        }
+        cles = new Object[capacite + 1];
+        gauche = new int[capacite + 1];
+        droite = new int[capacite + 1];
+        parent = new int[capacite + 1];
+        couleurs = new boolean[capacite + 1];
+        couleurs[NIL] = NOIR;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int comparer(Object a, int noeud) {
+        return ((Comparable<E>) a).compareTo((E) cles[noeud]);
+    }
+
+    // Réserve une case, de préférence dans la liste libre
+    private int allouer(E cle) {
+        int i;
+        if (listeLibre != NIL) {
+            i = listeLibre;
+            listeLibre = gauche[i];
+        } else {
+            if (prochainLibre == cles.length) {
+                agrandir();
+            }
+            i = prochainLibre++;
+        }
+        cles[i] = cle;
+        gauche[i] = NIL;
+        droite[i] = NIL;
+        parent[i] = NIL;
+        couleurs[i] = ROUGE;
+        return i;
+    }
+
+    private void liberer(int i) {
+        cles[i] = null; // Pour que le GC puisse récupérer la clé
+        gauche[i] = listeLibre;
+        listeLibre = i;
+    }
+
+    private void agrandir() {
+        int capacite = cles.length + (cles.length >> 1) + 1;
+        cles = Arrays.copyOf(cles, capacite);
+        gauche = Arrays.copyOf(gauche, capacite);
+        droite = Arrays.copyOf(droite, capacite);
+        parent = Arrays.copyOf(parent, capacite);
+        couleurs = Arrays.copyOf(couleurs, capacite);
+    }
+
+    @Override
+    public boolean add(E cle) {
+        int y = NIL;
+        int x = racine;
+        int comparaison = 0;
+        while (x != NIL) {
+            y = x;
+            comparaison = comparer(cle, x);
+            // Doublons à gauche, comme dans ARN
+            x = comparaison <= 0 ? gauche[x] : droite[x];
+        }
+
+        int z = allouer(cle);
+        parent[z] = y;
+        if (y == NIL) {
+            racine = z;
+        } else if (comparaison <= 0) {
+            gauche[y] = z;
+        } else {
+            droite[y] = z;
+        }
+
+        corrigerApresInsertion(z);
+        taille++;
+        nbModifications++;
+        return true;
+    }
+
+    private int rechercherNoeud(Object cle) {
+        int x = racine;
+        while (x != NIL) {
+            int comparaison = comparer(cle, x);
+            if (comparaison < 0) {
+                x = gauche[x];
+            } else if (comparaison > 0) {
+                x = droite[x];
+            } else {
+                return x;
+            }
+        }
+        return NIL;
+    }
+
+    @Override
+    public boolean contains(Object cle) {
+        return rechercherNoeud(cle) != NIL;
+    }
+
+    @Override
+    public boolean remove(Object cle) {
+        int z = rechercherNoeud(cle);
+        if (z == NIL) {
+            return false;
+        }
+        supprimerNoeud(z);
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return taille;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return taille == 0;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(cles, 0, prochainLibre, null);
+        racine = NIL;
+        taille = 0;
+        prochainLibre = 1;
+        listeLibre = NIL;
+        nbModifications++;
+    }
+
+    // Suppression : le successeur y prend physiquement la place de z (aucune
+    // clé n'est recopiée), puis la case de z est rendue à la liste libre
+    private void supprimerNoeud(int z) {
+        int y = z;
+        boolean couleurOrigine = couleurs[y];
+        int x;
+        if (gauche[z] == NIL) {
+            x = droite[z];
+            transplanter(z, droite[z]);
+        } else if (droite[z] == NIL) {
+            x = gauche[z];
+            transplanter(z, gauche[z]);
+        } else {
+            y = minimum(droite[z]);
+            couleurOrigine = couleurs[y];
+            x = droite[y];
+            if (parent[y] == z) {
+                parent[x] = y; // x peut être NIL : la sentinelle retient son parent
+            } else {
+                transplanter(y, droite[y]);
+                droite[y] = droite[z];
+                parent[droite[y]] = y;
+            }
+            transplanter(z, y);
+            gauche[y] = gauche[z];
+            parent[gauche[y]] = y;
+            couleurs[y] = couleurs[z];
+        }
+
+        if (couleurOrigine == NOIR) {
+            corrigerApresSuppression(x);
+        }
+        liberer(z);
+        taille--;
+        nbModifications++;
+    }
+
+    private void transplanter(int u, int v) {
+        if (parent[u] == NIL) {
+            racine = v;
+        } else if (u == gauche[parent[u]]) {
+            gauche[parent[u]] = v;
+        } else {
+            droite[parent[u]] = v;
+        }
+        parent[v] = parent[u];
+    }
+
+    private void corrigerApresInsertion(int z) {
+        while (couleurs[parent[z]] == ROUGE) {
+            int p = parent[z];
+            int g = parent[p];
+            if (p == gauche[g]) {
+                int oncle = droite[g];
+                if (couleurs[oncle] == ROUGE) {
+                    couleurs[p] = NOIR;
+                    couleurs[oncle] = NOIR;
+                    couleurs[g] = ROUGE;
+                    z = g;
+                } else {
+                    if (z == droite[p]) {
+                        z = p;
+                        rotationGauche(z);
+                        p = parent[z];
+                    }
+                    couleurs[p] = NOIR;
+                    couleurs[g] = ROUGE;
+                    rotationDroite(g);
+                }
+            } else {
+                int oncle = gauche[g];
+                if (couleurs[oncle] == ROUGE) {
+                    couleurs[p] = NOIR;
+                    couleurs[oncle] = NOIR;
+                    couleurs[g] = ROUGE;
+                    z = g;
+                } else {
+                    if (z == gauche[p]) {
+                        z = p;
+                        rotationDroite(z);
+                        p = parent[z];
+                    }
+                    couleurs[p] = NOIR;
+                    couleurs[g] = ROUGE;
+                    rotationGauche(g);
+                }
+            }
+        }
+        couleurs[racine] = NOIR;
+    }
+
+    private void corrigerApresSuppression(int x) {
+        while (x != racine && couleurs[x] == NOIR) {
+            int p = parent[x];
+            if (x == gauche[p]) {
+                int frere = droite[p];
+                if (couleurs[frere] == ROUGE) {
+                    couleurs[frere] = NOIR;
+                    couleurs[p] = ROUGE;
+                    rotationGauche(p);
+                    frere = droite[p];
+                }
+                if (couleurs[gauche[frere]] == NOIR && couleurs[droite[frere]] == NOIR) {
+                    couleurs[frere] = ROUGE;
+                    x = p;
+                } else {
+                    if (couleurs[droite[frere]] == NOIR) {
+                        couleurs[gauche[frere]] = NOIR;
+                        couleurs[frere] = ROUGE;
+                        rotationDroite(frere);
+                        frere = droite[p];
+                    }
+                    couleurs[frere] = couleurs[p];
+                    couleurs[p] = NOIR;
+                    couleurs[droite[frere]] = NOIR;
+                    rotationGauche(p);
+                    x = racine;
+                }
+            } else {
+                int frere = gauche[p];
+                if (couleurs[frere] == ROUGE) {
+                    couleurs[frere] = NOIR;
+                    couleurs[p] = ROUGE;
+                    rotationDroite(p);
+                    frere = gauche[p];
+                }
+                if (couleurs[gauche[frere]] == NOIR && couleurs[droite[frere]] == NOIR) {
+                    couleurs[frere] = ROUGE;
+                    x = p;
+                } else {
+                    if (couleurs[gauche[frere]] == NOIR) {
+                        couleurs[droite[frere]] = NOIR;
+                        couleurs[frere] = ROUGE;
+                        rotationGauche(frere);
+                        frere = gauche[p];
+                    }
+                    couleurs[frere] = couleurs[p];
+                    couleurs[p] = NOIR;
+                    couleurs[gauche[frere]] = NOIR;
+                    rotationDroite(p);
+                    x = racine;
+                }
+            }
+        }
+        couleurs[x] = NOIR;
+    }
+
+    private void rotationGauche(int x) {
+        int y = droite[x];
+        droite[x] = gauche[y];
+        if (gauche[y] != NIL) {
+            parent[gauche[y]] = x;
+        }
+        parent[y] = parent[x];
+        if (parent[x] == NIL) {
+            racine = y;
+        } else if (x == gauche[parent[x]]) {
+            gauche[parent[x]] = y;
+        } else {
+            droite[parent[x]] = y;
+        }
+        gauche[y] = x;
+        parent[x] = y;
+    }
+
+    private void rotationDroite(int x) {
+        int y = gauche[x];
+        gauche[x] = droite[y];
+        if (droite[y] != NIL) {
+            parent[droite[y]] = x;
+        }
+        parent[y] = parent[x];
+        if (parent[x] == NIL) {
+            racine = y;
+        } else if (x == droite[parent[x]]) {
+            droite[parent[x]] = y;
+        } else {
+            gauche[parent[x]] = y;
+        }
+        droite[y] = x;
+        parent[x] = y;
+    }
+
+    private int minimum(int x) {
+        while (gauche[x] != NIL) {
+            x = gauche[x];
+        }
+        return x;
+    }
+
+    private int successeur(int x) {
+        if (droite[x] != NIL) {
+            return minimum(droite[x]);
+        }
+        int y = parent[x];
+        while (y != NIL && x == droite[y]) {
+            x = y;
+            y = parent[y];
+        }
+        return y;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterateur();
+    }
+
+    // Parcours infixe par les indices parent, sans copie
+    private class Iterateur implements Iterator<E> {
+        private int suivant = racine == NIL ? NIL : minimum(racine);
+        private int dernier = NIL;
+        private int nbModificationsAttendu = nbModifications;
+
+        @Override
+        public boolean hasNext() {
+            return suivant != NIL;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (suivant == NIL) throw new NoSuchElementException();
+            if (nbModifications != nbModificationsAttendu) throw new ConcurrentModificationException();
+            dernier = suivant;
+            suivant = successeur(suivant);
+            return (E) cles[dernier];
+        }
+
+        @Override
+        public void remove() {
+            if (dernier == NIL) throw new IllegalStateException();
+            if (nbModifications != nbModificationsAttendu) throw new ConcurrentModificationException();
+            // Le successeur garde son indice : suivant reste valide
+            supprimerNoeud(dernier);
+            dernier = NIL;
+            nbModificationsAttendu = nbModifications;
+        }
+    }
+
+    // Vérifie ARNTableau contre ARN<Integer>, puis compare l'empreinte
+    // mémoire des deux moteurs pour les mêmes clés et le temps qu'ils font
+    // passer au GC sous une charge d'écritures
+    public static void main(String... args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        verifierContreARN();
+
+        Integer[] cles = new Integer[n];
+        Random rand = new Random(42);
+        for (int i = 0; i < n; i++) {
+            cles[i] = rand.nextInt();
+        }
+
+        long avant = memoireUtilisee();
+        ARN<Integer> arn = new ARN<>();
+        for (Integer cle : cles) {
+            arn.add(cle);
+        }
+        long octetsARN = memoireUtilisee() - avant;
+
+        avant = memoireUtilisee();
+        ARNTableau<Integer> tableau = new ARNTableau<>(n);
+        for (Integer cle : cles) {
+            tableau.add(cle);
+        }
+        long octetsTableau = memoireUtilisee() - avant;
+
+        System.out.println("n = " + n + " (" + arn.size() + " / " + tableau.size() + ")");
+        System.out.printf("ARN        : %.1f octets par élément%n", (double) octetsARN / n);
+        System.out.printf("ARNTableau : %.1f octets par élément%n", (double) octetsTableau / n);
+
+        // Les deux arbres restent vivants pendant les deux mesures : le GC
+        // parcourt le même tas, seule change la structure modifiée. add et
+        // remove ont déjà été compilés par la vérification et les insertions.
+        long[] gcARN = mesurerGC(arn, cles);
+        long[] gcTableau = mesurerGC(tableau, cles);
+        System.out.printf("Écritures, ARN        : %d ms, %d collections, %d ms de GC%n", gcARN[0], gcARN[1], gcARN[2]);
+        System.out.printf("Écritures, ARNTableau : %d ms, %d collections, %d ms de GC%n", gcTableau[0], gcTableau[1], gcTableau[2]);
+    }
+
+    // Suite aléatoire d'add, remove, contains et de suppressions par
+    // l'itérateur, appliquée à ARNTableau et à ARN<Integer> ; lève
+    // IllegalStateException à la première différence
+    private static void verifierContreARN() {
+        Random rand = new Random(42);
+        ARNTableau<Integer> tableau = new ARNTableau<>();
+        ARN<Integer> reference = new ARN<>();
+
+        for (int i = 0; i < 100000; i++) {
+            int cle = rand.nextInt(1000);
+            if (rand.nextInt(3) == 0) {
+                if (tableau.remove(cle) != reference.remove(cle)) {
+                    throw new IllegalStateException("remove(" + cle + ") diffère");
+                }
+            } else {
+                tableau.add(cle);
+                reference.add(cle);
+            }
+            if (tableau.contains(cle) != reference.contains(cle)) {
+                throw new IllegalStateException("contains(" + cle + ") diffère");
+            }
+            if (i % 10000 == 9999) {
+                // Parcours simultané ; un élément sur quatre est retiré par
+                // les deux itérateurs
+                Iterator<Integer> it = tableau.iterator();
+                Iterator<Integer> itReference = reference.iterator();
+                while (itReference.hasNext()) {
+                    if (!it.hasNext() || !it.next().equals(itReference.next())) {
+                        throw new IllegalStateException("Ordre d'itération différent");
+                    }
+                    if (rand.nextInt(4) == 0) {
+                        it.remove();
+                        itReference.remove();
+                    }
+                }
+                if (it.hasNext() || tableau.size() != reference.size()) {
+                    throw new IllegalStateException("Tailles différentes");
+                }
+            }
+        }
+
+        Iterator<Integer> it = tableau.iterator();
+        for (int cle : reference) {
+            if (!it.hasNext() || it.next() != cle) {
+                throw new IllegalStateException("Ordre d'itération différent");
+            }
+        }
+        if (it.hasNext() || tableau.size() != reference.size()) {
+            throw new IllegalStateException("Tailles différentes");
+        }
+        System.out.println("ARNTableau et ARN<Integer> sont identiques (" + tableau.size() + " éléments).");
+    }
+
+    // Retire puis réinsère 3n clés tirées au hasard : la taille ne change pas,
+    // mais chaque add de ARN alloue un nœud, là où ARNTableau réutilise sa
+    // liste libre. Renvoie la durée (ms), le nombre de collections et le
+    // temps cumulé des collections (ms) pendant la boucle.
+    private static long[] mesurerGC(Collection<Integer> arbre, Integer[] cles) {
+        Random rand = new Random(7);
+        memoireUtilisee();
+        long[] gcAvant = gc();
+        long debut = System.nanoTime();
+        for (int i = 0; i < 3 * cles.length; i++) {
+            Integer cle = cles[rand.nextInt(cles.length)];
+            arbre.remove(cle);
+            arbre.add(cle);
+        }
+        long duree = (System.nanoTime() - debut) / 1_000_000;
+        long[] gcApres = gc();
+        return new long[] {duree, gcApres[0] - gcAvant[0], gcApres[1] - gcAvant[1]};
+    }
+
+    // Nombre de collections et temps cumulé (ms) de tous les ramasse-miettes
+    private static long[] gc() {
+        long nombre = 0;
+        long temps = 0;
+        for (GarbageCollectorMXBean ramasseur : ManagementFactory.getGarbageCollectorMXBeans()) {
+            nombre += Math.max(0, ramasseur.getCollectionCount());
+            temps += Math.max(0, ramasseur.getCollectionTime());
+        }
+        return new long[] {nombre, temps};
+    }
+
+    private static long memoireUtilisee() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,519 @@
+import java.util.*;
+
+// Arbre B+ : les éléments sont rangés, triés, dans les tableaux contigus des
+// feuilles, chaînées entre elles ; les nœuds internes ne contiennent que des
+// clés de séparation. Avec un ordre (nombre maximal d'enfants) de 64, une
+// recherche parmi 50 millions de clés ne visite que 5 nœuds, contre environ
+// 2 log2(n) nœuds alloués séparément pour un ARN, et un parcours dans l'ordre
+// lit les feuilles l'une après l'autre.
+//
+// Invariant : pour un séparateur cles[i] d'un nœud interne, les éléments de
+// enfants[i] sont <= cles[i] <= ceux de enfants[i + 1]. Les doublons sont
+// admis (comme dans ARN) et peuvent donc s'étendre sur plusieurs feuilles.
+public class BArbre<E> extends AbstractCollection<E> {
+
+    private static final int ORDRE_PAR_DEFAUT = 64;
+
+    @SuppressWarnings("unchecked")
+    private static final Comparator<Object> ORDRE_NATUREL = (a, b) -> ((Comparable<Object>) a).compareTo(b);
+
+    // Un nœud (feuille ou interne) a au plus capacite clés, et au moins
+    // minimum clés s'il n'est pas la racine
+    private final int capacite;
+    private final int minimum;
+    private final Comparator<? super E> cmp;
+
+    private Noeud racine;
+    private Feuille premiere; // Tête de la liste chaînée des feuilles
+    private int taille;
+    private int nbModifications;
+
+    // Séparateur remonté par la dernière coupe de nœud
+    private Object separateur;
+
+    private abstract static class Noeud {
+        // Une case de plus que la capacité : un nœud déborde d'une clé avant
+        // d'être coupé
+        final Object[] cles;
+        int nbCles;
+        Interne parent; // null pour la racine ; sert à rééquilibrer en remontant
+
+        Noeud(int capacite) {
+            cles = new Object[capacite + 1];
+        }
+    }
+
+    private static final class Feuille extends Noeud {
+        Feuille precedente;
+        Feuille suivante;
+
+        Feuille(int capacite) {
+            super(capacite);
+        }
+    }
+
+    private static final class Interne extends Noeud {
+        final Noeud[] enfants;
+
+        Interne(int capacite) {
+            super(capacite);
+            enfants = new Noeud[capacite + 2];
+        }
+    }
+
+    // Crée un arbre vide d'ordre 64, selon l'ordre naturel des éléments
+    public BArbre() {
+        this(ORDRE_PAR_DEFAUT, null);
+    }
+
+    // Crée un arbre vide dont les nœuds internes ont au plus ordre enfants
+    public BArbre(int ordre) {
+        this(ordre, null);
+    }
+
+    // Idem, avec les éléments ordonnés par cmp (null pour l'ordre naturel)
+    public BArbre(int ordre, Comparator<? super E> cmp) {
+        if (ordre < 4) {
+            throw new IllegalArgumentException("L'ordre doit valoir au moins 4 : " + ordre);
+        }
+        this.capacite = ordre - 1;
+        this.minimum = (ordre - 1) / 2;
+        this.cmp = cmp != null ? cmp : ORDRE_NATUREL;
+    }
+
+    public int getOrdre() {
+        return capacite + 1;
+    }
+
+    @Override
+    public int size() {
+        return taille;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return taille == 0;
+    }
+
+    @Override
+    public void clear() {
+        racine = null;
+        premiere = null;
+        taille = 0;
+        nbModifications++;
+    }
+
+    // Nombre de clés de noeud strictement inférieures à cle (recherche
+    // dichotomique dans le tableau du nœud)
+    @SuppressWarnings("unchecked")
+    private int borneInf(Noeud noeud, Object cle) {
+        int bas = 0;
+        int haut = noeud.nbCles;
+        while (bas < haut) {
+            int milieu = (bas + haut) >>> 1;
+            if (cmp.compare((E) noeud.cles[milieu], (E) cle) < 0) {
+                bas = milieu + 1;
+            } else {
+                haut = milieu;
+            }
+        }
+        return bas;
+    }
+
+    // Nombre de clés de noeud inférieures ou égales à cle
+    @SuppressWarnings("unchecked")
+    private int borneSup(Noeud noeud, Object cle) {
+        int bas = 0;
+        int haut = noeud.nbCles;
+        while (bas < haut) {
+            int milieu = (bas + haut) >>> 1;
+            if (cmp.compare((E) noeud.cles[milieu], (E) cle) <= 0) {
+                bas = milieu + 1;
+            } else {
+                haut = milieu;
+            }
+        }
+        return bas;
+    }
+
+    // ------------------------------------------------------------------
+    // Recherche
+    // ------------------------------------------------------------------
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean contains(Object cle) {
+        Noeud noeud = racine;
+        if (noeud == null) {
+            return false;
+        }
+        while (noeud instanceof Interne) {
+            noeud = ((Interne) noeud).enfants[borneInf(noeud, cle)];
+        }
+        Feuille feuille = (Feuille) noeud;
+        int i = borneInf(feuille, cle);
+        if (i == feuille.nbCles) {
+            // Le premier élément >= cle est au début de la feuille suivante
+            feuille = feuille.suivante;
+            i = 0;
+        }
+        return feuille != null && cmp.compare((E) cle, (E) feuille.cles[i]) == 0;
+    }
+
+    // ------------------------------------------------------------------
+    // Insertion
+    // ------------------------------------------------------------------
+
+    @Override
+    public boolean add(E cle) {
+        if (racine == null) {
+            premiere = new Feuille(capacite);
+            racine = premiere;
+        }
+        Noeud droite = inserer(racine, cle);
+        if (droite != null) {
+            // La racine a été coupée : l'arbre grandit d'un niveau
+            Interne nouvelle = new Interne(capacite);
+            nouvelle.cles[0] = separateur;
+            nouvelle.nbCles = 1;
+            nouvelle.enfants[0] = racine;
+            nouvelle.enfants[1] = droite;
+            racine.parent = nouvelle;
+            droite.parent = nouvelle;
+            racine = nouvelle;
+        }
+        separateur = null;
+        taille++;
+        nbModifications++;
+        return true;
+    }
+
+    // Insère cle sous noeud (après les éventuels doublons) ; si noeud déborde,
+    // il est coupé et la moitié droite est renvoyée, son séparateur étant
+    // laissé dans separateur. La récursion est de profondeur log_ordre(n).
+    private Noeud inserer(Noeud noeud, E cle) {
+        if (noeud instanceof Feuille) {
+            Feuille feuille = (Feuille) noeud;
+            int i = borneSup(feuille, cle);
+            System.arraycopy(feuille.cles, i, feuille.cles, i + 1, feuille.nbCles - i);
+            feuille.cles[i] = cle;
+            feuille.nbCles++;
+            return feuille.nbCles > capacite ? couperFeuille(feuille) : null;
+        }
+
+        Interne interne = (Interne) noeud;
+        int i = borneSup(interne, cle);
+        Noeud droite = inserer(interne.enfants[i], cle);
+        if (droite == null) {
+            return null;
+        }
+        System.arraycopy(interne.cles, i, interne.cles, i + 1, interne.nbCles - i);
+        System.arraycopy(interne.enfants, i + 1, interne.enfants, i + 2, interne.nbCles - i);
+        interne.cles[i] = separateur;
+        interne.enfants[i + 1] = droite;
+        droite.parent = interne;
+        interne.nbCles++;
+        return interne.nbCles > capacite ? couperInterne(interne) : null;
+    }
+
+    private Feuille couperFeuille(Feuille feuille) {
+        int milieu = feuille.nbCles / 2;
+        Feuille droite = new Feuille(capacite);
+        droite.nbCles = feuille.nbCles - milieu;
+        System.arraycopy(feuille.cles, milieu, droite.cles, 0, droite.nbCles);
+        Arrays.fill(feuille.cles, milieu, feuille.nbCles, null);
+        feuille.nbCles = milieu;
+
+        droite.suivante = feuille.suivante;
+        droite.precedente = feuille;
+        if (feuille.suivante != null) {
+            feuille.suivante.precedente = droite;
+        }
+        feuille.suivante = droite;
+
+        separateur = droite.cles[0];
+        return droite;
+    }
+
+    // La clé du milieu remonte dans le parent
+    private Interne couperInterne(Interne interne) {
+        int milieu = interne.nbCles / 2;
+        Interne droite = new Interne(capacite);
+        droite.nbCles = interne.nbCles - milieu - 1;
+        System.arraycopy(interne.cles, milieu + 1, droite.cles, 0, droite.nbCles);
+        System.arraycopy(interne.enfants, milieu + 1, droite.enfants, 0, droite.nbCles + 1);
+        for (int i = 0; i <= droite.nbCles; i++) {
+            droite.enfants[i].parent = droite;
+        }
+        separateur = interne.cles[milieu];
+        Arrays.fill(interne.cles, milieu, interne.nbCles, null);
+        Arrays.fill(interne.enfants, milieu + 1, interne.nbCles + 1, null);
+        interne.nbCles = milieu;
+        return droite;
+    }
+
+    // ------------------------------------------------------------------
+    // Suppression
+    // ------------------------------------------------------------------
+
+    @Override
+    public boolean remove(Object cle) {
+        if (racine == null || !supprimer(racine, cle)) {
+            return false;
+        }
+        terminerSuppression();
+        return true;
+    }
+
+    private void terminerSuppression() {
+        if (racine.nbCles == 0) {
+            // La racine vidée disparaît : l'arbre perd un niveau
+            if (racine instanceof Interne) {
+                racine = ((Interne) racine).enfants[0];
+                racine.parent = null;
+            } else {
+                racine = null;
+                premiere = null;
+            }
+        }
+        taille--;
+        nbModifications++;
+    }
+
+    // Supprime la clé d'indice i de feuille, dont l'itérateur connaît déjà la
+    // position : pas de descente depuis la racine, on rééquilibre en
+    // remontant par les parents tant qu'un nœud passe sous le minimum
+    private void supprimerA(Feuille feuille, int i) {
+        System.arraycopy(feuille.cles, i + 1, feuille.cles, i, feuille.nbCles - i - 1);
+        feuille.cles[--feuille.nbCles] = null;
+        Noeud noeud = feuille;
+        while (noeud.parent != null && noeud.nbCles < minimum) {
+            Interne parent = noeud.parent;
+            int j = 0;
+            while (parent.enfants[j] != noeud) {
+                j++;
+            }
+            reequilibrer(parent, j);
+            noeud = parent;
+        }
+        terminerSuppression();
+    }
+
+    // Supprime la première occurrence de cle sous noeud ; les enfants passés
+    // sous le minimum sont rééquilibrés en remontant
+    @SuppressWarnings("unchecked")
+    private boolean supprimer(Noeud noeud, Object cle) {
+        if (noeud instanceof Feuille) {
+            int i = borneInf(noeud, cle);
+            if (i == noeud.nbCles || cmp.compare((E) cle, (E) noeud.cles[i]) != 0) {
+                return false;
+            }
+            System.arraycopy(noeud.cles, i + 1, noeud.cles, i, noeud.nbCles - i - 1);
+            noeud.cles[--noeud.nbCles] = null;
+            return true;
+        }
+
+        Interne interne = (Interne) noeud;
+        // Un doublon de cle peut se trouver à droite d'un séparateur égal
+        for (int i = borneInf(interne, cle); i <= interne.nbCles; i++) {
+            if (supprimer(interne.enfants[i], cle)) {
+                reequilibrer(interne, i);
+                return true;
+            }
+            if (i == interne.nbCles || cmp.compare((E) cle, (E) interne.cles[i]) != 0) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    // Remet enfants[i] au minimum en empruntant une clé à un frère, ou en le
+    // fusionnant avec lui si aucun frère n'a de clé à céder
+    private void reequilibrer(Interne parent, int i) {
+        Noeud enfant = parent.enfants[i];
+        if (enfant.nbCles >= minimum) {
+            return;
+        }
+        Noeud gauche = i > 0 ? parent.enfants[i - 1] : null;
+        Noeud droite = i < parent.nbCles ? parent.enfants[i + 1] : null;
+        if (gauche != null && gauche.nbCles > minimum) {
+            emprunterAGauche(parent, i);
+        } else if (droite != null && droite.nbCles > minimum) {
+            emprunterADroite(parent, i);
+        } else if (gauche != null) {
+            fusionner(parent, i - 1);
+        } else {
+            fusionner(parent, i);
+        }
+    }
+
+    private void emprunterAGauche(Interne parent, int i) {
+        Noeud enfant = parent.enfants[i];
+        Noeud gauche = parent.enfants[i - 1];
+        System.arraycopy(enfant.cles, 0, enfant.cles, 1, enfant.nbCles);
+        if (enfant instanceof Feuille) {
+            enfant.cles[0] = gauche.cles[gauche.nbCles - 1];
+            parent.cles[i - 1] = enfant.cles[0];
+        } else {
+            // La clé du parent descend, la dernière clé du frère la remplace
+            Interne interne = (Interne) enfant;
+            Interne frere = (Interne) gauche;
+            System.arraycopy(interne.enfants, 0, interne.enfants, 1, interne.nbCles + 1);
+            interne.cles[0] = parent.cles[i - 1];
+            interne.enfants[0] = frere.enfants[frere.nbCles];
+            interne.enfants[0].parent = interne;
+            frere.enfants[frere.nbCles] = null;
+            parent.cles[i - 1] = frere.cles[frere.nbCles - 1];
+        }
+        enfant.nbCles++;
+        gauche.cles[--gauche.nbCles] = null;
+    }
+
+    private void emprunterADroite(Interne parent, int i) {
+        Noeud enfant = parent.enfants[i];
+        Noeud droite = parent.enfants[i + 1];
+        if (enfant instanceof Feuille) {
+            enfant.cles[enfant.nbCles] = droite.cles[0];
+            System.arraycopy(droite.cles, 1, droite.cles, 0, droite.nbCles - 1);
+            parent.cles[i] = droite.cles[0];
+        } else {
+            Interne interne = (Interne) enfant;
+            Interne frere = (Interne) droite;
+            interne.cles[interne.nbCles] = parent.cles[i];
+            interne.enfants[interne.nbCles + 1] = frere.enfants[0];
+            frere.enfants[0].parent = interne;
+            parent.cles[i] = frere.cles[0];
+            System.arraycopy(frere.cles, 1, frere.cles, 0, frere.nbCles - 1);
+            System.arraycopy(frere.enfants, 1, frere.enfants, 0, frere.nbCles);
+            frere.enfants[frere.nbCles] = null;
+        }
+        enfant.nbCles++;
+        droite.cles[--droite.nbCles] = null;
+    }
+
+    // Fusionne enfants[i + 1] dans enfants[i] et retire leur séparateur
+    private void fusionner(Interne parent, int i) {
+        Noeud gauche = parent.enfants[i];
+        Noeud droite = parent.enfants[i + 1];
+        if (gauche instanceof Feuille) {
+            System.arraycopy(droite.cles, 0, gauche.cles, gauche.nbCles, droite.nbCles);
+            gauche.nbCles += droite.nbCles;
+            Feuille feuille = (Feuille) gauche;
+            Feuille suivante = ((Feuille) droite).suivante;
+            feuille.suivante = suivante;
+            if (suivante != null) {
+                suivante.precedente = feuille;
+            }
+        } else {
+            Interne interne = (Interne) gauche;
+            Interne frere = (Interne) droite;
+            interne.cles[interne.nbCles] = parent.cles[i];
+            System.arraycopy(frere.cles, 0, interne.cles, interne.nbCles + 1, frere.nbCles);
+            System.arraycopy(frere.enfants, 0, interne.enfants, interne.nbCles + 1, frere.nbCles + 1);
+            for (int j = 0; j <= frere.nbCles; j++) {
+                frere.enfants[j].parent = interne;
+            }
+            interne.nbCles += frere.nbCles + 1;
+        }
+        System.arraycopy(parent.cles, i + 1, parent.cles, i, parent.nbCles - i - 1);
+        System.arraycopy(parent.enfants, i + 2, parent.enfants, i + 1, parent.nbCles - i - 1);
+        parent.nbCles--;
+        parent.cles[parent.nbCles] = null;
+        parent.enfants[parent.nbCles + 1] = null;
+    }
+
+    // ------------------------------------------------------------------
+    // Parcours
+    // ------------------------------------------------------------------
+
+    // Parcours dans l'ordre en suivant la chaîne des feuilles : chaque
+    // feuille est lue d'un seul tenant
+    @Override
+    public Iterator<E> iterator() {
+        return new BArbreIterateur();
+    }
+
+    private class BArbreIterateur implements Iterator<E> {
+        private Feuille feuille = premiere;
+        private int indice;
+        // Position du dernier élément rendu, que remove() supprime
+        private Feuille feuilleDernier;
+        private int indiceDernier;
+        private boolean peutSupprimer;
+        private int nbModificationsAttendu = nbModifications;
+
+        BArbreIterateur() {
+            sauterFeuillesVides();
+        }
+
+        private void sauterFeuillesVides() {
+            while (feuille != null && indice == feuille.nbCles) {
+                feuille = feuille.suivante;
+                indice = 0;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return feuille != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (nbModifications != nbModificationsAttendu) throw new ConcurrentModificationException();
+            if (feuille == null) throw new NoSuchElementException();
+            feuilleDernier = feuille;
+            indiceDernier = indice;
+            E e = (E) feuille.cles[indice++];
+            sauterFeuillesVides();
+            peutSupprimer = true;
+            return e;
+        }
+
+        // Supprime l'élément à sa place, sans redescendre depuis la racine. Un
+        // emprunt ou une fusion déplace des clés entre feuilleDernier et un
+        // frère, mais sans changer leur ordre, et une fusion se fait toujours
+        // dans la feuille de gauche : on repère donc le prochain élément par
+        // son rang depuis une feuille qui survit, la précédente de
+        // feuilleDernier ou, à défaut, feuilleDernier elle-même. Sans emprunt
+        // ni fusion, on reste dans la même feuille.
+        @Override
+        public void remove() {
+            if (!peutSupprimer) throw new IllegalStateException();
+            if (nbModifications != nbModificationsAttendu) throw new ConcurrentModificationException();
+            Feuille ancre = feuilleDernier.precedente != null ? feuilleDernier.precedente : feuilleDernier;
+            int rang = indice - 1; // L'élément supprimé précède le prochain
+            if (feuille != null) {
+                for (Feuille f = ancre; f != feuille; f = f.suivante) {
+                    rang += f.nbCles;
+                }
+            }
+            supprimerA(feuilleDernier, indiceDernier);
+            peutSupprimer = false;
+            nbModificationsAttendu = nbModifications;
+
+            if (feuille != null) {
+                feuille = ancre;
+                indice = rang;
+                while (indice >= feuille.nbCles) {
+                    indice -= feuille.nbCles;
+                    feuille = feuille.suivante;
+                }
+            }
+        }
+    }
+
+    public static void main(String... args) {
+        BArbre<Integer> arbre = new BArbre<>(4);
+        int[] elements = {1, 7, 8, 10, 15, 7, 12, 19, 31, 38, 3, 25};
+        for (int element : elements) {
+            arbre.add(element);
+        }
+        System.out.println("Arbre d'ordre 4 : " + arbre + " (" + arbre.size() + " éléments)");
+        System.out.println("Contient 12 ? " + arbre.contains(12) + ", contient 13 ? " + arbre.contains(13));
+        arbre.remove(7);
+        arbre.remove(19);
+        System.out.println("Après suppression de 7 et 19 : " + arbre);
+    }
+}
@@ -0,0 +1,263 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.RandomAccess;
+import java.util.zip.CRC32C;
+
+// Instantané binaire d'un arbre d'entiers (ARN<Integer>, ABR<Integer>...) :
+//
+//   0   magie "ARNS"            (int)
+//   4   version                 (int)
+//   8   nombre de clés n        (long)
+//   16  CRC32C des clés         (long)
+//   24  n clés triées           (int chacune, gros-boutiste)
+//
+// L'écriture passe par un FileChannel, dans un fichier temporaire renommé de
+// façon atomique à la fin : un instantané est complet ou absent. Le
+// chargement projette le fichier en mémoire (mmap) sans le copier ; on peut
+// alors soit reconstruire un arbre en O(n) (depuisTrie, sans rééquilibrage),
+// soit répondre directement aux recherches par dichotomie dans le tampon
+// projeté, avant même d'avoir lu tout le fichier.
+public final class Instantane {
+
+    private static final int MAGIE = 0x41524E53; // "ARNS"
+    private static final int VERSION = 1;
+    private static final int TAILLE_ENTETE = 24;
+    private static final int TAILLE_BLOC = 1 << 20;
+
+    private final Path fichier;
+    private final IntBuffer cles; // Vue sur la partie projetée, en lecture seule
+    private final int taille;
+
+    private Instantane(Path fichier, IntBuffer cles) {
+        this.fichier = fichier;
+        this.cles = cles;
+        this.taille = cles.limit();
+    }
+
+    // ------------------------------------------------------------------
+    // Écriture
+    // ------------------------------------------------------------------
+
+    // Écrit les éléments de arbre, dont l'itération doit être triée (c'est le
+    // cas de ARN, ABR et BArbre), dans fichier
+    public static void ecrire(Collection<Integer> arbre, Path fichier) throws IOException {
+        Path temporaire = fichier.resolveSibling(fichier.getFileName() + ".tmp");
+        CRC32C crc = new CRC32C();
+        long nbCles = 0;
+        try (FileChannel canal = FileChannel.open(temporaire, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer bloc = ByteBuffer.allocateDirect(TAILLE_BLOC);
+            canal.position(TAILLE_ENTETE);
+            boolean premier = true;
+            int precedente = 0;
+            for (int cle : arbre) {
+                if (!premier && cle < precedente) {
+                    throw new IllegalArgumentException("Les éléments ne sont pas triés : " + cle + " après " + precedente);
+                }
+                premier = false;
+                precedente = cle;
+                if (!bloc.hasRemaining()) {
+                    viderBloc(canal, bloc, crc);
+                }
+                bloc.putInt(cle);
+                nbCles++;
+            }
+            viderBloc(canal, bloc, crc);
+
+            ByteBuffer entete = ByteBuffer.allocate(TAILLE_ENTETE);
+            entete.putInt(MAGIE).putInt(VERSION).putLong(nbCles).putLong(crc.getValue()).flip();
+            while (entete.hasRemaining()) {
+                canal.write(entete, entete.position());
+            }
+            canal.force(true);
+        }
+        Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void viderBloc(FileChannel canal, ByteBuffer bloc, CRC32C crc) throws IOException {
+        bloc.flip();
+        crc.update(bloc.duplicate());
+        while (bloc.hasRemaining()) {
+            canal.write(bloc);
+        }
+        bloc.clear();
+    }
+
+    // ------------------------------------------------------------------
+    // Lecture
+    // ------------------------------------------------------------------
+
+    // Projette fichier en mémoire ; si verifier est vrai, toutes les clés sont
+    // lues une fois pour contrôler la somme CRC32C
+    public static Instantane ouvrir(Path fichier, boolean verifier) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            long tailleFichier = canal.size();
+            if (tailleFichier < TAILLE_ENTETE) {
+                throw new IOException(fichier + " : instantané tronqué");
+            }
+            ByteBuffer entete = ByteBuffer.allocate(TAILLE_ENTETE);
+            while (entete.hasRemaining()) {
+                if (canal.read(entete, entete.position()) < 0) {
+                    throw new IOException(fichier + " : instantané tronqué");
+                }
+            }
+            entete.flip();
+            if (entete.getInt() != MAGIE) {
+                throw new IOException(fichier + " n'est pas un instantané d'arbre");
+            }
+            int version = entete.getInt();
+            if (version != VERSION) {
+                throw new IOException(fichier + " : version " + version + " non prise en charge");
+            }
+            long nbCles = entete.getLong();
+            long crcAttendu = entete.getLong();
+            if (nbCles < 0 || tailleFichier != TAILLE_ENTETE + 4 * nbCles) {
+                throw new IOException(fichier + " : taille incohérente avec l'en-tête (" + nbCles + " clés)");
+            }
+            if (4 * nbCles > Integer.MAX_VALUE) {
+                // Un MappedByteBuffer est limité à 2 Go
+                throw new IOException(fichier + " : trop de clés pour une seule projection (" + nbCles + ")");
+            }
+
+            // La projection reste valide après la fermeture du canal
+            MappedByteBuffer projection = canal.map(FileChannel.MapMode.READ_ONLY, TAILLE_ENTETE, 4 * nbCles);
+            if (verifier) {
+                CRC32C crc = new CRC32C();
+                crc.update(projection.duplicate());
+                if (crc.getValue() != crcAttendu) {
+                    throw new IOException(fichier + " : somme de contrôle incorrecte");
+                }
+            }
+            return new Instantane(fichier, projection.asIntBuffer());
+        }
+    }
+
+    // Reconstruit un ARN en O(n) : les clés sont déjà triées
+    public static ARN<Integer> chargerARN(Path fichier) throws IOException {
+        return ARN.depuisTrie(ouvrir(fichier, true).enListe());
+    }
+
+    // Reconstruit un ABR parfaitement équilibré en O(n)
+    public static ABR<Integer> chargerABR(Path fichier) throws IOException {
+        return ABR.depuisTrie(ouvrir(fichier, true).enListe());
+    }
+
+    // ------------------------------------------------------------------
+    // Requêtes en lecture seule sur le tampon projeté
+    // ------------------------------------------------------------------
+
+    public Path getFichier() {
+        return fichier;
+    }
+
+    public int size() {
+        return taille;
+    }
+
+    // Clé de rang k (0 <= k < size())
+    public int get(int k) {
+        if (k < 0 || k >= taille) {
+            throw new IndexOutOfBoundsException("Rang " + k + " hors de [0, " + taille + "[");
+        }
+        return cles.get(k);
+    }
+
+    public boolean contains(int cle) {
+        int rang = rang(cle);
+        return rang < taille && cles.get(rang) == cle;
+    }
+
+    // Nombre de clés strictement inférieures à cle, par dichotomie
+    public int rang(int cle) {
+        int bas = 0;
+        int haut = taille;
+        while (bas < haut) {
+            int milieu = (bas + haut) >>> 1;
+            if (cles.get(milieu) < cle) {
+                bas = milieu + 1;
+            } else {
+                haut = milieu;
+            }
+        }
+        return bas;
+    }
+
+    // Nombre de clés c telles que bas <= c < haut
+    public int compter(int bas, int haut) {
+        return bas >= haut ? 0 : rang(haut) - rang(bas);
+    }
+
+    // Clés c telles que bas <= c < haut, dans l'ordre, lues dans le tampon
+    public PrimitiveIterator.OfInt intervalle(int bas, int haut) {
+        int debut = rang(bas);
+        int fin = bas >= haut ? debut : rang(haut);
+        return new PrimitiveIterator.OfInt() {
+            private int i = debut;
+
+            @Override
+            public boolean hasNext() {
+                return i < fin;
+            }
+
+            @Override
+            public int nextInt() {
+                if (i >= fin) throw new NoSuchElementException();
+                return cles.get(i++);
+            }
+        };
+    }
+
+    // Vue en liste (boxée à la lecture) des clés, pour depuisTrie
+    public List<Integer> enListe() {
+        return new Vue();
+    }
+
+    private final class Vue extends AbstractList<Integer> implements RandomAccess {
+        @Override
+        public Integer get(int index) {
+            return Instantane.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return taille;
+        }
+    }
+
+    public static void main(String... args) throws IOException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path fichier = Files.createTempFile("arn", ".instantane");
+        ARN<Integer> arbre = new ARN<>();
+        for (int i = 0; i < n; i++) {
+            arbre.add(2 * i);
+        }
+
+        long debut = System.nanoTime();
+        ecrire(arbre, fichier);
+        System.out.printf("Écriture de %,d clés : %d ms (%,d octets)%n", n,
+                (System.nanoTime() - debut) / 1_000_000, Files.size(fichier));
+
+        debut = System.nanoTime();
+        Instantane instantane = ouvrir(fichier, false);
+        boolean trouve = instantane.contains(2 * (n / 2));
+        System.out.printf("Projection et première recherche (%b) : %d µs%n", trouve, (System.nanoTime() - debut) / 1000);
+
+        debut = System.nanoTime();
+        ARN<Integer> recharge = chargerARN(fichier);
+        System.out.printf("Reconstruction de l'ARN en O(n) : %d ms (%,d éléments)%n",
+                (System.nanoTime() - debut) / 1_000_000, recharge.size());
+        Files.delete(fichier);
+    }
+}
@@ -0,0 +1,426 @@
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+// Arbre rouge-noir spécialisé pour des clés long. Les clés sont stockées et
+// comparées directement, sans boxing ni appel à compareTo ; la recherche
+// n'alloue rien. Mêmes règles que ARN<Long> : les doublons sont conservés
+// (insérés à gauche) et l'itération se fait dans l'ordre croissant.
+public class LongARN {
+
+    static final class Noeud {
+        long cle;
+        Noeud gauche;
+        Noeud droite;
+        Noeud parent;
+        boolean couleur;
+
+        Noeud(long cle, Noeud parent) {
+            this.cle = cle;
+            this.parent = parent;
+        }
+    }
+
+    static final boolean ROUGE = false;
+    static final boolean NOIR = true;
+
+    private Noeud racine;
+    private int taille;
+    private int nbModifications;
+
+    // Ajoute une clé (les doublons sont acceptés)
+    public boolean add(long cle) {
+        Noeud parent = null;
+        Noeud noeud = racine;
+        boolean aGauche = false;
+        while (noeud != null) {
+            parent = noeud;
+            aGauche = cle <= noeud.cle;
+            noeud = aGauche ? noeud.gauche : noeud.droite;
+        }
+
+        Noeud nouveau = new Noeud(cle, parent);
+        nouveau.couleur = ROUGE;
+        if (parent == null) {
+            racine = nouveau;
+        } else if (aGauche) {
+            parent.gauche = nouveau;
+        } else {
+            parent.droite = nouveau;
+        }
+
+        corrigerApresInsertion(nouveau);
+        taille++;
+        nbModifications++;
+        return true;
+    }
+
+    // Recherche sans allocation
+    public boolean contains(long cle) {
+        return rechercherNoeud(cle) != null;
+    }
+
+    private Noeud rechercherNoeud(long cle) {
+        Noeud noeud = racine;
+        while (noeud != null) {
+            if (cle < noeud.cle) {
+                noeud = noeud.gauche;
+            } else if (cle > noeud.cle) {
+                noeud = noeud.droite;
+            } else {
+                return noeud;
+            }
+        }
+        return null;
+    }
+
+    // Supprime une occurrence de la clé
+    public boolean remove(long cle) {
+        Noeud noeud = rechercherNoeud(cle);
+        if (noeud == null) {
+            return false;
+        }
+        supprimerNoeud(noeud);
+        return true;
+    }
+
+    public int size() {
+        return taille;
+    }
+
+    public boolean isEmpty() {
+        return racine == null;
+    }
+
+    public void clear() {
+        racine = null;
+        taille = 0;
+        nbModifications++;
+    }
+
+    public long first() {
+        if (racine == null) throw new NoSuchElementException();
+        return minimum(racine).cle;
+    }
+
+    public long last() {
+        if (racine == null) throw new NoSuchElementException();
+        return maximum(racine).cle;
+    }
+
+    public long[] toArray() {
+        long[] resultat = new long[taille];
+        int i = 0;
+        for (Noeud noeud = racine == null ? null : minimum(racine); noeud != null; noeud = successeur(noeud)) {
+            resultat[i++] = noeud.cle;
+        }
+        return resultat;
+    }
+
+    public PrimitiveIterator.OfLong iterator() {
+        return new Iterateur(racine == null ? null : minimum(racine), false);
+    }
+
+    public PrimitiveIterator.OfLong descendingIterator() {
+        return new Iterateur(racine == null ? null : maximum(racine), true);
+    }
+
+    // Supprime le nœud et renvoie celui qui porte désormais la clé suivante
+    private Noeud supprimerNoeud(Noeud z) {
+        Noeud y = z;
+        Noeud suivant;
+        if (z.gauche != null && z.droite != null) {
+            // La clé du successeur est recopiée dans z, c'est lui qu'on détache
+            y = minimum(z.droite);
+            z.cle = y.cle;
+            suivant = z;
+        } else {
+            suivant = successeur(z);
+        }
+
+        // y a au plus un enfant : on le remplace par cet enfant
+        Noeud x = y.gauche != null ? y.gauche : y.droite;
+        Noeud parentX = y.parent;
+        if (x != null) {
+            x.parent = parentX;
+        }
+        if (parentX == null) {
+            racine = x;
+        } else if (y == parentX.gauche) {
+            parentX.gauche = x;
+        } else {
+            parentX.droite = x;
+        }
+
+        if (y.couleur == NOIR) {
+            corrigerApresSuppression(x, parentX);
+        }
+        taille--;
+        nbModifications++;
+        return suivant;
+    }
+
+    private void corrigerApresInsertion(Noeud noeud) {
+        while (noeud.parent != null && noeud.parent.couleur == ROUGE) {
+            Noeud parent = noeud.parent;
+            Noeud grandParent = parent.parent;
+            if (parent == grandParent.gauche) {
+                Noeud oncle = grandParent.droite;
+                if (oncle != null && oncle.couleur == ROUGE) {
+                    parent.couleur = NOIR;
+                    oncle.couleur = NOIR;
+                    grandParent.couleur = ROUGE;
+                    noeud = grandParent;
+                } else {
+                    if (noeud == parent.droite) {
+                        noeud = parent;
+                        rotationGauche(noeud);
+                        parent = noeud.parent;
+                    }
+                    parent.couleur = NOIR;
+                    grandParent.couleur = ROUGE;
+                    rotationDroite(grandParent);
+                }
+            } else {
+                Noeud oncle = grandParent.gauche;
+                if (oncle != null && oncle.couleur == ROUGE) {
+                    parent.couleur = NOIR;
+                    oncle.couleur = NOIR;
+                    grandParent.couleur = ROUGE;
+                    noeud = grandParent;
+                } else {
+                    if (noeud == parent.gauche) {
+                        noeud = parent;
+                        rotationDroite(noeud);
+                        parent = noeud.parent;
+                    }
+                    parent.couleur = NOIR;
+                    grandParent.couleur = ROUGE;
+                    rotationGauche(grandParent);
+                }
+            }
+        }
+        racine.couleur = NOIR;
+    }
+
+    // Correction du "double noir" porté par x (éventuellement null), fils de parent
+    private void corrigerApresSuppression(Noeud x, Noeud parent) {
+        while (x != racine && estNoir(x)) {
+            if (x == parent.gauche) {
+                Noeud frere = parent.droite;
+                if (frere.couleur == ROUGE) {
+                    frere.couleur = NOIR;
+                    parent.couleur = ROUGE;
+                    rotationGauche(parent);
+                    frere = parent.droite;
+                }
+                if (estNoir(frere.gauche) && estNoir(frere.droite)) {
+                    frere.couleur = ROUGE;
+                    x = parent;
+                    parent = x.parent;
+                } else {
+                    if (estNoir(frere.droite)) {
+                        frere.gauche.couleur = NOIR;
+                        frere.couleur = ROUGE;
+                        rotationDroite(frere);
+                        frere = parent.droite;
+                    }
+                    frere.couleur = parent.couleur;
+                    parent.couleur = NOIR;
+                    frere.droite.couleur = NOIR;
+                    rotationGauche(parent);
+                    x = racine;
+                }
+            } else {
+                Noeud frere = parent.gauche;
+                if (frere.couleur == ROUGE) {
+                    frere.couleur = NOIR;
+                    parent.couleur = ROUGE;
+                    rotationDroite(parent);
+                    frere = parent.gauche;
+                }
+                if (estNoir(frere.gauche) && estNoir(frere.droite)) {
+                    frere.couleur = ROUGE;
+                    x = parent;
+                    parent = x.parent;
+                } else {
+                    if (estNoir(frere.gauche)) {
+                        frere.droite.couleur = NOIR;
+                        frere.couleur = ROUGE;
+                        rotationGauche(frere);
+                        frere = parent.gauche;
+                    }
+                    frere.couleur = parent.couleur;
+                    parent.couleur = NOIR;
+                    frere.gauche.couleur = NOIR;
+                    rotationDroite(parent);
+                    x = racine;
+                }
+            }
+        }
+        if (x != null) {
+            x.couleur = NOIR;
+        }
+    }
+
+    private static boolean estNoir(Noeud noeud) {
+        return noeud == null || noeud.couleur == NOIR;
+    }
+
+    private void rotationGauche(Noeud noeud) {
+        Noeud enfantDroit = noeud.droite;
+        noeud.droite = enfantDroit.gauche;
+        if (enfantDroit.gauche != null) {
+            enfantDroit.gauche.parent = noeud;
+        }
+        remplacerEnfantDuParent(noeud.parent, noeud, enfantDroit);
+        enfantDroit.gauche = noeud;
+        noeud.parent = enfantDroit;
+    }
+
+    private void rotationDroite(Noeud noeud) {
+        Noeud enfantGauche = noeud.gauche;
+        noeud.gauche = enfantGauche.droite;
+        if (enfantGauche.droite != null) {
+            enfantGauche.droite.parent = noeud;
+        }
+        remplacerEnfantDuParent(noeud.parent, noeud, enfantGauche);
+        enfantGauche.droite = noeud;
+        noeud.parent = enfantGauche;
+    }
+
+    private void remplacerEnfantDuParent(Noeud parent, Noeud ancienEnfant, Noeud nouvelEnfant) {
+        if (parent == null) {
+            racine = nouvelEnfant;
+        } else if (parent.gauche == ancienEnfant) {
+            parent.gauche = nouvelEnfant;
+        } else {
+            parent.droite = nouvelEnfant;
+        }
+        nouvelEnfant.parent = parent;
+    }
+
+    private static Noeud minimum(Noeud noeud) {
+        while (noeud.gauche != null) {
+            noeud = noeud.gauche;
+        }
+        return noeud;
+    }
+
+    private static Noeud maximum(Noeud noeud) {
+        while (noeud.droite != null) {
+            noeud = noeud.droite;
+        }
+        return noeud;
+    }
+
+    private static Noeud successeur(Noeud noeud) {
+        if (noeud.droite != null) {
+            return minimum(noeud.droite);
+        }
+        Noeud parent = noeud.parent;
+        while (parent != null && noeud == parent.droite) {
+            noeud = parent;
+            parent = parent.parent;
+        }
+        return parent;
+    }
+
+    private static Noeud predecesseur(Noeud noeud) {
+        if (noeud.gauche != null) {
+            return maximum(noeud.gauche);
+        }
+        Noeud parent = noeud.parent;
+        while (parent != null && noeud == parent.gauche) {
+            noeud = parent;
+            parent = parent.parent;
+        }
+        return parent;
+    }
+
+    // Curseur sur les clés, sans boxing : nextLong() renvoie un int
+    private class Iterateur implements PrimitiveIterator.OfLong {
+        private Noeud suivant;
+        private Noeud dernier;
+        private final boolean descendant;
+        private int nbModificationsAttendu = nbModifications;
+
+        Iterateur(Noeud premier, boolean descendant) {
+            this.suivant = premier;
+            this.descendant = descendant;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return suivant != null;
+        }
+
+        @Override
+        public long nextLong() {
+            if (suivant == null) throw new NoSuchElementException();
+            if (nbModifications != nbModificationsAttendu) throw new ConcurrentModificationException();
+            dernier = suivant;
+            suivant = descendant ? predecesseur(suivant) : successeur(suivant);
+            return dernier.cle;
+        }
+
+        @Override
+        public void remove() {
+            if (dernier == null) throw new IllegalStateException();
+            if (nbModifications != nbModificationsAttendu) throw new ConcurrentModificationException();
+            Noeud apres = supprimerNoeud(dernier);
+            if (apres == dernier && !descendant) {
+                suivant = dernier;
+            }
+            dernier = null;
+            nbModificationsAttendu = nbModifications;
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (PrimitiveIterator.OfLong it = iterator(); it.hasNext(); ) {
+            sb.append(it.nextLong());
+            if (it.hasNext()) {
+                sb.append(", ");
+            }
+        }
+        return sb.append(']').toString();
+    }
+
+    // Vérifie sur des opérations aléatoires que LongARN et ARN<Long> ont le
+    // même contenu, dans le même ordre et avec les mêmes doublons
+    public static void main(String... args) {
+        Random rand = new Random(42);
+        LongARN primitif = new LongARN();
+        ARN<Long> reference = new ARN<>();
+
+        for (int i = 0; i < 100000; i++) {
+            long cle = rand.nextInt(1000);
+            if (rand.nextInt(3) == 0) {
+                if (primitif.remove(cle) != reference.remove(cle)) {
+                    throw new IllegalStateException("remove(" + cle + ") diffère");
+                }
+            } else {
+                primitif.add(cle);
+                reference.add(cle);
+            }
+            if (primitif.contains(cle) != reference.contains(cle)) {
+                throw new IllegalStateException("contains(" + cle + ") diffère");
+            }
+        }
+
+        PrimitiveIterator.OfLong it = primitif.iterator();
+        for (long cle : reference) {
+            if (!it.hasNext() || it.nextLong() != cle) {
+                throw new IllegalStateException("Ordre d'itération différent");
+            }
+        }
+        if (it.hasNext() || primitif.size() != reference.size()) {
+            throw new IllegalStateException("Tailles différentes");
+        }
+        System.out.println("LongARN et ARN<Long> sont identiques (" + primitif.size() + " éléments).");
+    }
+}
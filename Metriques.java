@@ -0,0 +1,252 @@
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// Instantané des métriques d'un arbre (ARN, ABR) : compteurs d'opérations,
+// de comparaisons, de rotations, de recolorations, de tours de boucle des
+// corrections rouge-noir, de nœuds créés et de reconstructions (ABR bouc
+// émissaire), plus la forme de l'arbre au moment de l'instantané (taille,
+// hauteur, hauteur noire, histogramme des profondeurs).
+//
+// Les compteurs ne sont tenus que si la JVM est lancée avec
+// -Darbres.metriques=true : ACTIVES est une constante, et le JIT élimine
+// tout le code d'instrumentation quand elle est fausse. Sans l'option, ils
+// restent à 0 ; la forme de l'arbre, calculée à la demande en O(n), est
+// toujours disponible.
+public final class Metriques {
+
+    public static final boolean ACTIVES = Boolean.getBoolean("arbres.metriques");
+
+    // Compteurs modifiables d'un arbre, incrémentés par l'arbre lui-même sous
+    // la garde de ACTIVES. Les opérations, comparaisons et rotations peuvent
+    // être comptées par plusieurs threads à la fois : lectures concurrentes
+    // (contains sur un arbre partagé, lectures de ARNConcurrent, optimistes
+    // ou sous le verrou partagé) et tâches parallèles de union, intersection
+    // et difference. Ce sont des LongAdder, qui ne perdent pas d'incrément.
+    // Les autres compteurs ne bougent que dans add, remove et les
+    // reconstructions, qui demandent un accès exclusif à l'arbre : comme
+    // lui, ils ne sont pas synchronisés.
+    static final class Compteurs {
+        final LongAdder operations = new LongAdder(); // add, remove, contains
+        final LongAdder comparaisons = new LongAdder(); // Y compris celles des vues, curseurs et opérations ensemblistes
+        final LongAdder rotations = new LongAdder(); // Rotations des corrections, de join ou de l'évasement
+        long recolorations; // Changements de couleur faits par les corrections
+        long iterationsCorrection; // Tours des boucles de correction après insertion et suppression
+        long noeudsCrees;
+        long reconstructions; // Sous-arbres reconstruits par un ABR bouc émissaire
+
+        void reinitialiser() {
+            recolorations = iterationsCorrection = noeudsCrees = reconstructions = 0;
+            operations.reset();
+            comparaisons.reset();
+            rotations.reset();
+        }
+    }
+
+    // Arbre capable de fournir ses métriques
+    public interface Source {
+        Metriques metriques();
+
+        void reinitialiserMetriques();
+    }
+
+    // Interface JMX : un arbre enregistré par enregistrer() apparaît dans
+    // jconsole sous arbres:type=Arbre, l'attribut Metriques étant l'instantané
+    // (null une fois l'arbre récupéré par le ramasse-miettes)
+    public interface ArbreMXBean {
+        Metriques getMetriques();
+
+        void reinitialiser();
+    }
+
+    // La sonde ne retient l'arbre que faiblement : l'enregistrer ne le garde
+    // pas en vie
+    private static final class Sonde implements ArbreMXBean {
+        private final WeakReference<Source> source;
+
+        Sonde(Source source) {
+            this.source = new WeakReference<>(source);
+        }
+
+        @Override
+        public Metriques getMetriques() {
+            Source arbre = source.get();
+            return arbre == null ? null : arbre.metriques();
+        }
+
+        @Override
+        public void reinitialiser() {
+            Source arbre = source.get();
+            if (arbre != null) {
+                arbre.reinitialiserMetriques();
+            }
+        }
+    }
+
+    // Enregistre source auprès du serveur MBean de la plateforme sous le nom
+    // arbres:type=Arbre,name=nom, en remplaçant un arbre déjà enregistré sous
+    // ce nom. L'entrée JMX reste jusqu'à retirer(nom), même si l'arbre est
+    // récupéré entre-temps.
+    public static ObjectName enregistrer(String nom, Source source) {
+        try {
+            ObjectName nomJmx = nomJmx(nom);
+            MBeanServer serveur = ManagementFactory.getPlatformMBeanServer();
+            if (serveur.isRegistered(nomJmx)) {
+                serveur.unregisterMBean(nomJmx);
+            }
+            serveur.registerMBean(new Sonde(source), nomJmx);
+            return nomJmx;
+        } catch (JMException e) {
+            throw new IllegalStateException("Impossible d'enregistrer l'arbre " + nom + " auprès de JMX", e);
+        }
+    }
+
+    public static void retirer(String nom) {
+        try {
+            ObjectName nomJmx = nomJmx(nom);
+            MBeanServer serveur = ManagementFactory.getPlatformMBeanServer();
+            if (serveur.isRegistered(nomJmx)) {
+                serveur.unregisterMBean(nomJmx);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Impossible de retirer l'arbre " + nom + " de JMX", e);
+        }
+    }
+
+    private static ObjectName nomJmx(String nom) throws JMException {
+        return new ObjectName("arbres:type=Arbre,name=" + ObjectName.quote(nom));
+    }
+
+    private final long operations;
+    private final long comparaisons;
+    private final long rotations;
+    private final long recolorations;
+    private final long iterationsCorrection;
+    private final long noeudsCrees;
+    private final long reconstructions;
+    private final int taille;
+    private final int hauteur;
+    private final int hauteurNoire;
+    private final int[] histogrammeProfondeurs;
+
+    // compteurs peut être null (instrumentation désactivée) ; hauteurNoire
+    // vaut -1 pour un arbre sans couleurs ; histogramme[p] est le nombre de
+    // nœuds de profondeur p (la racine est à la profondeur 0)
+    Metriques(Compteurs compteurs, int taille, int hauteurNoire, int[] histogramme) {
+        Compteurs c = compteurs != null ? compteurs : new Compteurs();
+        this.operations = c.operations.sum();
+        this.comparaisons = c.comparaisons.sum();
+        this.rotations = c.rotations.sum();
+        this.recolorations = c.recolorations;
+        this.iterationsCorrection = c.iterationsCorrection;
+        this.noeudsCrees = c.noeudsCrees;
+        this.reconstructions = c.reconstructions;
+        this.taille = taille;
+        this.hauteur = histogramme.length;
+        this.hauteurNoire = hauteurNoire;
+        this.histogrammeProfondeurs = histogramme;
+    }
+
+    // Ajoute un nœud de profondeur donnée à l'histogramme, agrandi au besoin
+    static int[] compterProfondeur(int[] histogramme, int profondeur) {
+        if (profondeur >= histogramme.length) {
+            histogramme = Arrays.copyOf(histogramme, Math.max(profondeur + 1, 2 * histogramme.length));
+        }
+        histogramme[profondeur]++;
+        return histogramme;
+    }
+
+    // Retire les cases vides laissées en fin d'histogramme par compterProfondeur
+    static int[] ajuster(int[] histogramme) {
+        int fin = histogramme.length;
+        while (fin > 0 && histogramme[fin - 1] == 0) {
+            fin--;
+        }
+        return Arrays.copyOf(histogramme, fin);
+    }
+
+    public long getOperations() {
+        return operations;
+    }
+
+    public long getComparaisons() {
+        return comparaisons;
+    }
+
+    public double getComparaisonsParOperation() {
+        return operations == 0 ? 0 : (double) comparaisons / operations;
+    }
+
+    public long getRotations() {
+        return rotations;
+    }
+
+    public long getRecolorations() {
+        return recolorations;
+    }
+
+    public long getIterationsCorrection() {
+        return iterationsCorrection;
+    }
+
+    public long getNoeudsCrees() {
+        return noeudsCrees;
+    }
+
+    public long getReconstructions() {
+        return reconstructions;
+    }
+
+    public int getTaille() {
+        return taille;
+    }
+
+    // Nombre de niveaux : 0 pour un arbre vide, 1 pour une racine seule
+    public int getHauteur() {
+        return hauteur;
+    }
+
+    // Nombre de nœuds noirs d'un chemin de la racine à une feuille ; -1 si
+    // l'arbre n'est pas coloré
+    public int getHauteurNoire() {
+        return hauteurNoire;
+    }
+
+    public int[] getHistogrammeProfondeurs() {
+        return histogrammeProfondeurs.clone();
+    }
+
+    // Profondeur moyenne d'un nœud : le nombre moyen de nœuds lus par une
+    // recherche réussie, donc de défauts de cache possibles, est cette
+    // profondeur plus un
+    public double getProfondeurMoyenne() {
+        long somme = 0;
+        long nbNoeuds = 0;
+        for (int p = 0; p < histogrammeProfondeurs.length; p++) {
+            somme += (long) p * histogrammeProfondeurs[p];
+            nbNoeuds += histogrammeProfondeurs[p];
+        }
+        return nbNoeuds == 0 ? 0 : (double) somme / nbNoeuds;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%,d opérations, %.2f comparaisons/op, %,d rotations, %,d recolorations, "
+                        + "%,d tours de correction, %,d nœuds créés ; taille %,d, hauteur %d", operations,
+                getComparaisonsParOperation(), rotations, recolorations, iterationsCorrection, noeudsCrees,
+                taille, hauteur));
+        if (reconstructions > 0) {
+            sb.append(String.format(", %,d reconstructions", reconstructions));
+        }
+        if (hauteurNoire >= 0) {
+            sb.append(", hauteur noire ").append(hauteurNoire);
+        }
+        sb.append(String.format(", profondeur moyenne %.2f", getProfondeurMoyenne()));
+        return sb.toString();
+    }
+}
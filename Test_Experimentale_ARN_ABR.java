@@ -1,36 +1,33 @@
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.Random;
+import java.util.function.Supplier;
 
 public class Test_Experimentale_ARN_ABR {
 
-    private static void generateWorstCase(ARN<Integer> arbre, int n) {
-        for (int i = 0; i < n; i++) {
-            arbre.add(i);
-        }
-    }
+    // Graine fixe : deux exécutions insèrent les mêmes clés. Pour des mesures
+    // fiables (préchauffage, forks, profileur GC), voir le module benchmarks/
+    private static final long GRAINE = 42;
 
-    private static void generateWorstCase(ABR<Integer> arbre, int n) {
+    // Les structures (ARN, ABR, BArbre, ARN multiensemble, ABR bouc
+    // émissaire) sont mesurées à travers l'interface Collection
+    private static void generateWorstCase(Collection<Integer> arbre, int n) {
         for (int i = 0; i < n; i++) {
             arbre.add(i);
         }
     }
 
-    private static void generateAverageCase(ARN<Integer> arbre, int n) {
-        Random rand = new Random();
+    private static void generateAverageCase(Collection<Integer> arbre, int n) {
+        Random rand = new Random(GRAINE);
         for (int i = 0; i < n; i++) {
             arbre.add(rand.nextInt(n));
         }
     }
 
-    private static void generateAverageCase(ABR<Integer> arbre, int n) {
-        Random rand = new Random();
-        for (int i = 0; i < n; i++) {
-            arbre.add(rand.nextInt(n));
-        }
-    }
-
-    private static long measureInsertionTime(ARN<Integer> arbre, int n, boolean isWorstCase) {
+    private static long measureInsertionTime(Collection<Integer> arbre, int n, boolean isWorstCase) {
         long startTime = System.nanoTime();
         if (isWorstCase) {
             generateWorstCase(arbre, n);
@@ -41,40 +38,54 @@ public class Test_Experimentale_ARN_ABR {
         return endTime - startTime;
     }
 
-    private static long measureInsertionTime(ABR<Integer> arbre, int n, boolean isWorstCase) {
+    private static long measureSearchTime(Collection<Integer> arbre, int n) {
         long startTime = System.nanoTime();
-        if (isWorstCase) {
-            generateWorstCase(arbre, n);
-        } else {
-            generateAverageCase(arbre, n);
+        for (int i = 0; i < 2 * n; i++) {
+            arbre.contains(i);
         }
         long endTime = System.nanoTime();
         return endTime - startTime;
     }
 
-    private static long measureSearchTime(ARN<Integer> arbre, int n) {
+    // Parcours complet dans l'ordre ; la somme empêche le JIT d'éliminer la boucle
+    private static long measureScanTime(Collection<Integer> arbre) {
         long startTime = System.nanoTime();
-        for (int i = 0; i < 2 * n; i++) {
-            arbre.contains(i);
+        long somme = 0;
+        for (int cle : arbre) {
+            somme += cle;
         }
         long endTime = System.nanoTime();
+        if (somme == 42) {
+            System.out.println();
+        }
         return endTime - startTime;
     }
 
-    private static long measureSearchTime(ABR<Integer> arbre, int n) {
-        long startTime = System.nanoTime();
-        for (int i = 0; i < 2 * n; i++) {
-            arbre.contains(i);
+    // Avec -Darbres.metriques=true, affiche à côté du temps mesuré les
+    // compteurs accumulés par l'arbre depuis la mesure précédente : plus de
+    // comparaisons par opération, ou autant de comparaisons et une
+    // profondeur moyenne plus grande (plus de défauts de cache) ?
+    private static void afficherMetriques(Collection<Integer> arbre, long duree) {
+        if (Metriques.ACTIVES && arbre instanceof Metriques.Source) {
+            Metriques.Source source = (Metriques.Source) arbre;
+            System.out.printf("    %,d ns ; %s%n", duree, source.metriques());
+            source.reinitialiserMetriques();
         }
-        long endTime = System.nanoTime();
-        return endTime - startTime;
     }
 
-    private static void writeResultsToCSV(String fileName, int[] ns, long[] times1, long[] times2, String label1, String label2) throws IOException {
+    private static void writeResultsToCSV(String fileName, int[] ns, long[][] times, String[] labels) throws IOException {
         FileWriter csvWriter = new FileWriter(fileName);
-        csvWriter.append("n," + label1 + " (ns)," + label2 + " (ns)\n");
+        csvWriter.append("n");
+        for (String label : labels) {
+            csvWriter.append("," + label + " (ns)");
+        }
+        csvWriter.append("\n");
         for (int i = 0; i < ns.length; i++) {
-            csvWriter.append(ns[i] + "," + times1[i] + "," + times2[i] + "\n");
+            csvWriter.append(String.valueOf(ns[i]));
+            for (long[] t : times) {
+                csvWriter.append("," + t[i]);
+            }
+            csvWriter.append("\n");
         }
         csvWriter.flush();
         csvWriter.close();
@@ -82,56 +93,63 @@ public class Test_Experimentale_ARN_ABR {
 
     public static void main(String[] args) {
         int[] ns = {100, 1000, 10000, 100000}; // Différentes tailles de n pour les tests
-        long[] worstCaseInsertionTimesARN = new long[ns.length];
-        long[] averageCaseInsertionTimesARN = new long[ns.length];
-        long[] worstCaseSearchTimesARN = new long[ns.length];
-        long[] averageCaseSearchTimesARN = new long[ns.length];
-        long[] worstCaseInsertionTimesABR = new long[ns.length];
-        long[] averageCaseInsertionTimesABR = new long[ns.length];
-        long[] worstCaseSearchTimesABR = new long[ns.length];
-        long[] averageCaseSearchTimesABR = new long[ns.length];
+        // Avec rand.nextInt(n), environ 37 % des clés du cas moyen sont des
+        // doublons : le multiensemble n'a qu'un nœud par clé distincte
+        String[] noms = {"ARN", "ABR", "BArbre", "ARN multiensemble", "ABR bouc emissaire"};
+        List<Supplier<Collection<Integer>>> fabriques = Arrays.asList(ARN::new, ABR::new, BArbre::new, ARN::multiensemble,
+                ABR::boucEmissaire);
+        int nb = noms.length;
+        long[][] worstCaseInsertionTimes = new long[nb][ns.length];
+        long[][] averageCaseInsertionTimes = new long[nb][ns.length];
+        long[][] worstCaseSearchTimes = new long[nb][ns.length];
+        long[][] averageCaseSearchTimes = new long[nb][ns.length];
+        long[][] averageCaseScanTimes = new long[nb][ns.length];
 
         for (int i = 0; i < ns.length; i++) {
             System.out.println("Testing for n = " + ns[i]);
 
-            ARN<Integer> arbreWorstCaseARN = new ARN<>();
-            ARN<Integer> arbreAverageCaseARN = new ARN<>();
-            ABR<Integer> arbreWorstCaseABR = new ABR<>();
-            ABR<Integer> arbreAverageCaseABR = new ABR<>();
-
-            System.out.println("Measuring worst case insertion time for ARN...");
-            worstCaseInsertionTimesARN[i] = measureInsertionTime(arbreWorstCaseARN, ns[i], true);
-
-            System.out.println("Measuring average case insertion time for ARN...");
-            averageCaseInsertionTimesARN[i] = measureInsertionTime(arbreAverageCaseARN, ns[i], false);
-
-            System.out.println("Measuring worst case search time for ARN...");
-            worstCaseSearchTimesARN[i] = measureSearchTime(arbreWorstCaseARN, ns[i]);
+            for (int s = 0; s < nb; s++) {
+                Collection<Integer> arbreWorstCase = fabriques.get(s).get();
+                Collection<Integer> arbreAverageCase = fabriques.get(s).get();
 
-            System.out.println("Measuring average case search time for ARN...");
-            averageCaseSearchTimesARN[i] = measureSearchTime(arbreAverageCaseARN, ns[i]);
+                System.out.println("Measuring worst case insertion time for " + noms[s] + "...");
+                worstCaseInsertionTimes[s][i] = measureInsertionTime(arbreWorstCase, ns[i], true);
+                afficherMetriques(arbreWorstCase, worstCaseInsertionTimes[s][i]);
 
-            System.out.println("Measuring worst case insertion time for ABR...");
-            worstCaseInsertionTimesABR[i] = measureInsertionTime(arbreWorstCaseABR, ns[i], true);
+                System.out.println("Measuring average case insertion time for " + noms[s] + "...");
+                averageCaseInsertionTimes[s][i] = measureInsertionTime(arbreAverageCase, ns[i], false);
+                afficherMetriques(arbreAverageCase, averageCaseInsertionTimes[s][i]);
 
-            System.out.println("Measuring average case insertion time for ABR...");
-            averageCaseInsertionTimesABR[i] = measureInsertionTime(arbreAverageCaseABR, ns[i], false);
+                System.out.println("Measuring worst case search time for " + noms[s] + "...");
+                worstCaseSearchTimes[s][i] = measureSearchTime(arbreWorstCase, ns[i]);
+                afficherMetriques(arbreWorstCase, worstCaseSearchTimes[s][i]);
 
-            System.out.println("Measuring worst case search time for ABR...");
-            worstCaseSearchTimesABR[i] = measureSearchTime(arbreWorstCaseABR, ns[i]);
+                System.out.println("Measuring average case search time for " + noms[s] + "...");
+                averageCaseSearchTimes[s][i] = measureSearchTime(arbreAverageCase, ns[i]);
+                afficherMetriques(arbreAverageCase, averageCaseSearchTimes[s][i]);
 
-            System.out.println("Measuring average case search time for ABR...");
-            averageCaseSearchTimesABR[i] = measureSearchTime(arbreAverageCaseABR, ns[i]);
+                System.out.println("Measuring average case scan time for " + noms[s] + "...");
+                averageCaseScanTimes[s][i] = measureScanTime(arbreAverageCase);
+            }
         }
 
         try {
-            writeResultsToCSV("average_case_insertion.csv", ns, averageCaseInsertionTimesARN, averageCaseInsertionTimesABR, "Average Case Insertion ARN", "Average Case Insertion ABR");
-            writeResultsToCSV("average_case_search.csv", ns, averageCaseSearchTimesARN, averageCaseSearchTimesABR, "Average Case Search ARN", "Average Case Search ABR");
-            writeResultsToCSV("worst_case_insertion.csv", ns, worstCaseInsertionTimesARN, worstCaseInsertionTimesABR, "Worst Case Insertion ARN", "Worst Case Insertion ABR");
-            writeResultsToCSV("worst_case_search.csv", ns, worstCaseSearchTimesARN, worstCaseSearchTimesABR, "Worst Case Search ARN", "Worst Case Search ABR");
+            writeResultsToCSV("average_case_insertion.csv", ns, averageCaseInsertionTimes, libelles("Average Case Insertion", noms));
+            writeResultsToCSV("average_case_search.csv", ns, averageCaseSearchTimes, libelles("Average Case Search", noms));
+            writeResultsToCSV("worst_case_insertion.csv", ns, worstCaseInsertionTimes, libelles("Worst Case Insertion", noms));
+            writeResultsToCSV("worst_case_search.csv", ns, worstCaseSearchTimes, libelles("Worst Case Search", noms));
+            writeResultsToCSV("average_case_scan.csv", ns, averageCaseScanTimes, libelles("Average Case Scan", noms));
             System.out.println("Les fichiers CSV ont été créés avec succès.");
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+
+    private static String[] libelles(String mesure, String[] noms) {
+        String[] libelles = new String[noms.length];
+        for (int s = 0; s < noms.length; s++) {
+            libelles[s] = mesure + " " + noms[s];
+        }
+        return libelles;
+    }
+}
@@ -0,0 +1,116 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Débit en lecture de ARNConcurrent (lectures optimistes, StampedLock) comparé
+// à Collections.synchronizedCollection(new ARN<>()), pour 1, 4, 16 et 64
+// threads. Chaque thread fait 95 % de contains et 5 % d'écritures (add puis
+// remove d'une clé aléatoire, la taille reste donc stable).
+public class Test_Experimentale_Concurrence {
+
+    private static final int TAILLE_ARBRE = 1_000_000;
+    private static final int POURCENTAGE_ECRITURES = 5;
+    private static final long DUREE_MS = 2000;
+
+    private static Collection<Integer> remplir(Collection<Integer> arbre) {
+        for (int i = 0; i < TAILLE_ARBRE; i++) {
+            arbre.add(2 * i); // Clés paires : la moitié des recherches échouent
+        }
+        return arbre;
+    }
+
+    // Renvoie le nombre total d'opérations par seconde
+    private static double mesurerDebit(Collection<Integer> arbre, int nbThreads) throws InterruptedException {
+        LongAdder operations = new LongAdder();
+        LongAdder trouves = new LongAdder(); // Empêche l'élimination des contains
+        CountDownLatch depart = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        long[] fin = new long[1];
+
+        for (int t = 0; t < nbThreads; t++) {
+            long graine = 1000 + t;
+            Thread thread = new Thread(() -> {
+                SplittableRandom rand = new SplittableRandom(graine);
+                long compte = 0;
+                long vus = 0;
+                try {
+                    depart.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (System.currentTimeMillis() < fin[0]) {
+                    for (int i = 0; i < 1000; i++) {
+                        int cle = rand.nextInt(2 * TAILLE_ARBRE);
+                        if (rand.nextInt(100) < POURCENTAGE_ECRITURES) {
+                            arbre.add(cle);
+                            arbre.remove(cle);
+                        } else if (arbre.contains(cle)) {
+                            vus++;
+                        }
+                    }
+                    compte += 1000;
+                }
+                operations.add(compte);
+                trouves.add(vus);
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        fin[0] = System.currentTimeMillis() + DUREE_MS;
+        depart.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (trouves.sum() < 0) {
+            System.out.println(trouves.sum());
+        }
+        return operations.sum() * 1000.0 / DUREE_MS;
+    }
+
+    private static double[] mesurer(String nom, Supplier<Collection<Integer>> fabrique, int[] nbThreads)
+            throws InterruptedException {
+        double[] debits = new double[nbThreads.length];
+        Collection<Integer> arbre = remplir(fabrique.get());
+        mesurerDebit(arbre, 1); // Préchauffage du JIT
+        for (int i = 0; i < nbThreads.length; i++) {
+            debits[i] = mesurerDebit(arbre, nbThreads[i]);
+            System.out.printf("%-14s %3d threads : %,.0f op/s%n", nom, nbThreads[i], debits[i]);
+        }
+        return debits;
+    }
+
+    private static void writeResultsToCSV(String fileName, int[] ns, double[] debits1, double[] debits2,
+                                          String label1, String label2) throws IOException {
+        try (FileWriter csvWriter = new FileWriter(fileName)) {
+            csvWriter.append("threads," + label1 + " (op/s)," + label2 + " (op/s)\n");
+            for (int i = 0; i < ns.length; i++) {
+                csvWriter.append(ns[i] + "," + (long) debits1[i] + "," + (long) debits2[i] + "\n");
+            }
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int[] nbThreads = {1, 4, 16, 64};
+        System.out.println("Processeurs disponibles : " + Runtime.getRuntime().availableProcessors());
+
+        double[] debitsOptimistes = mesurer("ARNConcurrent", ARNConcurrent::new, nbThreads);
+        double[] debitsSynchronises = mesurer("synchronized",
+                () -> Collections.synchronizedCollection(new ARN<>()), nbThreads);
+
+        try {
+            writeResultsToCSV("concurrence_lecture.csv", nbThreads, debitsOptimistes, debitsSynchronises,
+                    "ARNConcurrent", "ARN synchronized");
+            System.out.println("Le fichier CSV a été créé avec succès.");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
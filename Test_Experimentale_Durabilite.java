@@ -0,0 +1,203 @@
+import java.io.BufferedReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Deux expériences sur ARNDurable :
+//
+// 1. Débit en écriture (add) de l'ARN en mémoire comparé à ARNDurable avec un
+//    fsync par opération, puis par lots de 64 et 1024 mutations, et avec une
+//    synchronisation toutes les 10 ms seulement.
+// 2. Reprise après un arrêt brutal : un processus fils écrit sans arrêt
+//    (ajouts et suppressions, points de contrôle fréquents) et annonce le
+//    nombre de mutations rendues durables ; on le tue (SIGKILL) au milieu
+//    d'un lot, puis on rouvre le répertoire et on vérifie que l'arbre est
+//    exactement l'état après un préfixe des mutations, contenant au moins
+//    toutes celles annoncées comme durables.
+public class Test_Experimentale_Durabilite {
+
+    private static final int NB_AJOUTS = 1_000_000;
+    private static final int NB_AJOUTS_FSYNC_UNITAIRE = 2_000;
+    private static final int NB_ARRETS = 5;
+
+    // Mutation numéro j du processus fils : ajout de j, sauf une fois sur
+    // cinq où l'on retire la clé ajoutée deux mutations plus tôt
+    private static boolean estAjout(long j) {
+        return j % 5 != 4;
+    }
+
+    private static int cleDe(long j) {
+        return (int) (estAjout(j) ? j : j - 2);
+    }
+
+    // ------------------------------------------------------------------
+    // 1. Débit
+    // ------------------------------------------------------------------
+
+    private static double mesurerDebit(Collection<Integer> arbre, int n, Random rand) {
+        long debut = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            arbre.add(rand.nextInt());
+        }
+        return n / ((System.nanoTime() - debut) / 1e9);
+    }
+
+    private static double mesurerDebitDurable(int n, int tailleLot, long intervalleMs) throws IOException {
+        Path repertoire = Files.createTempDirectory("arn-durable");
+        try {
+            double debit;
+            try (ARNDurable arbre = new ARNDurable(repertoire, tailleLot, intervalleMs, 0)) {
+                debit = mesurerDebit(arbre, n, new Random(42));
+            }
+            return debit;
+        } finally {
+            supprimer(repertoire);
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // 2. Arrêt brutal
+    // ------------------------------------------------------------------
+
+    // Corps du processus fils : écrit jusqu'à être tué
+    private static void ecrivain(Path repertoire) throws IOException {
+        try (ARNDurable arbre = new ARNDurable(repertoire, 256, 5, 200_000)) {
+            long dernierAnnonce = 0;
+            for (long j = 0; ; j++) {
+                if (estAjout(j)) {
+                    arbre.add(cleDe(j));
+                } else {
+                    arbre.remove(cleDe(j));
+                }
+                long durables = arbre.getNbDurables();
+                if (durables != dernierAnnonce) {
+                    System.out.println(durables);
+                    System.out.flush();
+                    dernierAnnonce = durables;
+                }
+            }
+        }
+    }
+
+    // Renvoie le nombre de mutations retrouvées (m) et le dernier nombre
+    // annoncé comme durable par le fils
+    private static long[] arreterEtReprendre(Path repertoire, long delaiMs) throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process fils = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                Test_Experimentale_Durabilite.class.getName(), "ecrivain", repertoire.toString())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+
+        AtomicLong annonce = new AtomicLong();
+        Thread lecteur = new Thread(() -> {
+            try (BufferedReader sortie = new BufferedReader(new InputStreamReader(fils.getInputStream()))) {
+                String ligne;
+                while ((ligne = sortie.readLine()) != null) {
+                    annonce.set(Long.parseLong(ligne.trim()));
+                }
+            } catch (IOException | NumberFormatException e) {
+                // Sortie coupée par l'arrêt du fils
+            }
+        });
+        lecteur.start();
+
+        Thread.sleep(delaiMs);
+        fils.destroyForcibly(); // SIGKILL : aucun close(), aucun crochet d'arrêt
+        fils.waitFor();
+        lecteur.join();
+
+        try (ARNDurable reprise = new ARNDurable(repertoire, 256, 0, 0)) {
+            return new long[] {prefixeRetrouve(reprise, annonce.get()), annonce.get()};
+        }
+    }
+
+    // Rejoue les mutations du fils sur une référence jusqu'à retrouver l'état
+    // de l'arbre repris ; -1 si aucun préfixe d'au moins minimum mutations ne
+    // correspond
+    private static long prefixeRetrouve(ARNDurable reprise, long minimum) {
+        List<Integer> attendu = new ArrayList<>(reprise);
+        int plusGrande = attendu.isEmpty() ? -1 : attendu.get(attendu.size() - 1);
+        TreeMap<Integer, Boolean> reference = new TreeMap<>();
+        for (long j = 0; j <= plusGrande + 3L || j <= minimum; j++) {
+            if (j >= minimum && reference.size() == attendu.size()
+                    && new ArrayList<>(reference.keySet()).equals(attendu)) {
+                return j;
+            }
+            if (estAjout(j)) {
+                reference.put(cleDe(j), Boolean.TRUE);
+            } else {
+                reference.remove(cleDe(j));
+            }
+        }
+        return -1;
+    }
+
+    private static void supprimer(Path repertoire) throws IOException {
+        try (Stream<Path> fichiers = Files.walk(repertoire)) {
+            fichiers.sorted(Comparator.reverseOrder()).forEach(fichier -> fichier.toFile().delete());
+        }
+    }
+
+    private static void writeResultsToCSV(String fileName, String[] labels, double[] debits) throws IOException {
+        try (FileWriter csvWriter = new FileWriter(fileName)) {
+            csvWriter.append("configuration,débit (add/s)\n");
+            for (int i = 0; i < labels.length; i++) {
+                csvWriter.append(labels[i] + "," + (long) debits[i] + "\n");
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 2 && args[0].equals("ecrivain")) {
+            ecrivain(Path.of(args[1]));
+            return;
+        }
+
+        String[] labels = {"ARN en mémoire", "fsync par add", "lots de 64", "lots de 1024", "toutes les 10 ms"};
+        double[] debits = new double[labels.length];
+        mesurerDebit(new ARN<>(), NB_AJOUTS, new Random(1)); // Préchauffage du JIT
+        debits[0] = mesurerDebit(new ARN<>(), NB_AJOUTS, new Random(42));
+        debits[1] = mesurerDebitDurable(NB_AJOUTS_FSYNC_UNITAIRE, 1, 0);
+        debits[2] = mesurerDebitDurable(NB_AJOUTS, 64, 0);
+        debits[3] = mesurerDebitDurable(NB_AJOUTS, 1024, 0);
+        debits[4] = mesurerDebitDurable(NB_AJOUTS, Integer.MAX_VALUE, 10);
+        for (int i = 0; i < labels.length; i++) {
+            System.out.printf("%-18s : %,.0f add/s%n", labels[i], debits[i]);
+        }
+        try {
+            writeResultsToCSV("durabilite_ecriture.csv", labels, debits);
+            System.out.println("Le fichier CSV a été créé avec succès.");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        Path repertoire = Files.createTempDirectory("arn-arret");
+        Random rand = new Random(7);
+        boolean reussi = true;
+        try {
+            for (int essai = 1; essai <= NB_ARRETS; essai++) {
+                supprimer(repertoire);
+                Files.createDirectories(repertoire);
+                long[] resultat = arreterEtReprendre(repertoire, 300 + rand.nextInt(700));
+                boolean correct = resultat[0] >= 0;
+                reussi &= correct;
+                System.out.printf("Arrêt %d : %,d mutations annoncées durables, %s%n", essai, resultat[1],
+                        correct ? String.format("état repris = préfixe de %,d mutations", resultat[0])
+                                : "état repris incohérent");
+            }
+        } finally {
+            supprimer(repertoire);
+        }
+        System.out.println(reussi ? "Reprise correcte après chaque arrêt." : "ÉCHEC de la reprise.");
+    }
+}
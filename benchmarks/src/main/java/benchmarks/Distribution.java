@@ -0,0 +1,104 @@
+package benchmarks;
+
+import java.util.SplittableRandom;
+
+/**
+ * Distributions des clés. L'arbre contient les clés paires 0, 2, ..., 2(n-1) ;
+ * une clé impaire est donc toujours absente.
+ * <ul>
+ * <li>SEQUENTIELLE : insertion dans l'ordre croissant (le pire cas de l'ABR),
+ * sondes dans l'ordre croissant ;</li>
+ * <li>UNIFORME : insertion dans un ordre aléatoire, sondes uniformes ;</li>
+ * <li>ZIPF : insertion dans un ordre aléatoire, sondes selon une loi de Zipf
+ * (θ = 0,99) dont les clés chaudes sont dispersées dans l'arbre.</li>
+ * </ul>
+ * Tous les tirages sont faits avec une graine fixe : deux exécutions mesurent
+ * exactement les mêmes séquences.
+ */
+public enum Distribution {
+    SEQUENTIELLE, UNIFORME, ZIPF;
+
+    static final long GRAINE = 20240101L;
+
+    /** Rangs (0..n-1) dans l'ordre d'insertion. */
+    int[] ordreInsertion(int n) {
+        int[] rangs = new int[n];
+        for (int i = 0; i < n; i++) {
+            rangs[i] = i;
+        }
+        if (this != SEQUENTIELLE) {
+            melanger(rangs, new SplittableRandom(GRAINE));
+        }
+        return rangs;
+    }
+
+    /** nbSondes rangs (0..n-1) tirés selon la distribution. */
+    int[] sondes(int n, int nbSondes) {
+        int[] sondes = new int[nbSondes];
+        SplittableRandom rand = new SplittableRandom(GRAINE + 1);
+        switch (this) {
+            case SEQUENTIELLE:
+                for (int i = 0; i < nbSondes; i++) {
+                    sondes[i] = i % n;
+                }
+                break;
+            case UNIFORME:
+                for (int i = 0; i < nbSondes; i++) {
+                    sondes[i] = rand.nextInt(n);
+                }
+                break;
+            case ZIPF:
+                Zipf zipf = new Zipf(n, 0.99);
+                int[] permutation = ordreInsertion(n); // rang de popularité -> rang de clé
+                for (int i = 0; i < nbSondes; i++) {
+                    sondes[i] = permutation[zipf.suivant(rand)];
+                }
+                break;
+        }
+        return sondes;
+    }
+
+    static void melanger(int[] t, SplittableRandom rand) {
+        for (int i = t.length - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            int tmp = t[i];
+            t[i] = t[j];
+            t[j] = tmp;
+        }
+    }
+
+    /**
+     * Générateur de Zipf de Gray et al. ("Quickly generating billion-record
+     * synthetic databases", 1994), celui de YCSB : O(n) à la création, O(1)
+     * par tirage.
+     */
+    static final class Zipf {
+        private final int n;
+        private final double theta, alpha, zetan, eta;
+
+        Zipf(int n, double theta) {
+            this.n = n;
+            this.theta = theta;
+            double zeta2 = 1 + Math.pow(0.5, theta);
+            double z = 0;
+            for (int i = 1; i <= n; i++) {
+                z += 1 / Math.pow(i, theta);
+            }
+            this.zetan = z;
+            this.alpha = 1 / (1 - theta);
+            this.eta = (1 - Math.pow(2.0 / n, 1 - theta)) / (1 - zeta2 / zetan);
+        }
+
+        int suivant(SplittableRandom rand) {
+            double u = rand.nextDouble();
+            double uz = u * zetan;
+            if (uz < 1) {
+                return 0;
+            }
+            if (uz < 1 + Math.pow(0.5, theta)) {
+                return Math.min(1, n - 1);
+            }
+            return Math.min(n - 1, (int) (n * Math.pow(eta * u - eta + 1, alpha)));
+        }
+    }
+}
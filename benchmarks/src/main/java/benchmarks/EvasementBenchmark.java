@@ -0,0 +1,76 @@
+package benchmarks;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * L'ABR évasé (ABR.evase()) face à l'ARN et à l'ABR simple quand les accès
+ * sont concentrés sur quelques clés (ZIPF) ou non (UNIFORME). L'arbre évasé
+ * se réorganise à chaque recherche : les clés chaudes restent près de la
+ * racine, au prix d'écritures dans l'arbre pendant les lectures.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class EvasementBenchmark {
+
+    private static final int NB_SONDES = 1 << 20;
+    private static final int MASQUE = NB_SONDES - 1;
+
+    @Param({"ABR-evase", "ARN", "ABR"})
+    public String implementation;
+
+    @Param({"100000", "1000000"})
+    public int taille;
+
+    @Param({"ZIPF", "UNIFORME"})
+    public Distribution distribution;
+
+    private Collection<Integer> arbre;
+    private Integer[] presentes;
+    private Integer[] absentes;
+    private int curseur;
+
+    @Setup
+    public void preparer() {
+        arbre = Fabriques.creer(implementation);
+        for (int rang : distribution.ordreInsertion(taille)) {
+            arbre.add(2 * rang);
+        }
+        int[] sondes = distribution.sondes(taille, NB_SONDES);
+        presentes = new Integer[NB_SONDES];
+        absentes = new Integer[NB_SONDES];
+        for (int i = 0; i < NB_SONDES; i++) {
+            presentes[i] = 2 * sondes[i];
+            absentes[i] = 2 * sondes[i] + 1;
+        }
+    }
+
+    @Benchmark
+    public boolean containsPresent() {
+        return arbre.contains(presentes[curseur++ & MASQUE]);
+    }
+
+    /** Ajout puis suppression d'une clé absente voisine d'une clé chaude. */
+    @Benchmark
+    public boolean ajoutSuppression() {
+        Integer cle = absentes[curseur++ & MASQUE];
+        arbre.add(cle);
+        return arbre.remove(cle);
+    }
+}
@@ -0,0 +1,108 @@
+package benchmarks;
+
+import java.util.Collection;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Crée les arbres à mesurer à partir de leur nom. Les arbres sont dans le
+ * paquetage par défaut, qu'on ne peut pas importer depuis un paquetage nommé
+ * (et JMH refuse les benchmarks du paquetage par défaut) : ils sont donc
+ * instanciés par réflexion, une seule fois par essai. Les appels mesurés
+ * passent ensuite par l'interface Collection, sans réflexion.
+ */
+final class Fabriques {
+
+    private static final boolean METRIQUES = Boolean.getBoolean("arbres.metriques");
+    private static final AtomicInteger NB_ARBRES = new AtomicInteger();
+
+    private Fabriques() {
+    }
+
+    /**
+     * Un nom de la forme "ABR-evase" désigne l'arbre créé par la fabrique
+     * statique evase() de la classe ABR.
+     */
+    @SuppressWarnings("unchecked")
+    static Collection<Integer> creer(String implementation) {
+        Collection<Integer> arbre;
+        try {
+            int tiret = implementation.indexOf('-');
+            if (tiret >= 0) {
+                Class<?> classe = Class.forName(implementation.substring(0, tiret));
+                arbre = (Collection<Integer>) classe.getMethod(implementation.substring(tiret + 1)).invoke(null);
+            } else {
+                arbre = (Collection<Integer>) Class.forName(implementation).getDeclaredConstructor().newInstance();
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Implémentation inconnue : " + implementation, e);
+        }
+        if (METRIQUES) {
+            enregistrerMetriques(implementation + "#" + NB_ARBRES.incrementAndGet(), arbre);
+        }
+        return arbre;
+    }
+
+    /**
+     * Avec -Darbres.metriques=true, enregistre l'arbre auprès de JMX
+     * (Metriques.enregistrer, appelé par réflexion) pour
+     * {@link ProfileurArbres}. L'enregistrement ne garde pas l'arbre en vie.
+     */
+    private static void enregistrerMetriques(String nom, Object arbre) {
+        try {
+            Class<?> source = Class.forName("Metriques$Source");
+            if (source.isInstance(arbre)) {
+                Class.forName("Metriques").getMethod("enregistrer", String.class, source).invoke(null, nom, arbre);
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Enregistrement JMX impossible pour " + nom, e);
+        }
+    }
+
+    /**
+     * Remet à zéro les compteurs d'un arbre qu'on vient de remplir dans un
+     * {@code @Setup(Level.Iteration)}, pour que {@link ProfileurArbres} ne
+     * compte que le travail mesuré. Sans effet si les métriques sont
+     * désactivées.
+     */
+    static void oublierMetriques(Collection<Integer> arbre) {
+        if (!METRIQUES) {
+            return;
+        }
+        try {
+            Class<?> source = Class.forName("Metriques$Source");
+            if (source.isInstance(arbre)) {
+                source.getMethod("reinitialiserMetriques").invoke(arbre);
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Remise à zéro des métriques impossible", e);
+        }
+    }
+
+    /**
+     * Table ordonnée : "TreeMap" pour java.util.TreeMap, sinon une classe du
+     * paquetage par défaut (ARNMap).
+     */
+    @SuppressWarnings("unchecked")
+    static NavigableMap<Integer, Long> creerTable(String implementation) {
+        if (implementation.equals("TreeMap")) {
+            return new TreeMap<>();
+        }
+        try {
+            return (NavigableMap<Integer, Long>) Class.forName(implementation).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Implémentation inconnue : " + implementation, e);
+        }
+    }
+
+    /**
+     * Un ABR non équilibré rempli dans l'ordre croissant est une liste : sa
+     * construction coûte O(n²). Au-delà de ce seuil, l'essai est refusé.
+     */
+    static void verifierFaisable(String implementation, Distribution distribution, int taille) {
+        if (implementation.equals("ABR") && distribution == Distribution.SEQUENTIELLE && taille > 100_000) {
+            throw new IllegalStateException("ABR en insertion séquentielle : O(n²), essai ignoré pour n = " + taille);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Point d'entrée de benchmarks.jar. Accepte les options habituelles de JMH
+ * (par exemple {@code -p taille=1000,100000 RechercheBenchmark}) et ajoute par
+ * défaut le profileur GC (taux d'allocation) et l'écriture des résultats en
+ * JSON dans resultats_jmh.json, que graph.py sait tracer.
+ */
+public final class Lanceur {
+
+    private Lanceur() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions ligneDeCommande = new CommandLineOptions(args);
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(ligneDeCommande);
+        if (ligneDeCommande.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+        if (!ligneDeCommande.getResult().hasValue()) {
+            options.result("resultats_jmh.json");
+        }
+        if (!ligneDeCommande.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        Options finales = options.build();
+        new Runner(finales).run();
+    }
+}
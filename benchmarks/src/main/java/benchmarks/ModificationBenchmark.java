@@ -0,0 +1,80 @@
+package benchmarks;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Construction (n ajouts dans un arbre vide) et vidage (n suppressions) d'un
+ * arbre. Chaque appel modifie tout l'arbre : l'état est donc refait avant
+ * chaque itération et le temps est celui d'un appel unique (SingleShotTime).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ModificationBenchmark {
+
+    @Param({"ABR", "ABR-boucEmissaire", "ARN"})
+    public String implementation;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int taille;
+
+    @Param({"SEQUENTIELLE", "UNIFORME", "ZIPF"})
+    public Distribution distribution;
+
+    private Integer[] cles;
+    private Collection<Integer> vide;
+    private Collection<Integer> plein;
+
+    @Setup(Level.Trial)
+    public void preparerCles() {
+        Fabriques.verifierFaisable(implementation, distribution, taille);
+        int[] ordre = distribution.ordreInsertion(taille);
+        cles = new Integer[taille];
+        for (int i = 0; i < taille; i++) {
+            cles[i] = 2 * ordre[i];
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void preparerArbres() {
+        vide = Fabriques.creer(implementation);
+        plein = Fabriques.creer(implementation);
+        for (Integer cle : cles) {
+            plein.add(cle);
+        }
+        Fabriques.oublierMetriques(plein);
+    }
+
+    @Benchmark
+    public Collection<Integer> add() {
+        for (Integer cle : cles) {
+            vide.add(cle);
+        }
+        return vide;
+    }
+
+    @Benchmark
+    public Collection<Integer> remove() {
+        for (Integer cle : cles) {
+            plein.remove(cle);
+        }
+        return plein;
+    }
+}
@@ -0,0 +1,113 @@
+package benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+/**
+ * Profileur JMH qui ajoute aux temps mesurés les métriques des arbres
+ * (comparaisons, rotations et recolorations par opération, profondeur
+ * moyenne et hauteur), lues par JMX sur les arbres que {@link Fabriques} a
+ * enregistrés. Il faut activer l'instrumentation dans la JVM de mesure :
+ *
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar -prof benchmarks.ProfileurArbres \
+ *     -jvmArgsAppend "-Xmx4g -Darbres.metriques=true" RechercheBenchmark
+ * </pre>
+ *
+ * Les compteurs sont remis à zéro avant chaque itération ; le travail des
+ * {@code @Setup(Level.Iteration)} qui suit est donc compté, sauf si le
+ * benchmark appelle {@link Fabriques#oublierMetriques}.
+ */
+public class ProfileurArbres implements InternalProfiler {
+
+    private static final String OPERATION_REINITIALISER = "reinitialiser";
+
+    private final MBeanServer serveur = ManagementFactory.getPlatformMBeanServer();
+
+    @Override
+    public String getDescription() {
+        return "Métriques des arbres (comparaisons, rotations, profondeur), lues par JMX";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        for (ObjectName nom : arbres()) {
+            try {
+                serveur.invoke(nom, OPERATION_REINITIALISER, null, null);
+            } catch (JMException e) {
+                throw new IllegalStateException("Remise à zéro impossible pour " + nom, e);
+            }
+        }
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams,
+                                                       IterationParams iterationParams, IterationResult result) {
+        long comparaisons = 0;
+        long rotations = 0;
+        long recolorations = 0;
+        double sommeProfondeurs = 0;
+        long nbNoeuds = 0;
+        int hauteur = 0;
+        for (ObjectName nom : arbres()) {
+            CompositeData metriques;
+            try {
+                metriques = (CompositeData) serveur.getAttribute(nom, "Metriques");
+                if (metriques == null) {
+                    serveur.unregisterMBean(nom); // Arbre récupéré par le ramasse-miettes
+                    continue;
+                }
+            } catch (JMException e) {
+                throw new IllegalStateException("Lecture impossible pour " + nom, e);
+            }
+            comparaisons += (Long) metriques.get("comparaisons");
+            rotations += (Long) metriques.get("rotations");
+            recolorations += (Long) metriques.get("recolorations");
+            int taille = (Integer) metriques.get("taille");
+            sommeProfondeurs += (Double) metriques.get("profondeurMoyenne") * taille;
+            nbNoeuds += taille;
+            hauteur = Math.max(hauteur, (Integer) metriques.get("hauteur"));
+        }
+
+        List<Result> resultats = new ArrayList<>();
+        long nbOperations = result.getMetadata().getAllOps();
+        if (nbOperations > 0) {
+            resultats.add(new ScalarResult("arbres.comparaisons", (double) comparaisons / nbOperations,
+                    "#/op", AggregationPolicy.AVG));
+            resultats.add(new ScalarResult("arbres.rotations", (double) rotations / nbOperations,
+                    "#/op", AggregationPolicy.AVG));
+            resultats.add(new ScalarResult("arbres.recolorations", (double) recolorations / nbOperations,
+                    "#/op", AggregationPolicy.AVG));
+        }
+        if (nbNoeuds > 0) {
+            resultats.add(new ScalarResult("arbres.profondeur.moyenne", sommeProfondeurs / nbNoeuds,
+                    "niveaux", AggregationPolicy.AVG));
+            resultats.add(new ScalarResult("arbres.hauteur", hauteur, "niveaux", AggregationPolicy.MAX));
+        }
+        return resultats;
+    }
+
+    private Set<ObjectName> arbres() {
+        try {
+            return serveur.queryNames(new ObjectName("arbres:type=Arbre,*"), null);
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
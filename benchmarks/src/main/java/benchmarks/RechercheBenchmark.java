@@ -0,0 +1,110 @@
+package benchmarks;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Opérations sur un arbre déjà rempli (construit une fois par essai) :
+ * recherche réussie, recherche ratée, parcours complet et charge mixte.
+ * Chaque résultat est rendu à JMH (valeur de retour ou Blackhole) pour que
+ * le JIT ne puisse pas éliminer le travail mesuré.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class RechercheBenchmark {
+
+    private static final int NB_SONDES = 1 << 20;
+    private static final int MASQUE = NB_SONDES - 1;
+
+    @Param({"ABR", "ABR-boucEmissaire", "ARN"})
+    public String implementation;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int taille;
+
+    @Param({"SEQUENTIELLE", "UNIFORME", "ZIPF"})
+    public Distribution distribution;
+
+    private Collection<Integer> arbre;
+    private Integer[] presentes;
+    private Integer[] absentes;
+    private int curseur;
+
+    @Setup
+    public void preparer() {
+        Fabriques.verifierFaisable(implementation, distribution, taille);
+        arbre = Fabriques.creer(implementation);
+        for (int rang : distribution.ordreInsertion(taille)) {
+            arbre.add(2 * rang);
+        }
+        // Clés pré-boxées : on ne mesure pas l'allocation des Integer
+        int[] sondes = distribution.sondes(taille, NB_SONDES);
+        presentes = new Integer[NB_SONDES];
+        absentes = new Integer[NB_SONDES];
+        for (int i = 0; i < NB_SONDES; i++) {
+            presentes[i] = 2 * sondes[i];
+            absentes[i] = 2 * sondes[i] + 1;
+        }
+    }
+
+    @Benchmark
+    public boolean containsPresent() {
+        return arbre.contains(presentes[curseur++ & MASQUE]);
+    }
+
+    @Benchmark
+    public boolean containsAbsent() {
+        return arbre.contains(absentes[curseur++ & MASQUE]);
+    }
+
+    /** Ajout puis suppression d'une clé absente : la taille reste stable. */
+    @Benchmark
+    public boolean ajoutSuppression() {
+        Integer cle = absentes[curseur++ & MASQUE];
+        arbre.add(cle);
+        return arbre.remove(cle);
+    }
+
+    /** Parcours complet dans l'ordre : une opération = tout l'arbre. */
+    @Benchmark
+    public void parcours(Blackhole trou) {
+        for (Integer cle : arbre) {
+            trou.consume(cle);
+        }
+    }
+
+    /** 90 % de recherches (moitié réussies), 10 % d'ajouts/suppressions. */
+    @Benchmark
+    public boolean mixte() {
+        int i = curseur++ & MASQUE;
+        switch (i % 10) {
+            case 0:
+                arbre.add(absentes[i]);
+                return arbre.remove(absentes[i]);
+            case 1:
+            case 2:
+            case 3:
+            case 4:
+                return arbre.contains(absentes[i]);
+            default:
+                return arbre.contains(presentes[i]);
+        }
+    }
+}
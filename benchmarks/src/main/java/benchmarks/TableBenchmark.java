@@ -0,0 +1,107 @@
+package benchmarks;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compteurs par horodatage : un merge(cle, 1, Long::sum) par événement, puis
+ * la somme des compteurs d'un intervalle de clés. ARNMap garde la valeur dans
+ * le nœud de l'arbre ; "ARN+HashMap" est l'ancienne organisation, un ARN pour
+ * l'ordre des clés et une HashMap pour les valeurs ; TreeMap sert de
+ * référence.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class TableBenchmark {
+
+    private static final int NB_SONDES = 1 << 20;
+    private static final int MASQUE = NB_SONDES - 1;
+    private static final int LARGEUR_INTERVALLE = 1000;
+
+    @Param({"ARNMap", "ARN+HashMap", "TreeMap"})
+    public String implementation;
+
+    @Param({"100000", "1000000"})
+    public int taille;
+
+    @Param({"ZIPF", "UNIFORME"})
+    public Distribution distribution;
+
+    private NavigableMap<Integer, Long> table;
+    private Collection<Integer> index;
+    private Map<Integer, Long> valeurs;
+    private Integer[] cles;
+    private int curseur;
+
+    @Setup
+    public void preparer() {
+        if (implementation.equals("ARN+HashMap")) {
+            index = Fabriques.creer("ARN");
+            valeurs = new HashMap<>();
+        } else {
+            table = Fabriques.creerTable(implementation);
+        }
+        for (int rang : distribution.ordreInsertion(taille)) {
+            merge(rang);
+        }
+        int[] sondes = distribution.sondes(taille, NB_SONDES);
+        cles = new Integer[NB_SONDES];
+        for (int i = 0; i < NB_SONDES; i++) {
+            cles[i] = sondes[i];
+        }
+    }
+
+    private Long merge(Integer cle) {
+        if (table != null) {
+            return table.merge(cle, 1L, Long::sum);
+        }
+        Long compteur = valeurs.merge(cle, 1L, Long::sum);
+        if (compteur == 1L) {
+            index.add(cle); // Première occurrence : la clé entre dans l'index
+        }
+        return compteur;
+    }
+
+    @Benchmark
+    public Long mergeCompteur() {
+        return merge(cles[curseur++ & MASQUE]);
+    }
+
+    /** Somme des compteurs des clés de [debut, debut + 1000[. */
+    @Benchmark
+    public long sommeIntervalle() {
+        int debut = cles[curseur++ & MASQUE];
+        int fin = debut + LARGEUR_INTERVALLE;
+        long somme = 0;
+        if (table != null) {
+            for (Long compteur : table.subMap(debut, true, fin, false).values()) {
+                somme += compteur;
+            }
+        } else {
+            for (Integer cle : ((NavigableSet<Integer>) index).subSet(debut, true, fin, false)) {
+                somme += valeurs.get(cle);
+            }
+        }
+        return somme;
+    }
+}
@@ -1,3 +1,6 @@
+import json
+import os
+
 import pandas as pd
 import matplotlib.pyplot as plt
 
@@ -24,8 +27,8 @@ plot_graph(
     'Temps d\'insertion (ns)',
     'Temps d\'insertion en fonction de la taille de l\'arbre (cas moyen)',
     'average_case_insertion.png',
-    ['Average Case Insertion ARN (ns)', 'Average Case Insertion ABR (ns)'],
-    ['Average Case Insertion ARN', 'Average Case Insertion ABR']
+    ['Average Case Insertion ARN (ns)', 'Average Case Insertion ABR (ns)', 'Average Case Insertion BArbre (ns)', 'Average Case Insertion ARN multiensemble (ns)', 'Average Case Insertion ABR bouc emissaire (ns)'],
+    ['Average Case Insertion ARN', 'Average Case Insertion ABR', 'Average Case Insertion BArbre', 'Average Case Insertion ARN multiensemble', 'Average Case Insertion ABR bouc emissaire']
 )
 
 # Graphiques pour les temps de recherche en cas moyen
@@ -35,8 +38,8 @@ plot_graph(
     'Temps de recherche (ns)',
     'Temps de recherche en fonction de la taille de l\'arbre (cas moyen)',
     'average_case_search.png',
-    ['Average Case Search ARN (ns)', 'Average Case Search ABR (ns)'],
-    ['Average Case Search ARN', 'Average Case Search ABR']
+    ['Average Case Search ARN (ns)', 'Average Case Search ABR (ns)', 'Average Case Search BArbre (ns)', 'Average Case Search ARN multiensemble (ns)', 'Average Case Search ABR bouc emissaire (ns)'],
+    ['Average Case Search ARN', 'Average Case Search ABR', 'Average Case Search BArbre', 'Average Case Search ARN multiensemble', 'Average Case Search ABR bouc emissaire']
 )
 
 # Graphiques pour les temps d'insertion en pire cas
@@ -46,8 +49,8 @@ plot_graph(
     'Temps d\'insertion (ns)',
     'Temps d\'insertion en fonction de la taille de l\'arbre (pire cas)',
     'worst_case_insertion.png',
-    ['Worst Case Insertion ARN (ns)', 'Worst Case Insertion ABR (ns)'],
-    ['Worst Case Insertion ARN', 'Worst Case Insertion ABR']
+    ['Worst Case Insertion ARN (ns)', 'Worst Case Insertion ABR (ns)', 'Worst Case Insertion BArbre (ns)', 'Worst Case Insertion ARN multiensemble (ns)', 'Worst Case Insertion ABR bouc emissaire (ns)'],
+    ['Worst Case Insertion ARN', 'Worst Case Insertion ABR', 'Worst Case Insertion BArbre', 'Worst Case Insertion ARN multiensemble', 'Worst Case Insertion ABR bouc emissaire']
 )
 
 # Graphiques pour les temps de recherche en pire cas
@@ -57,9 +60,65 @@ plot_graph(
     'Temps de recherche (ns)',
     'Temps de recherche en fonction de la taille de l\'arbre (pire cas)',
     'worst_case_search.png',
-    ['Worst Case Search ARN (ns)', 'Worst Case Search ABR (ns)'],
-    ['Worst Case Search ARN', 'Worst Case Search ABR']
+    ['Worst Case Search ARN (ns)', 'Worst Case Search ABR (ns)', 'Worst Case Search BArbre (ns)', 'Worst Case Search ARN multiensemble (ns)', 'Worst Case Search ABR bouc emissaire (ns)'],
+    ['Worst Case Search ARN', 'Worst Case Search ABR', 'Worst Case Search BArbre', 'Worst Case Search ARN multiensemble', 'Worst Case Search ABR bouc emissaire']
+)
+
+# Graphiques pour les temps de parcours dans l'ordre (cas moyen)
+plot_graph(
+    'average_case_scan.csv',
+    'Taille de l\'arbre (n)',
+    'Temps de parcours (ns)',
+    'Temps de parcours complet en fonction de la taille de l\'arbre (cas moyen)',
+    'average_case_scan.png',
+    ['Average Case Scan ARN (ns)', 'Average Case Scan ABR (ns)', 'Average Case Scan BArbre (ns)', 'Average Case Scan ARN multiensemble (ns)', 'Average Case Scan ABR bouc emissaire (ns)'],
+    ['Average Case Scan ARN', 'Average Case Scan ABR', 'Average Case Scan BArbre', 'Average Case Scan ARN multiensemble', 'Average Case Scan ABR bouc emissaire']
 )
 
 
+def plot_jmh(json_file, output_prefix='jmh'):
+    # Lire les résultats JMH (java -jar benchmarks/target/benchmarks.jar)
+    with open(json_file) as f:
+        results = json.load(f)
+
+    rows = []
+    for r in results:
+        params = r.get('params', {})
+        metrics = r.get('secondaryMetrics', {})
+        # Le nom de la métrique du profileur GC dépend de la version de JMH
+        alloc = metrics.get('gc.alloc.rate.norm', metrics.get('\u00b7gc.alloc.rate.norm', {}))
+        rows.append({
+            # Classe.méthode : containsPresent existe dans plusieurs classes
+            'benchmark': '.'.join(r['benchmark'].split('.')[-2:]),
+            'mode': r['mode'],
+            'implementation': params.get('implementation'),
+            'distribution': params.get('distribution'),
+            'n': int(params.get('taille', 0)),
+            'score': r['primaryMetric']['score'],
+            'unit': r['primaryMetric']['scoreUnit'],
+            'alloc': alloc.get('score'),
+        })
+    df = pd.DataFrame(rows)
+
+    # Un graphique par (benchmark, mode, distribution), une courbe par arbre
+    for (benchmark, mode, distribution), group in df.groupby(['benchmark', 'mode', 'distribution']):
+        plt.figure(figsize=(10, 5))
+        for implementation, courbe in group.groupby('implementation'):
+            courbe = courbe.sort_values('n')
+            plt.plot(courbe['n'], courbe['score'], label=implementation, marker='o')
+        plt.xscale('log')
+        plt.xlabel('Taille de l\'arbre (n)')
+        plt.ylabel(group['unit'].iloc[0])
+        plt.title(f'{benchmark} ({mode}, {distribution})')
+        plt.legend()
+        plt.grid(True)
+        plt.savefig(f'{output_prefix}_{benchmark}_{mode}_{distribution}.png')
+        plt.close()
+
+    # Octets alloués par opération (profileur GC)
+    df[['benchmark', 'mode', 'implementation', 'distribution', 'n', 'score', 'unit', 'alloc']] \
+        .to_csv(f'{output_prefix}_resume.csv', index=False)
+
 
+if os.path.exists('resultats_jmh.json'):
+    plot_jmh('resultats_jmh.json')